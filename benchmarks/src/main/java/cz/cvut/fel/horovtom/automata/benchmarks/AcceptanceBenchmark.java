@@ -0,0 +1,78 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures acceptance of random words. Score is the time per one word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AcceptanceBenchmark {
+    private static final int WORDS = 1024;
+    private static final int WORD_LENGTH = 64;
+
+    @Param({"DFA", "NFA", "ENFA"})
+    public BenchmarkAutomata.Type type;
+
+    @Param({"16", "64", "256"})
+    public int states;
+
+    @Param({"2", "10", "26"})
+    public int sigmaSize;
+
+    private Automaton automaton, reduced;
+    private String[][] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        automaton = BenchmarkAutomata.create(type, r, states, sigmaSize);
+        reduced = BenchmarkAutomata.create(type, new Random(BenchmarkAutomata.SEED), states, sigmaSize);
+        reduced.getReduced();
+        words = BenchmarkAutomata.createWords(r, sigmaSize, WORDS, WORD_LENGTH);
+    }
+
+    /**
+     * Default path of an automaton, that has not been reduced
+     */
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int acceptsWord() {
+        int accepted = 0;
+        for (String[] word : words) {
+            if (automaton.acceptsWord(word)) accepted++;
+        }
+        return accepted;
+    }
+
+    /**
+     * Path of an automaton, that has its reduced automaton cached
+     */
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int acceptsWordReduced() {
+        int accepted = 0;
+        for (String[] word : words) {
+            if (reduced.acceptsWord(word)) accepted++;
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int acceptsWordUnified() {
+        int accepted = 0;
+        for (String[] word : words) {
+            if (automaton.acceptsWordUnified(word)) accepted++;
+        }
+        return accepted;
+    }
+}
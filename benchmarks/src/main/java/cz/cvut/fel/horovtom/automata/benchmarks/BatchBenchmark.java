@@ -0,0 +1,58 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.BatchMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parallel acceptance of a large batch of words against the number of threads. Score is the time per one word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BatchBenchmark {
+    private static final int WORDS = 1 << 18;
+    private static final int WORD_LENGTH = 64;
+
+    @Param({"DFA", "NFA"})
+    public BenchmarkAutomata.Type type;
+
+    @Param({"1", "2", "4", "8", "16", "64"})
+    public int threads;
+
+    private ForkJoinPool pool;
+    private BatchMatcher matcher;
+    private ArrayList<String> words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        Automaton automaton = BenchmarkAutomata.create(type, r, 64, 10);
+        matcher = new BatchMatcher(automaton, threads);
+        pool = new ForkJoinPool(threads);
+        words = new ArrayList<>(WORDS);
+        for (String[] word : BenchmarkAutomata.createWords(r, 10, WORDS, WORD_LENGTH)) {
+            words.add(String.join("", word));
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public BitSet acceptsWords() {
+        return matcher.accepts(words, pool);
+    }
+}
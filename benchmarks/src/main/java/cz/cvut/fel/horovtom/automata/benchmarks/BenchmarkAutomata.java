@@ -0,0 +1,125 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+
+import java.util.Random;
+
+/**
+ * Seeded random inputs for benchmarks, so that every run measures the same automata and words.
+ */
+final class BenchmarkAutomata {
+    static final long SEED = 42;
+
+    private BenchmarkAutomata() {
+    }
+
+    enum Type {
+        DFA, NFA, ENFA
+    }
+
+    static String[] getSigma(int sigmaSize) {
+        String[] sigma = new String[sigmaSize];
+        for (int i = 0; i < sigmaSize; i++) {
+            sigma[i] = String.valueOf((char) ('a' + i));
+        }
+        return sigma;
+    }
+
+    private static String[] getQ(int QSize) {
+        String[] q = new String[QSize];
+        for (int i = 0; i < QSize; i++) {
+            q[i] = String.valueOf(i);
+        }
+        return q;
+    }
+
+    private static int[] getAccepting(Random r, int QSize) {
+        return r.ints(Math.max(1, QSize / 4), 0, QSize).distinct().sorted().toArray();
+    }
+
+    static Automaton create(Type type, Random r, int QSize, int sigmaSize) {
+        switch (type) {
+            case DFA:
+                return createDFA(r, QSize, sigmaSize);
+            case NFA:
+                return createNFA(r, QSize, sigmaSize);
+            default:
+                return createENFA(r, QSize, sigmaSize);
+        }
+    }
+
+    /**
+     * @return Complete DFA with uniformly random transitions
+     */
+    static DFAAutomaton createDFA(Random r, int QSize, int sigmaSize) {
+        int[] table = new int[QSize * sigmaSize];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = r.nextInt(QSize);
+        }
+        return new DFAAutomaton(getQ(QSize), getSigma(sigmaSize), TransitionTable.fromDense(QSize, sigmaSize, table), 0, getAccepting(r, QSize));
+    }
+
+    /**
+     * @return NFA of a random regex with QSize letter occurrences, see {@link #createRegex(Random, int, int)}.
+     * Uniformly random NFAs are not used, because they determinize to exponentially many states already for tens of states.
+     */
+    static Automaton createNFA(Random r, int QSize, int sigmaSize) {
+        return FromRegexConverter.getAutomaton(createRegex(r, QSize, sigmaSize));
+    }
+
+    /**
+     * @return ENFA, that is a concatenation of two NFAs of random regexes
+     */
+    static Automaton createENFA(Random r, int QSize, int sigmaSize) {
+        Automaton a = createNFA(r, Math.max(1, QSize / 2), sigmaSize);
+        Automaton b = createNFA(r, Math.max(1, QSize / 2), sigmaSize);
+        return Automaton.getConcatenation(a, b);
+    }
+
+    static String[][] createWords(Random r, int sigmaSize, int count, int length) {
+        String[] sigma = getSigma(sigmaSize);
+        String[][] words = new String[count][length];
+        for (String[] word : words) {
+            for (int i = 0; i < length; i++) {
+                word[i] = sigma[r.nextInt(sigmaSize)];
+            }
+        }
+        return words;
+    }
+
+    /**
+     * @param letters Number of letter occurrences in the regex, which is roughly the number of states of its automaton
+     * @return Random regular expression using union, concatenation and Kleene star. It uses every letter of the alphabet.
+     */
+    static String createRegex(Random r, int letters, int sigmaSize) {
+        String[] sigma = getSigma(sigmaSize);
+        StringBuilder sb = new StringBuilder("(");
+        appendRegex(r, letters, sigma, sb);
+        //Word containing every letter, so that the automaton has the whole alphabet
+        sb.append("+");
+        for (String letter : sigma) {
+            sb.append(letter);
+        }
+        sb.append(")");
+        return sb.toString();
+    }
+
+    private static void appendRegex(Random r, int letters, String[] sigma, StringBuilder sb) {
+        if (letters == 1) {
+            sb.append(sigma[r.nextInt(sigma.length)]);
+            if (r.nextInt(4) == 0) sb.append("*");
+            return;
+        }
+        int left = 1 + r.nextInt(letters - 1);
+        boolean union = r.nextInt(3) == 0;
+        sb.append("(");
+        appendRegex(r, left, sigma, sb);
+        if (union) sb.append("+");
+        appendRegex(r, letters - left, sigma, sb);
+        sb.append(")");
+        if (r.nextInt(4) == 0) sb.append("*");
+    }
+}
@@ -0,0 +1,100 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.MatcherCompiler;
+import cz.cvut.fel.horovtom.automata.logic.WordMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares matching by a compiled DFA, by the table-driven matcher and by the matcher selected by
+ * {@link MatcherCompiler#compile(Automaton, java.util.Collection)} for the words. Score is the time per one word.
+ * Random words have uniformly random letters. Predictable words follow a fixed letter from every state,
+ * except for one random letter in a hundred.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CompiledBenchmark {
+    private static final int WORDS = 1024;
+    private static final int WORD_LENGTH = 64;
+
+    private static final int LETTERS = 4;
+
+    @Param({"8", "32", "128"})
+    public int states;
+
+    @Param({"random", "predictable"})
+    public String input;
+
+    private WordMatcher compiled, table, selected;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        DFAAutomaton automaton = BenchmarkAutomata.createDFA(r, states, LETTERS);
+        words = new String[WORDS];
+        if (input.equals("random")) {
+            int i = 0;
+            for (String[] word : BenchmarkAutomata.createWords(r, LETTERS, WORDS, WORD_LENGTH)) {
+                words[i++] = String.join("", word);
+            }
+        } else {
+            HashMap<Integer, HashMap<Integer, int[]>> transitions = automaton.getTransitions();
+            String[] sigma = automaton.getSigma();
+            int[] preferred = r.ints(states, 0, LETTERS).toArray();
+            for (int i = 0; i < WORDS; i++) {
+                StringBuilder word = new StringBuilder();
+                int state = automaton.getInitialStates()[0];
+                for (int j = 0; j < WORD_LENGTH; j++) {
+                    int letter = r.nextInt(100) == 0 ? r.nextInt(LETTERS) : preferred[state];
+                    word.append(sigma[letter]);
+                    state = transitions.get(state).get(letter)[0];
+                }
+                words[i] = word.toString();
+            }
+        }
+        compiled = MatcherCompiler.compile(automaton, Integer.MAX_VALUE);
+        table = MatcherCompiler.compile(automaton, 0);
+        selected = MatcherCompiler.compile(automaton, Arrays.asList(words));
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int compiled() {
+        int accepted = 0;
+        for (String word : words) {
+            if (compiled.matches(word)) accepted++;
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int table() {
+        int accepted = 0;
+        for (String word : words) {
+            if (table.matches(word)) accepted++;
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int selected() {
+        int accepted = 0;
+        for (String word : words) {
+            if (selected.matches(word)) accepted++;
+        }
+        return accepted;
+    }
+}
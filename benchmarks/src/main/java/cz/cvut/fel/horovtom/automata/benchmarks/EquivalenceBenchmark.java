@@ -0,0 +1,45 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares equivalence of two equal DFAs decided by union-find and by reduction of both DFAs followed by isomorphism.
+ * Equal automata are the worst case, because all pairs of states have to be visited.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EquivalenceBenchmark {
+    @Param({"100", "1000", "10000"})
+    public int states;
+
+    private DFAAutomaton a, b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        a = BenchmarkAutomata.createDFA(r, states, 4);
+        b = (DFAAutomaton) a.copy();
+    }
+
+    @Benchmark
+    public boolean unionFind() {
+        return a.isEquivalentTo(b);
+    }
+
+    @Benchmark
+    public boolean reduction() {
+        Automaton x = a.copy(), y = b.copy();
+        x.getReduced();
+        y.getReduced();
+        return x.equals(y);
+    }
+}
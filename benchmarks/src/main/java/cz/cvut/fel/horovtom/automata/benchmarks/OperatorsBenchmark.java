@@ -0,0 +1,58 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures operators on pairs of random automata. Operators cache reductions of their operands,
+ * so fresh copies are used every time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class OperatorsBenchmark {
+
+    @Param({"DFA", "NFA", "ENFA"})
+    public BenchmarkAutomata.Type type;
+
+    @Param({"16", "64", "256"})
+    public int states;
+
+    @Param({"2", "10", "26"})
+    public int sigmaSize;
+
+    private Automaton a, b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        a = BenchmarkAutomata.create(type, r, states, sigmaSize);
+        b = BenchmarkAutomata.create(type, r, states, sigmaSize);
+    }
+
+    @Benchmark
+    public Automaton union() {
+        return Automaton.getUnion(a.copy(), b.copy());
+    }
+
+    @Benchmark
+    public Automaton intersection() {
+        return Automaton.getIntersection(a.copy(), b.copy());
+    }
+
+    @Benchmark
+    public Automaton concatenation() {
+        return Automaton.getConcatenation(a.copy(), b.copy());
+    }
+
+    @Benchmark
+    public Automaton kleene() {
+        return a.copy().getKleene();
+    }
+}
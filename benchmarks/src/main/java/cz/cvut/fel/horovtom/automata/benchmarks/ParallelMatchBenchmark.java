@@ -0,0 +1,56 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.ParallelMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures matching of one long input split to chunks, against the number of chunks and states of the DFA.
+ * Every chunk except the first one runs from all states, so the speedup depends on how fast the runs merge.
+ * Score is the time per one character.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ParallelMatchBenchmark {
+    private static final int LENGTH = 1 << 24;
+
+    @Param({"1", "2", "4", "8", "16", "64"})
+    public int chunks;
+
+    @Param({"4", "64", "1024"})
+    public int states;
+
+    private ForkJoinPool pool;
+    private ParallelMatcher matcher;
+    private String input;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        matcher = new ParallelMatcher(BenchmarkAutomata.createDFA(r, states, 10));
+        pool = new ForkJoinPool(chunks);
+        char[] chars = new char[LENGTH];
+        for (int i = 0; i < LENGTH; i++) {
+            chars[i] = (char) ('a' + r.nextInt(10));
+        }
+        input = new String(chars);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(LENGTH)
+    public boolean accepts() {
+        return matcher.accepts(input, chunks, pool);
+    }
+}
@@ -0,0 +1,73 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.PrefixMatcher;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares acceptance of a dictionary-like batch word by word and by {@link PrefixMatcher}. Score is the time per one word.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PrefixBenchmark {
+    private static final int WORDS = 1 << 14;
+
+    @Param({"DFA", "NFA"})
+    public BenchmarkAutomata.Type type;
+
+    /**
+     * Number of words sharing every prefix on average
+     */
+    @Param({"2", "10"})
+    public int fanOut;
+
+    private Automaton automaton;
+    private PrefixMatcher matcher;
+    private ArrayList<String> words;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random r = new Random(BenchmarkAutomata.SEED);
+        automaton = BenchmarkAutomata.create(type, r, 64, 10);
+        matcher = automaton.getPrefixMatcher();
+        String[] sigma = BenchmarkAutomata.getSigma(10);
+        words = new ArrayList<>(WORDS);
+        words.add("");
+        while (words.size() < WORDS) {
+            //Extend a random word, so that every word has about fanOut extensions
+            String prefix = words.get(r.nextInt(Math.max(1, words.size() / fanOut)));
+            StringBuilder sb = new StringBuilder(prefix);
+            for (int i = 0; i < 8; i++) {
+                sb.append(sigma[r.nextInt(sigma.length)]);
+            }
+            words.add(sb.toString());
+        }
+        Collections.shuffle(words, r);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public int acceptsWord() {
+        int accepted = 0;
+        for (String word : words) {
+            if (automaton.acceptsWord(word)) accepted++;
+        }
+        return accepted;
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(WORDS)
+    public BitSet prefixMatcher() {
+        return matcher.accepts(words);
+    }
+}
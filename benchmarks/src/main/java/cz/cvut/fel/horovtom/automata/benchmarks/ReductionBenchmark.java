@@ -0,0 +1,125 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.reducers.DFAReducer;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures reduction of random automata and of known worst cases.
+ * Reduced automaton is cached, so a fresh copy is reduced every time.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReductionBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class AutomatonState {
+        @Param({"DFA", "NFA", "ENFA"})
+        public BenchmarkAutomata.Type type;
+
+        @Param({"16", "64", "256"})
+        public int states;
+
+        @Param({"2", "10", "26"})
+        public int sigmaSize;
+
+        Automaton automaton;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            automaton = BenchmarkAutomata.create(type, new Random(BenchmarkAutomata.SEED), states, sigmaSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class DFAState {
+        @Param({"128", "1024", "8192"})
+        public int dfaStates;
+
+        @Param({"2", "10", "26"})
+        public int dfaSigmaSize;
+
+        @Param({"TABLE", "HOPCROFT"})
+        public DFAReducer.Algorithm algorithm;
+
+        DFAAutomaton automaton;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            automaton = BenchmarkAutomata.createDFA(new Random(BenchmarkAutomata.SEED), dfaStates, dfaSigmaSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class WorstCaseState {
+        /**
+         * Hopcroft worst case has 2^k states
+         */
+        @Param({"8", "10", "12"})
+        public int k;
+
+        @Param({"TABLE", "HOPCROFT"})
+        public DFAReducer.Algorithm worstCaseAlgorithm;
+
+        DFAAutomaton deBruijn;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            deBruijn = AutomatonGenerator.getHopcroftWorstCase(k);
+        }
+    }
+
+    /**
+     * Reduction of NFA does not take the minimization algorithm, so it has its own state
+     */
+    @State(Scope.Benchmark)
+    public static class NthFromEndState {
+        /**
+         * N-th from end NFA determinizes to 2^k states
+         */
+        @Param({"8", "10", "12"})
+        public int k;
+
+        NFAAutomaton nthFromEnd;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            nthFromEnd = AutomatonGenerator.getNthFromEnd(k);
+        }
+    }
+
+    @Benchmark
+    public Automaton getReduced(AutomatonState state) {
+        return state.automaton.copy().getReduced();
+    }
+
+    /**
+     * Compares minimization algorithms on DFAs
+     */
+    @Benchmark
+    public Automaton minimizeDFA(DFAState state) {
+        return state.automaton.reduce(state.algorithm);
+    }
+
+    @Benchmark
+    public Automaton minimizeHopcroftWorstCase(WorstCaseState state) {
+        return state.deBruijn.reduce(state.worstCaseAlgorithm);
+    }
+
+    /**
+     * Determinization with exponential blow-up
+     */
+    @Benchmark
+    public Automaton reduceNthFromEnd(NthFromEndState state) {
+        return state.nthFromEnd.reduce();
+    }
+}
@@ -0,0 +1,66 @@
+package cz.cvut.fel.horovtom.automata.benchmarks;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.logic.converters.ToRegexConverter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures conversions between regular expressions and automata.
+ * Regex produced by state elimination grows exponentially, so automata converted to regex are kept small.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RegexBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class FromRegexState {
+        /**
+         * Number of letter occurrences in the regex, which is roughly the number of states of its automaton
+         */
+        @Param({"16", "128", "1024"})
+        public int letters;
+
+        @Param({"2", "10", "26"})
+        public int sigmaSize;
+
+        String regex;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            regex = BenchmarkAutomata.createRegex(new Random(BenchmarkAutomata.SEED), letters, sigmaSize);
+        }
+    }
+
+    @State(Scope.Benchmark)
+    public static class ToRegexState {
+        @Param({"4", "6", "8"})
+        public int states;
+
+        @Param({"2", "10", "26"})
+        public int dfaSigmaSize;
+
+        Automaton automaton;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            automaton = BenchmarkAutomata.createDFA(new Random(BenchmarkAutomata.SEED), states, dfaSigmaSize);
+        }
+    }
+
+    @Benchmark
+    public Automaton fromRegex(FromRegexState state) {
+        return FromRegexConverter.getAutomaton(state.regex);
+    }
+
+    @Benchmark
+    public String toRegex(ToRegexState state) {
+        return ToRegexConverter.getRegex(state.automaton.copy());
+    }
+}
@@ -0,0 +1,140 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+
+/**
+ * Distances from states of a DFA to its accepting states, used to reject words before they are read to the end.
+ * <p>
+ * From a state, only words with length between the minimal and the maximal distance can be accepted.
+ * Minimal distance is the length of the shortest accepted word and it is found by BFS over reversed transitions.
+ * Maximal distance is finite only for states, from which no cycle of live states is reachable, and it is found
+ * in reverse topological order of the acyclic part. States, from which no accepting state is reachable, are dead.
+ * </p>
+ * Distances depend only on the transitions and accepting states, which never change, so they are computed once.
+ */
+public final class AcceptDistances {
+    /**
+     * Maximal distance of states, from which arbitrarily long words are accepted
+     */
+    public static final int UNBOUNDED = Integer.MAX_VALUE;
+
+    /**
+     * bounds[2 * state] is the minimal and bounds[2 * state + 1] the maximal distance of the state.
+     * Dead states have bounds {@link #UNBOUNDED}, -1, so no length fits between them.
+     */
+    final int[] bounds;
+
+    AcceptDistances(DFAAutomaton dfa) {
+        TransitionTable table = dfa.transitions;
+        int QSize = table.getQSize(), sigmaSize = table.getSigmaSize();
+        boolean[] accepting = new boolean[QSize];
+        for (int state : dfa.acceptingStates) {
+            accepting[state] = true;
+        }
+
+        //Predecessors in compressed sparse row format, one entry per transition
+        int[] offsets = new int[QSize + 1];
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int target = table.getTarget(state, letter);
+                if (target != -1) offsets[target + 1]++;
+            }
+        }
+        for (int state = 0; state < QSize; state++) {
+            offsets[state + 1] += offsets[state];
+        }
+        int[] predecessors = new int[offsets[QSize]];
+        int[] fill = Arrays.copyOf(offsets, QSize);
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int target = table.getTarget(state, letter);
+                if (target != -1) predecessors[fill[target]++] = state;
+            }
+        }
+
+        int[] min = new int[QSize];
+        Arrays.fill(min, UNBOUNDED);
+        int[] queue = new int[QSize];
+        int tail = 0;
+        for (int state = 0; state < QSize; state++) {
+            if (accepting[state]) {
+                min[state] = 0;
+                queue[tail++] = state;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int predecessor = predecessors[i];
+                if (min[predecessor] == UNBOUNDED) {
+                    min[predecessor] = min[current] + 1;
+                    queue[tail++] = predecessor;
+                }
+            }
+        }
+
+        //Live successors, that do not have the maximal distance yet
+        int[] pending = new int[QSize];
+        for (int state = 0; state < QSize; state++) {
+            if (min[state] == UNBOUNDED) continue;
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int target = table.getTarget(state, letter);
+                if (target != -1 && min[target] != UNBOUNDED) pending[state]++;
+            }
+        }
+        int[] max = new int[QSize];
+        tail = 0;
+        for (int state = 0; state < QSize; state++) {
+            max[state] = accepting[state] ? 0 : -1;
+            if (min[state] != UNBOUNDED && pending[state] == 0) queue[tail++] = state;
+        }
+        boolean[] finished = new boolean[QSize];
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            finished[current] = true;
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int predecessor = predecessors[i];
+                if (min[predecessor] == UNBOUNDED) continue;
+                max[predecessor] = Math.max(max[predecessor], max[current] + 1);
+                if (--pending[predecessor] == 0) queue[tail++] = predecessor;
+            }
+        }
+
+        this.bounds = new int[2 * QSize];
+        for (int state = 0; state < QSize; state++) {
+            boolean dead = min[state] == UNBOUNDED;
+            bounds[2 * state] = min[state];
+            bounds[2 * state + 1] = dead ? -1 : finished[state] ? max[state] : UNBOUNDED;
+        }
+    }
+
+    /**
+     * @return Whether no word is accepted from the state
+     */
+    public boolean isDead(int state) {
+        return bounds[2 * state] == UNBOUNDED;
+    }
+
+    /**
+     * @return Length of the shortest word accepted from the state, or -1 if the state is dead
+     */
+    public int getMinDistance(int state) {
+        return isDead(state) ? -1 : bounds[2 * state];
+    }
+
+    /**
+     * @return Length of the longest word accepted from the state, {@link #UNBOUNDED} if there is no longest word,
+     * or -1 if the state is dead
+     */
+    public int getMaxDistance(int state) {
+        return bounds[2 * state + 1];
+    }
+
+    /**
+     * @return Whether some word with the specified length may be accepted from the state.
+     * If it returns false, no such word is accepted.
+     */
+    public boolean canAccept(int state, long length) {
+        return length >= bounds[2 * state] && length <= bounds[2 * state + 1];
+    }
+}
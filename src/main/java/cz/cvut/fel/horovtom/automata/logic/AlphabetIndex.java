@@ -0,0 +1,193 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * This class maps input symbols to letters of an automaton and letters to their equivalence classes.
+ * <p>
+ * Single-character letters are looked up by a direct table indexed by the character, so matching a String
+ * needs neither a String per character nor hashing. Letters are in the same class if they have the same targets
+ * in every state, so the automaton can not tell them apart. Tables indexed by classes instead of letters are smaller,
+ * and constructions like product of automata need to explore only one letter of every class.
+ * </p>
+ * <p>
+ * Epsilon is not a letter of the index, it has no class and no character maps to it.
+ * Instances are immutable.
+ * </p>
+ */
+public final class AlphabetIndex {
+    private final String[] sigma;
+    private final int firstLetter;
+    private final HashMap<String, Integer> letterIndices;
+    /**
+     * charLetters[c] is the index of letter c, or -1 if c is not a letter
+     */
+    private final int[] charLetters;
+    /**
+     * letterClasses[letter] is the class of the letter, -1 for epsilon
+     */
+    private final int[] letterClasses;
+    /**
+     * charClasses[c] is the class of letter c, or -1 if c is not a letter
+     */
+    private final int[] charClasses;
+    /**
+     * representatives[class] is the first letter of the class
+     */
+    private final int[] representatives;
+
+    /**
+     * @param epsilon Whether the first letter of sigma is epsilon
+     */
+    public AlphabetIndex(String[] sigma, TransitionTable table, boolean epsilon) {
+        this.sigma = sigma;
+        this.firstLetter = epsilon ? 1 : 0;
+        this.letterIndices = new HashMap<>(sigma.length * 2);
+        for (int i = 0; i < sigma.length; i++) {
+            letterIndices.put(sigma[i], i);
+        }
+
+        int maxChar = -1;
+        for (int i = firstLetter; i < sigma.length; i++) {
+            if (sigma[i].length() == 1) maxChar = Math.max(maxChar, sigma[i].charAt(0));
+        }
+        this.charLetters = new int[maxChar + 1];
+        Arrays.fill(charLetters, -1);
+        for (int i = firstLetter; i < sigma.length; i++) {
+            if (sigma[i].length() == 1) charLetters[sigma[i].charAt(0)] = i;
+        }
+
+        this.letterClasses = new int[sigma.length];
+        this.representatives = computeClasses(table);
+        this.charClasses = new int[charLetters.length];
+        for (int c = 0; c < charLetters.length; c++) {
+            charClasses[c] = charLetters[c] == -1 ? -1 : letterClasses[charLetters[c]];
+        }
+    }
+
+    /**
+     * Groups letters by hash of their columns and compares them with the representatives of the groups.
+     *
+     * @return Representatives of the classes
+     */
+    private int[] computeClasses(TransitionTable table) {
+        int QSize = table.getQSize();
+        Arrays.fill(letterClasses, -1);
+        int[] representatives = new int[sigma.length];
+        int classCount = 0;
+        HashMap<Long, int[]> candidates = new HashMap<>();
+        for (int letter = firstLetter; letter < sigma.length; letter++) {
+            long hash = 0;
+            for (int state = 0; state < QSize; state++) {
+                int end = table.getEnd(state, letter);
+                hash = hash * 31 + (end - table.getStart(state, letter));
+                for (int i = table.getStart(state, letter); i < end; i++) {
+                    hash = hash * 31 + table.getTargetAt(i);
+                }
+            }
+            int[] sameHash = candidates.get(hash);
+            if (sameHash != null) {
+                for (int candidate : sameHash) {
+                    if (sameColumns(table, representatives[candidate], letter)) {
+                        letterClasses[letter] = candidate;
+                        break;
+                    }
+                }
+            }
+            if (letterClasses[letter] != -1) continue;
+            letterClasses[letter] = classCount;
+            representatives[classCount] = letter;
+            if (sameHash == null) {
+                candidates.put(hash, new int[]{classCount});
+            } else {
+                int[] extended = Arrays.copyOf(sameHash, sameHash.length + 1);
+                extended[sameHash.length] = classCount;
+                candidates.put(hash, extended);
+            }
+            classCount++;
+        }
+        return Arrays.copyOf(representatives, classCount);
+    }
+
+    private static boolean sameColumns(TransitionTable table, int a, int b) {
+        for (int state = 0; state < table.getQSize(); state++) {
+            int aStart = table.getStart(state, a), aEnd = table.getEnd(state, a);
+            int bStart = table.getStart(state, b), bEnd = table.getEnd(state, b);
+            if (aEnd - aStart != bEnd - bStart) return false;
+            for (int i = 0; i < aEnd - aStart; i++) {
+                if (table.getTargetAt(aStart + i) != table.getTargetAt(bStart + i)) return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return Index of the letter in sigma, or -1 if it is not in sigma
+     */
+    public int getLetterIndex(String letter) {
+        Integer index = letterIndices.get(letter);
+        return index == null ? -1 : index;
+    }
+
+    /**
+     * @return Index of the single-character letter in sigma, or -1 if it is not a letter
+     */
+    public int getLetterIndex(char c) {
+        return c < charLetters.length ? charLetters[c] : -1;
+    }
+
+    /**
+     * @return Number of equivalence classes of letters
+     */
+    public int getClassCount() {
+        return representatives.length;
+    }
+
+    /**
+     * @return Class of the letter, or -1 for epsilon
+     */
+    public int getLetterClass(int letter) {
+        return letterClasses[letter];
+    }
+
+    /**
+     * @return Class of the single-character letter, or -1 if it is not a letter
+     */
+    public int getCharClass(char c) {
+        return c < charClasses.length ? charClasses[c] : -1;
+    }
+
+    /**
+     * @return Letter, that represents the class
+     */
+    public int getRepresentative(int letterClass) {
+        return representatives[letterClass];
+    }
+
+    /**
+     * @return Whether every letter except epsilon has exactly one character, so that every word can be passed as String
+     */
+    public boolean isSingleCharacter() {
+        for (int i = firstLetter; i < sigma.length; i++) {
+            if (sigma[i].length() != 1) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Compresses deterministic table to columns of classes.
+     *
+     * @return Array where table[state * classCount + class] is the target of the state by letters of the class, or -1
+     */
+    public int[] getClassTable(TransitionTable deterministic) {
+        int QSize = deterministic.getQSize(), classCount = representatives.length;
+        int[] table = new int[QSize * classCount];
+        for (int state = 0; state < QSize; state++) {
+            for (int c = 0; c < classCount; c++) {
+                table[state * classCount + c] = deterministic.getTarget(state, representatives[c]);
+            }
+        }
+        return table;
+    }
+}
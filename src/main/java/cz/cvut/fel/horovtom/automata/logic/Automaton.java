@@ -5,8 +5,11 @@ import cz.cvut.fel.horovtom.automata.tools.Pair;
 import cz.cvut.fel.horovtom.automata.tools.Utilities;
 
 import java.io.*;
+import java.nio.IntBuffer;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Predicate;
 import java.util.logging.Logger;
 
 public abstract class Automaton {
@@ -35,18 +38,18 @@ public abstract class Automaton {
      */
     protected int[] acceptingStates;
     /**
-     * Representation of transitions table, where first key is the current state, second key is the current letter and
-     * the result is the array of indices of all possible target states.
+     * Representation of transitions table, indexed by the current state and the current letter,
+     * holding indices of all possible target states.
      * <p>
      * Transitions: &delta; : Q x &Sigma; &rarr; P(Q) <br>
      * </p>
      * <p>
      * We get &delta;(0, 1) = A &sube; Q <br>
-     * as A = transitions.get(0).get(1) <br>
+     * as A = transitions.getTargets(0, 1) <br>
      * where 0 is the index of current state and 1 is the index of the letter letter
      * </p>
      */
-    protected HashMap<Integer, HashMap<Integer, int[]>> transitions;
+    protected TransitionTable transitions;
 
     //endregion
 
@@ -57,10 +60,28 @@ public abstract class Automaton {
      * This contains the reduced automaton, has it been calculated yet. Else it contains null.
      */
     protected DFAAutomaton reduced = null;
+    /**
+     * This contains the simulator used for accepting words without reduction, has it been created yet. Else it contains null.
+     */
+    protected BitParallelSimulator simulator = null;
+    /**
+     * Lazily determinized automata, that are not used by any thread at the moment. {@link LazyDFA} is not thread safe,
+     * so every word is accepted by an instance taken from this pool, and threads running at the same time use
+     * different instances. There are at most as many instances as threads, that ever accepted words at the same time.
+     */
+    private final ConcurrentLinkedQueue<LazyDFA> lazyDFAs = new ConcurrentLinkedQueue<>();
     /**
      * These variables hold the cache for fast getting indices of states and letters from strings
      */
     private HashMap<String, Integer> sigmaMapping = null, stateMapping = null;
+    /**
+     * This contains the index of letters, has it been created yet. Else it contains null.
+     */
+    private AlphabetIndex alphabetIndex = null;
+    /**
+     * This contains the matcher of words encoded as symbol ids, has it been created yet. Else it contains null.
+     */
+    private SymbolMatcher symbolMatcher = null;
     /**
      * Array of names that are evaluated as epsilon letters
      */
@@ -91,7 +112,6 @@ public abstract class Automaton {
         initializeQSigma(Q, sigma);
         initializeTransitions(transitions);
         initializeInitAcc(initials, accepting);
-        refactorTransitions();
     }
 
     /**
@@ -169,28 +189,29 @@ public abstract class Automaton {
 
     /**
      * Initializes transition table of the automaton. Should be called after {@link #initializeQSigma(String[], String[])}
+     * <p>
+     * Targets are written straight into the compressed transition table, missing rows and cells are left empty.
+     * </p>
      */
     protected void initializeTransitions(HashMap<String, HashMap<String, String[]>> transitions) {
-        HashMap<Integer, HashMap<Integer, int[]>> trans = new HashMap<>();
+        TransitionTable.Builder builder = new TransitionTable.Builder(Q.length, sigma.length);
         for (int i = 0; i < Q.length; i++) {
             String from = Q[i];
-            HashMap<Integer, int[]> curr = new HashMap<>();
-            trans.put(i, curr);
+            HashMap<String, String[]> transRow = transitions.get(from);
             for (int l = 0; l < this.sigma.length; l++) {
                 String by = this.sigma[l];
-                String[] to = transitions.get(from).get(by);
-                Set<Integer> targets = new HashSet<>();
+                String[] to = transRow == null ? null : transRow.get(by);
                 if (to != null) {
                     for (String aTo : to) {
                         int tar = this.getStateIndex(aTo);
                         if (tar >= 0)
-                            targets.add(this.getStateIndex(aTo));
+                            builder.add(tar);
                     }
                 }
-                curr.put(l, targets.stream().mapToInt(a -> a).toArray());
+                builder.nextCell();
             }
         }
-        this.transitions = trans;
+        this.transitions = builder.build();
     }
 
     /**
@@ -199,35 +220,20 @@ public abstract class Automaton {
      * @param transitions Map where the values hold strings, containing comma-separated lists of target transitions
      */
     protected void initializeTransitionsCompact(HashMap<String, HashMap<String, String>> transitions) throws InvalidAutomatonDefinitionException {
-        HashMap<Integer, HashMap<Integer, int[]>> trans = new HashMap<>();
+        TransitionTable.Builder builder = new TransitionTable.Builder(Q.length, sigma.length);
         for (int i = 0; i < Q.length; i++) {
             String from = Q[i];
             HashMap<String, String> transRow = transitions.get(from);
 
-
-            HashMap<Integer, int[]> curr = new HashMap<>();
-            trans.put(i, curr);
-
-            //If entire row is missing, we assume that no connections are there
-            if (transRow == null) {
-                for (int l = 0; l < this.sigma.length; l++) {
-                    curr.put(l, new int[0]);
-                }
-                continue;
-            }
-
             for (int l = 0; l < this.sigma.length; l++) {
-                String by = this.sigma[l];
-
-                //If we got incomplete map, we assume that no connections are there
-                if (!transRow.containsKey(by)) {
-                    curr.put(l, new int[0]);
+                //If we got incomplete map or the entire row is missing, we assume that no connections are there
+                if (transRow == null || !transRow.containsKey(this.sigma[l])) {
+                    builder.nextCell();
                     continue;
                 }
 
-                String to = transRow.get(by);
+                String to = transRow.get(this.sigma[l]);
                 Pair<Integer, String> ret;
-                ArrayList<Integer> targets = new ArrayList<>();
                 int currentIndex = 0;
 
                 while (currentIndex >= 0) {
@@ -237,40 +243,14 @@ public abstract class Automaton {
                         int r = getStateIndex(ret.getValue());
                         if (r == -1)
                             throw new InvalidAutomatonDefinitionException("Not existing state in the definition");
-                        targets.add(r);
+                        builder.add(r);
                     }
                 }
 
-                curr.put(l, targets.stream().mapToInt(a -> a).toArray());
-            }
-        }
-        this.transitions = trans;
-    }
-
-    /**
-     * Attempts to refactor transitions so that every state has filled rows
-     */
-    protected void refactorTransitions() {
-        HashMap<Integer, HashMap<Integer, int[]>> newTransitions = new HashMap<>();
-
-        for (int state = 0; state < this.Q.length; state++) {
-            HashMap<Integer, int[]> curr = new HashMap<>();
-            newTransitions.put(state, curr);
-            for (int letter = 0; letter < this.sigma.length; letter++) {
-                int[] orig;
-                if (this.transitions.containsKey(state)) {
-                    if (this.transitions.get(state).containsKey(letter)) {
-                        orig = this.transitions.get(state).get(letter);
-                    } else {
-                        orig = new int[0];
-                    }
-                } else {
-                    orig = new int[0];
-                }
-                curr.put(letter, Arrays.copyOf(orig, orig.length));
+                builder.nextCell();
             }
         }
-        this.transitions = newTransitions;
+        this.transitions = builder.build();
     }
 
     //endregion
@@ -311,24 +291,37 @@ public abstract class Automaton {
      */
     protected int getLetterIndex(String letterName) {
         if (sigmaMapping == null) {
-            sigmaMapping = new HashMap<>(sigma.length);
+            //Map is published only when it is complete, so that other threads never see it half filled
+            HashMap<String, Integer> mapping = new HashMap<>(sigma.length);
             for (int i = 0; i < sigma.length; i++) {
-                sigmaMapping.put(sigma[i], i);
+                mapping.put(sigma[i], i);
             }
+            sigmaMapping = mapping;
         }
 
         return sigmaMapping.getOrDefault(letterName, -1);
     }
 
+    /**
+     * @return Index of letters of this automaton, which maps characters to letters and letters to equivalence classes
+     */
+    public AlphabetIndex getAlphabetIndex() {
+        if (alphabetIndex == null) {
+            alphabetIndex = new AlphabetIndex(sigma, transitions, hasEpsilonTransitions());
+        }
+        return alphabetIndex;
+    }
+
     /**
      * @return -1 if stateName is not in Q
      */
     protected int getStateIndex(String stateName) {
         if (stateMapping == null) {
-            stateMapping = new HashMap<>(Q.length);
+            HashMap<String, Integer> mapping = new HashMap<>(Q.length);
             for (int i = 0; i < Q.length; i++) {
-                stateMapping.put(Q[i], i);
+                mapping.put(Q[i], i);
             }
+            stateMapping = mapping;
         }
 
         return stateMapping.getOrDefault(stateName, -1);
@@ -377,20 +370,27 @@ public abstract class Automaton {
     }
 
     /**
-     * This function parses string to individual characters as letters,
-     * then calls {@link #acceptsWord(String[])}
+     * This function parses string to individual characters as letters, using {@link AlphabetIndex},
+     * then accepts them in the same way as {@link #acceptsWord(String[])}
      * <p>
-     * Warning: Does not work on automatons with multiple character letters.k
+     * Warning: Does not work on automatons with multiple character letters.
      *
      * @return Whether this automaton accepts word represented by this string
      */
     public boolean acceptsWord(String word) {
-        int a = word.length();
-        String[] wordAr = new String[a];
-        for (int w = 0; w < a; w++) {
-            wordAr[w] = String.valueOf(word.charAt(w));
+        if (this.reduced != null) {
+            return this.reduced.acceptsWord(word);
+        }
+        AlphabetIndex index = getAlphabetIndex();
+        int[] letters = new int[word.length()];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = index.getLetterIndex(word.charAt(i));
+            if (letters[i] == -1) {
+                LOGGER.info("Unknown letter passed: " + word.charAt(i));
+                return false;
+            }
         }
-        return acceptsWord(wordAr);
+        return acceptsLazily(lazy -> lazy.accepts(letters));
     }
 
     /**
@@ -398,7 +398,7 @@ public abstract class Automaton {
      */
     public DFAAutomaton getReduced() {
         if (reduced == null) {
-            LOGGER.fine("Reducing automaton:\n" + this.toString());
+            LOGGER.fine(() -> "Reducing automaton:\n" + this.toString());
             reduced = reduce();
         }
         return (DFAAutomaton) reduced.copy();
@@ -418,7 +418,7 @@ public abstract class Automaton {
         int[] ret = getEpsilonClosure(stateIndex);
         String[] returning = new String[ret.length];
         for (int i = 0; i < ret.length; i++) {
-            returning[i] = this.sigma[ret[i]];
+            returning[i] = this.Q[ret[i]];
         }
         return returning;
     }
@@ -438,10 +438,11 @@ public abstract class Automaton {
             int curr = toDo.poll();
             if (!closure.contains(curr)) {
                 closure.add(curr);
-                int[] targ = this.transitions.get(curr).get(0);
-                for (int i : targ) {
-                    if (!closure.contains(i)) {
-                        toDo.add(i);
+                int end = this.transitions.getEnd(curr, 0);
+                for (int i = this.transitions.getStart(curr, 0); i < end; i++) {
+                    int targ = this.transitions.getTargetAt(i);
+                    if (!closure.contains(targ)) {
+                        toDo.add(targ);
                     }
                 }
             }
@@ -471,7 +472,7 @@ public abstract class Automaton {
      * @return deep values copy of transitions map
      */
     public HashMap<Integer, HashMap<Integer, int[]>> getTransitions() {
-        return Utilities.getCopyOfHashMap(this.transitions);
+        return this.transitions.toHashMap();
     }
 
     //endregion
@@ -517,66 +518,178 @@ public abstract class Automaton {
 
     /**
      * This function does not use the optimized reduced automaton to get answer!
+     * It simulates the automaton on the word by {@link BitParallelSimulator}, so it is usable even on automata,
+     * whose reduction would be too large.
      */
     public boolean acceptsWordUnified(String[] word) {
-        //TODO: VERBOSE Workflow?
-        ArrayList<HashSet<Integer>> possibilities = new ArrayList<>(2);
-        possibilities.add(new HashSet<>(this.Q.length));
-        possibilities.add(new HashSet<>(this.Q.length));
-        int c = 1, n;
-        HashSet<Integer> current = possibilities.get(0);
-        HashSet<Integer> next;
-        //init
-        for (int initialState : initialStates) {
-            current.add(initialState);
-        }
+        return getSimulator().accepts(word);
+    }
 
-        //Progress
-        for (String letter : word) {
-            c = (c + 1) % 2;
-            n = (c + 1) % 2;
-            int letterIndex = getLetterIndex(letter);
-            if (letterIndex == -1) {
-                LOGGER.info("Unknown letter passed: " + letter);
-                return false;
-            }
-            current = possibilities.get(c);
-            next = possibilities.get(n);
-            next.clear();
-            for (Integer currentState : current) {
-                int[] p = getPossibleTransitions(currentState, letterIndex);
-                for (int toAddState : p) {
-                    next.add(toAddState);
-                }
-            }
-            if (next.size() == 0) return false;
+    /**
+     * @return Simulator of this automaton, that does not need reduction
+     */
+    public BitParallelSimulator getSimulator() {
+        if (simulator == null) {
+            simulator = new BitParallelSimulator(this);
         }
+        return simulator;
+    }
 
-        //Final eval
-        c = (c + 1) % 2;
-        current = possibilities.get(c);
-        for (Integer integer : current) {
-            if (isAcceptingState(integer)) return true;
+    /**
+     * @return New lazily determinized version of this automaton, that does not need reduction.
+     * It is not thread safe, get one instance per thread.
+     */
+    public LazyDFA getLazyDFA() {
+        return new LazyDFA(this);
+    }
+
+    /**
+     * Accepts word by a lazily determinized automaton from the pool, which no other thread uses at the same time
+     */
+    private boolean acceptsLazily(Predicate<LazyDFA> accepts) {
+        LazyDFA lazy = lazyDFAs.poll();
+        if (lazy == null) lazy = new LazyDFA(this);
+        try {
+            return accepts.test(lazy);
+        } finally {
+            lazyDFAs.offer(lazy);
         }
-        return false;
     }
 
     /**
-     * This function uses reduced automaton to get answer faster
+     * This function determinizes only the part of the automaton, that is visited by the word, see {@link LazyDFA}.
+     * Determinized states are cached and shared by following words. It is safe to call from multiple threads.
+     *
+     * @param word Array of letters from sigma
+     */
+    public boolean acceptsWordLazy(String[] word) {
+        return acceptsLazily(lazy -> lazy.accepts(word));
+    }
+
+    /**
+     * @return New matcher, that accepts input in chunks, see {@link StreamingMatcher}
+     */
+    public StreamingMatcher getMatcher() {
+        return new StreamingMatcher(this);
+    }
+
+    /**
+     * This function uses reduced automaton to get answer faster, if it has been calculated already.
+     * Otherwise it uses {@link #acceptsWordLazy(String[])}, so that the first word does not have to wait for reduction.
      *
      * @param word Array of letters from sigma
      */
     public boolean acceptsWord(String[] word) {
+        if (this.reduced != null) {
+            return this.reduced.acceptsWord(word);
+        }
+        return this.acceptsWordLazy(word);
+    }
+
+    /**
+     * @return DFA, that is used to match words encoded as symbol ids. It is the reduced automaton, unless this is a DFA.
+     */
+    protected DFAAutomaton getMatchingDFA() {
         if (this.reduced == null) {
-            this.reduced = getReduced();
+            this.getReduced();
         }
+        return this.reduced;
+    }
+
+    SymbolMatcher getSymbolMatcher() {
+        if (symbolMatcher == null) {
+            symbolMatcher = new SymbolMatcher(getMatchingDFA(), sigma);
+        }
+        return symbolMatcher;
+    }
 
+    /**
+     * @return New tokenizer, that encodes words to symbol ids of this automaton
+     */
+    public Tokenizer getTokenizer() {
+        return new Tokenizer(this);
+    }
+
+    /**
+     * This function accepts word encoded as symbol ids, that are indices of letters in sigma, see {@link Tokenizer}.
+     * It uses reduced automaton, if it has been calculated already, otherwise {@link LazyDFA}.
+     *
+     * @param symbols Indices of letters in sigma
+     */
+    public boolean acceptsWord(int[] symbols) {
         if (this.reduced != null) {
-            return this.reduced.acceptsWord(word);
-        } else {
-            LOGGER.warning("Reduction of automaton failed for some reason!");
-            return this.acceptsWordUnified(word);
+            return getSymbolMatcher().accepts(symbols, 0, symbols.length);
         }
+        return acceptsLazily(lazy -> lazy.accepts(symbols));
+    }
+
+    /**
+     * Calls {@link #acceptsWord(int[])} on the remaining symbols of the buffer. Position of the buffer is not changed.
+     */
+    public boolean acceptsWord(IntBuffer symbols) {
+        if (this.reduced != null) {
+            return getSymbolMatcher().accepts(symbols);
+        }
+        if (symbols.hasArray()) {
+            int offset = symbols.arrayOffset();
+            return acceptsLazily(lazy -> lazy.accepts(symbols.array(), offset + symbols.position(), offset + symbols.limit()));
+        }
+        int[] copy = new int[symbols.remaining()];
+        symbols.duplicate().get(copy);
+        return acceptsLazily(lazy -> lazy.accepts(copy));
+    }
+
+    /**
+     * This function accepts all words of the batch by one DFA, which is reduced first, if this is not a DFA.
+     *
+     * @return Set of indices of accepted words
+     */
+    public BitSet acceptsWords(WordBatch batch) {
+        SymbolMatcher matcher = getSymbolMatcher();
+        int[] symbols = batch.getSymbols();
+        BitSet accepted = new BitSet(batch.size());
+        for (int word = 0; word < batch.size(); word++) {
+            if (matcher.accepts(symbols, batch.getStart(word), batch.getEnd(word))) accepted.set(word);
+        }
+        return accepted;
+    }
+
+    /**
+     * @return New matcher, that accepts batches of words in parallel by the reduced automaton
+     */
+    public BatchMatcher getBatchMatcher() {
+        return new BatchMatcher(this);
+    }
+
+    /**
+     * @return New matcher, that accepts batches of words sharing prefixes. It does not reduce this automaton.
+     */
+    public PrefixMatcher getPrefixMatcher() {
+        return new PrefixMatcher(this);
+    }
+
+    /**
+     * @return New matcher, that splits one long input to chunks matched in parallel. It reduces this automaton.
+     */
+    public ParallelMatcher getParallelMatcher() {
+        return new ParallelMatcher(this);
+    }
+
+    /**
+     * @return New searcher of substrings of texts, that are accepted by this automaton. It reduces this automaton.
+     */
+    public SubstringSearcher getSearcher() {
+        return new SubstringSearcher(this);
+    }
+
+    /**
+     * This function accepts words in parallel by {@link BatchMatcher} on the common {@link java.util.concurrent.ForkJoinPool}.
+     * Every character of a word is one letter, as in {@link #acceptsWord(String)}.
+     *
+     * @return Set of indices of accepted words
+     */
+    public BitSet acceptsWords(List<? extends CharSequence> words) {
+        return getBatchMatcher().accepts(words);
     }
 
     /**
@@ -592,21 +705,72 @@ public abstract class Automaton {
     public void invalidateCaches() {
         toStringConverter = null;
         stateMapping = sigmaMapping = null;
+        alphabetIndex = null;
+        symbolMatcher = null;
         LOGGER.fine("Caches invalidated");
     }
 
     public abstract Automaton copy();
 
+    /**
+     * This function decides, whether every word accepted by this automaton is accepted by the other automaton.
+     * Neither automaton is reduced, inclusion is decided by the antichain algorithm, see {@link LanguageInclusion},
+     * so it is usable even on automata, whose reduction would be too large.
+     */
+    public boolean isSubsetOf(Automaton other) {
+        return getInclusionCounterexample(other) == null;
+    }
+
+    /**
+     * @return Word accepted by this automaton and not by the other automaton, or null if there is no such word,
+     * see {@link #isSubsetOf(Automaton)}
+     */
+    public String[] getInclusionCounterexample(Automaton other) {
+        return LanguageInclusion.getCounterexample(this, other);
+    }
+
+    /**
+     * @return Word accepted by exactly one of the automata, or null if they accept the same words.
+     * Inclusion is checked in both directions by {@link #getInclusionCounterexample(Automaton)}.
+     * For two DFAs, the shortest such word is found by {@link DFAEquivalence}.
+     */
+    public String[] getDistinguishingWord(Automaton other) {
+        String[] word = getInclusionCounterexample(other);
+        return word != null ? word : other.getInclusionCounterexample(this);
+    }
+
+    /**
+     * This function decides, whether both automata accept the same words, without reducing them.
+     * Unlike {@link #equals(Object)}, automata with different alphabets can be equivalent.
+     */
+    public boolean isEquivalentTo(Automaton other) {
+        return getDistinguishingWord(other) == null;
+    }
+
+    /**
+     * @return Whether both automata have the same letters, except epsilon
+     */
+    private boolean hasSameLetters(Automaton other) {
+        HashSet<String> letters = new HashSet<>(Arrays.asList(sigma).subList(hasEpsilonTransitions() ? 1 : 0, sigma.length));
+        HashSet<String> otherLetters = new HashSet<>(Arrays.asList(other.sigma).subList(other.hasEpsilonTransitions() ? 1 : 0, other.sigma.length));
+        return letters.equals(otherLetters);
+    }
+
+    /**
+     * Automata are equal, if they have the same letters and accept the same words.
+     * If their reduced automata have not been computed yet, languages are compared by {@link #isEquivalentTo(Automaton)},
+     * which does not reduce them, otherwise reduced automata are compared.
+     */
     @Override
     public boolean equals(Object obj) {
         if (!(obj instanceof Automaton)) return false;
         if (super.equals(obj)) return true;
 
         Automaton other = (Automaton) obj;
-        DFAAutomaton reducedOther = other.reduce();
-        if (this.reduced == null) {
-            this.reduced = this.reduce();
+        if (this.reduced == null || other.reduced == null) {
+            return hasSameLetters(other) && isEquivalentTo(other);
         }
+        DFAAutomaton reducedOther = other.reduced;
 
         DFAAutomaton a = this.reduced;
         DFAAutomaton b = reducedOther;
@@ -644,8 +808,8 @@ public abstract class Automaton {
         while (!queue.isEmpty()) {
             int current = queue.poll();
             for (int i = 0; i < a.sigma.length; i++) {
-                int currATarg = a.transitions.get(current).get(i)[0];
-                int currBTarg = b.transitions.get(stateMapping[current]).get(sigmaMapping[i])[0];
+                int currATarg = a.transitions.getTarget(current, i);
+                int currBTarg = b.transitions.getTarget(stateMapping[current], sigmaMapping[i]);
                 if (stateMapping[currATarg] == -1) {
                     stateMapping[currATarg] = currBTarg;
                     queue.add(currATarg);
@@ -709,13 +873,13 @@ public abstract class Automaton {
                 }
                 sb.append(separator).append("\"").append(Q[i]).append("\"");
 
-                int[] curr;
                 for (int letter = 0; letter < sigma.length; letter++) {
-                    curr = transitions.get(i).get(letter);
-                    if (curr.length > 0) {
-                        sb.append(separator).append("\"").append(Q[curr[0]]);
-                        for (int c = 1; c < curr.length; c++) {
-                            sb.append(",").append(Q[curr[c]]);
+                    int start = transitions.getStart(i, letter);
+                    int end = transitions.getEnd(i, letter);
+                    if (end > start) {
+                        sb.append(separator).append("\"").append(Q[transitions.getTargetAt(start)]);
+                        for (int c = start + 1; c < end; c++) {
+                            sb.append(",").append(Q[transitions.getTargetAt(c)]);
                         }
                         sb.append("\"");
                     } else sb.append(separator);
@@ -738,6 +902,25 @@ public abstract class Automaton {
         exportToCSV(file, ',');
     }
 
+    /**
+     * This function exports automaton in compact binary format, see {@link BinaryFormat}.
+     * It is much smaller and faster to load than CSV, and it keeps the type of the automaton.
+     *
+     * @param includeReduced If true, reduced DFA is stored as well, so it does not have to be computed after import.
+     */
+    public void exportToBinary(OutputStream out, boolean includeReduced) throws IOException {
+        BinaryFormat.write(this, out, includeReduced);
+    }
+
+    /**
+     * Calls {@link #exportToBinary(OutputStream, boolean)} on the specified file
+     */
+    public void exportToBinary(File file, boolean includeReduced) throws IOException {
+        try (OutputStream out = new FileOutputStream(file)) {
+            exportToBinary(out, includeReduced);
+        }
+    }
+
     /**
      * This function will return an object containing all string representations of this automaton
      */
@@ -746,6 +929,16 @@ public abstract class Automaton {
         return toStringConverter;
     }
 
+    /**
+     * This function exports reduced automaton as source of a standalone Java class, see {@link ToJavaConverter}.
+     *
+     * @param packageName Package of the class, or empty string for the default package
+     * @param className   Simple name of the class
+     */
+    public String exportToJava(String packageName, String className) {
+        return new ToJavaConverter(this).getSource(packageName, className);
+    }
+
     //endregion
 
     //region IMPORT
@@ -912,6 +1105,27 @@ public abstract class Automaton {
         return importFromCSV(reader, ',');
     }
 
+    /**
+     * This function imports automaton exported by {@link #exportToBinary(OutputStream, boolean)}.
+     * If reduced DFA was stored, it is cached in the returned automaton.
+     * Stream is read exactly up to the end of the automaton, so several automata can be read from one stream.
+     * It is not buffered, so wrap it in {@link BufferedInputStream}, if it is slow to read byte by byte.
+     *
+     * @throws IOException If the stream is not a valid binary automaton, or its format version is not supported
+     */
+    public static Automaton importFromBinary(InputStream in) throws IOException {
+        return BinaryFormat.read(in);
+    }
+
+    /**
+     * Calls {@link #importFromBinary(InputStream)} on the specified file
+     */
+    public static Automaton importFromBinary(File file) throws IOException {
+        try (InputStream in = new BufferedInputStream(new FileInputStream(file))) {
+            return importFromBinary(in);
+        }
+    }
+
     //endregion
 
     //region renaming
@@ -934,14 +1148,14 @@ public abstract class Automaton {
             return false;
         }
 
-        //Invalidating caches
-        invalidateCaches();
         int index = this.getStateIndex(originalName);
         if (index == -1) {
             LOGGER.info("Renaming failed, because state " + originalName + " does not exist");
             return false;
         }
         Q[index] = newName;
+        //Invalidating caches, after the name was changed, so that they are not rebuilt with the old one
+        invalidateCaches();
         return true;
     }
 
@@ -973,8 +1187,6 @@ public abstract class Automaton {
 
         }
 
-        invalidateCaches();
-        LOGGER.fine("Saved toString caches invalidated");
         int index = this.getLetterIndex(originalName);
         if (index == -1) {
             LOGGER.info("Renaming failed, because letter " + originalName + " does not exist");
@@ -984,6 +1196,8 @@ public abstract class Automaton {
             return false;
         }
         sigma[index] = newName;
+        invalidateCaches();
+        LOGGER.fine("Saved toString caches invalidated");
         return true;
     }
 
@@ -0,0 +1,216 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Stream;
+
+/**
+ * Accepts batches of words in parallel. Every character of a word is one letter, as in {@link Automaton#acceptsWord(String)}.
+ * <p>
+ * All workers share one immutable {@link SymbolMatcher} on the reduced DFA, so they do not synchronize at all.
+ * Words are split into blocks, whose sizes are multiples of 64, so every block fills its own longs of the result
+ * and blocks are merged without shifting bits. Lists are split into a few blocks per thread, streams and files are read
+ * sequentially by blocks of {@link #BLOCK_SIZE} words, while the previous blocks are being matched. At most
+ * {@link #PENDING_PER_THREAD} blocks per thread wait for matching, once there are more, the oldest block is joined
+ * before the next one is read. So only a few blocks of a large file are in memory, however fast it is read.
+ * </p>
+ * <p>
+ * By default, the common {@link ForkJoinPool} is used. Instances are immutable and thread safe.
+ * </p>
+ */
+public final class BatchMatcher {
+    /**
+     * Number of words of one block of streams and files
+     */
+    public static final int BLOCK_SIZE = 1 << 14;
+    /**
+     * Lists are split into this many blocks per thread, so that threads, that are done sooner, can steal more work
+     */
+    private static final int BLOCKS_PER_THREAD = 4;
+    /**
+     * Maximal number of blocks of streams and files per thread, that are read and wait for matching
+     */
+    private static final int PENDING_PER_THREAD = 2;
+
+    private final SymbolMatcher matcher;
+    private final int parallelism;
+
+    public BatchMatcher(Automaton automaton) {
+        this(automaton, ForkJoinPool.getCommonPoolParallelism());
+    }
+
+    /**
+     * @param parallelism Expected number of threads of executors passed to this matcher, used to size blocks of lists
+     */
+    public BatchMatcher(Automaton automaton, int parallelism) {
+        if (parallelism < 1) throw new IllegalArgumentException("Parallelism has to be positive: " + parallelism);
+        this.matcher = automaton.getSymbolMatcher();
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return Set of indices of accepted words
+     */
+    public BitSet accepts(List<? extends CharSequence> words) {
+        return accepts(words, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param executor Executor, that runs blocks of words
+     * @return Set of indices of accepted words
+     */
+    public BitSet accepts(List<? extends CharSequence> words, Executor executor) {
+        int size = words.size();
+        int blockSize = getBlockSize(size);
+        ArrayList<CompletableFuture<long[]>> blocks = new ArrayList<>();
+        for (int from = 0; from < size; from += blockSize) {
+            List<? extends CharSequence> block = words.subList(from, Math.min(size, from + blockSize));
+            blocks.add(CompletableFuture.supplyAsync(() -> acceptBlock(block), executor));
+        }
+        return merge(blocks, blockSize);
+    }
+
+    /**
+     * @return Set of indices of accepted words, in the order of the stream
+     */
+    public BitSet accepts(Stream<? extends CharSequence> words) {
+        return accepts(words, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Consumes the stream sequentially by blocks, that are matched by the executor.
+     *
+     * @return Set of indices of accepted words, in the order of the stream
+     */
+    public BitSet accepts(Stream<? extends CharSequence> words, Executor executor) {
+        return accepts(words.iterator(), executor);
+    }
+
+    /**
+     * @param file File with one word per line
+     * @return Set of indices of lines with accepted words
+     */
+    public BitSet accepts(File file, Charset charset) throws IOException {
+        return accepts(file, charset, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param file File with one word per line
+     * @return Set of indices of lines with accepted words
+     */
+    public BitSet accepts(File file, Charset charset, Executor executor) throws IOException {
+        try (BufferedReader reader = Files.newBufferedReader(file.toPath(), charset)) {
+            return accepts(reader.lines().iterator(), executor);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private BitSet accepts(Iterator<? extends CharSequence> words, Executor executor) {
+        int blockLongs = BLOCK_SIZE >>> 6;
+        long[] accepted = new long[16 * blockLongs];
+        int joined = 0;
+        ArrayDeque<CompletableFuture<long[]>> pending = new ArrayDeque<>();
+        while (words.hasNext()) {
+            if (pending.size() >= PENDING_PER_THREAD * parallelism) {
+                accepted = append(accepted, joined++, pending.poll().join());
+            }
+            ArrayList<CharSequence> block = new ArrayList<>(BLOCK_SIZE);
+            while (block.size() < BLOCK_SIZE && words.hasNext()) {
+                block.add(words.next());
+            }
+            pending.add(CompletableFuture.supplyAsync(() -> acceptBlock(block), executor));
+        }
+        while (!pending.isEmpty()) {
+            accepted = append(accepted, joined++, pending.poll().join());
+        }
+        return BitSet.valueOf(accepted);
+    }
+
+    /**
+     * Copies bits of the block of streams and files to its position, growing the array if needed
+     *
+     * @return Array with the bits
+     */
+    private static long[] append(long[] accepted, int index, long[] block) {
+        int from = index * (BLOCK_SIZE >>> 6);
+        if (from + block.length > accepted.length) accepted = Arrays.copyOf(accepted, accepted.length * 2);
+        System.arraycopy(block, 0, accepted, from, block.length);
+        return accepted;
+    }
+
+    /**
+     * @return Set of indices of accepted words
+     */
+    public BitSet accepts(WordBatch batch) {
+        return accepts(batch, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @return Set of indices of accepted words
+     */
+    public BitSet accepts(WordBatch batch, Executor executor) {
+        int size = batch.size();
+        int blockSize = getBlockSize(size);
+        ArrayList<CompletableFuture<long[]>> blocks = new ArrayList<>();
+        int[] symbols = batch.getSymbols();
+        for (int from = 0; from < size; from += blockSize) {
+            int blockFrom = from, blockTo = Math.min(size, from + blockSize);
+            blocks.add(CompletableFuture.supplyAsync(() -> {
+                long[] accepted = new long[(blockTo - blockFrom + 63) >>> 6];
+                for (int word = blockFrom; word < blockTo; word++) {
+                    if (matcher.accepts(symbols, batch.getStart(word), batch.getEnd(word))) {
+                        accepted[(word - blockFrom) >>> 6] |= 1L << (word - blockFrom);
+                    }
+                }
+                return accepted;
+            }, executor));
+        }
+        return merge(blocks, blockSize);
+    }
+
+    /**
+     * @return Size of blocks of a list, rounded up to a multiple of 64
+     */
+    private int getBlockSize(int size) {
+        int blocks = parallelism * BLOCKS_PER_THREAD;
+        int blockSize = (int) (((long) size + blocks - 1) / blocks);
+        return Math.max(64, (blockSize + 63) & ~63);
+    }
+
+    private long[] acceptBlock(List<? extends CharSequence> block) {
+        long[] accepted = new long[(block.size() + 63) >>> 6];
+        for (int i = 0; i < block.size(); i++) {
+            if (matcher.accepts(block.get(i))) accepted[i >>> 6] |= 1L << i;
+        }
+        return accepted;
+    }
+
+    /**
+     * Waits for all blocks and joins their bits
+     *
+     * @param blockSize Number of words of every block, except the last one. It has to be a multiple of 64.
+     */
+    private static BitSet merge(List<CompletableFuture<long[]>> blocks, int blockSize) {
+        int blockLongs = blockSize >>> 6;
+        long[] accepted = new long[blocks.size() * blockLongs];
+        for (int i = 0; i < blocks.size(); i++) {
+            long[] block = blocks.get(i).join();
+            System.arraycopy(block, 0, accepted, i * blockLongs, block.length);
+        }
+        return BitSet.valueOf(accepted);
+    }
+}
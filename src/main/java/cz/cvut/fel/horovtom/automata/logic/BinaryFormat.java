@@ -0,0 +1,269 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * This class reads and writes automata in compact binary format.
+ * <p>
+ * File starts with magic bytes "JAUT" and format version, followed by one automaton block:
+ * <pre>
+ * type           byte (0 - DFA, 1 - NFA, 2 - ENFA)
+ * flags          byte (1 - has description, 2 - deterministic table)
+ * description    string, if present
+ * |&Sigma;|, |Q|        varint
+ * string table   names of letters, then names of states
+ * transitions    deterministic table: varint target + 1 per cell (0 if the cell is empty),
+ *                otherwise per cell: varint count, then targets in ascending order, each as difference from the previous one
+ * initial        bitmap of |Q| bits
+ * accepting      bitmap of |Q| bits
+ * reduced        byte (0 - not stored, 1 - automaton is reduced itself, 2 - reduced DFA block follows)
+ * </pre>
+ * Strings are stored as varint length followed by UTF-8 bytes. Varints are unsigned LEB128.
+ * </p>
+ * Reader does not buffer the stream, so it stops exactly after the automaton and more data can follow it.
+ */
+final class BinaryFormat {
+    private static final byte[] MAGIC = {'J', 'A', 'U', 'T'};
+    static final int VERSION = 1;
+
+    private static final int TYPE_DFA = 0, TYPE_NFA = 1, TYPE_ENFA = 2;
+    private static final int FLAG_DESCRIPTION = 1, FLAG_DETERMINISTIC = 2;
+    private static final int REDUCED_NONE = 0, REDUCED_SELF = 1, REDUCED_STORED = 2;
+
+    private BinaryFormat() {
+    }
+
+    //region WRITE
+
+    /**
+     * @param includeReduced If true, reduced DFA is stored as well. It is computed, if it is not cached yet.
+     */
+    static void write(Automaton automaton, OutputStream out, boolean includeReduced) throws IOException {
+        DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out));
+        data.write(MAGIC);
+        data.writeByte(VERSION);
+        writeBlock(automaton, data, includeReduced);
+        data.flush();
+    }
+
+    private static void writeBlock(Automaton automaton, DataOutputStream out, boolean includeReduced) throws IOException {
+        TransitionTable table = automaton.transitions;
+        boolean hasDescription = automaton.description != null && !automaton.description.isEmpty();
+        out.writeByte(automaton instanceof DFAAutomaton ? TYPE_DFA : automaton instanceof NFAAutomaton ? TYPE_NFA : TYPE_ENFA);
+        out.writeByte((hasDescription ? FLAG_DESCRIPTION : 0) | (table.isDeterministic() ? FLAG_DETERMINISTIC : 0));
+        if (hasDescription) writeString(out, automaton.description);
+
+        int QSize = automaton.Q.length, sigmaSize = automaton.sigma.length;
+        writeVarInt(out, sigmaSize);
+        writeVarInt(out, QSize);
+        for (String letter : automaton.sigma) {
+            writeString(out, letter);
+        }
+        for (String state : automaton.Q) {
+            writeString(out, state);
+        }
+
+        if (table.isDeterministic()) {
+            for (int state = 0; state < QSize; state++) {
+                for (int letter = 0; letter < sigmaSize; letter++) {
+                    writeVarInt(out, table.getTarget(state, letter) + 1);
+                }
+            }
+        } else {
+            for (int state = 0; state < QSize; state++) {
+                for (int letter = 0; letter < sigmaSize; letter++) {
+                    int start = table.getStart(state, letter), end = table.getEnd(state, letter);
+                    writeVarInt(out, end - start);
+                    int previous = 0;
+                    for (int i = start; i < end; i++) {
+                        int target = table.getTargetAt(i);
+                        writeVarInt(out, target - previous);
+                        previous = target;
+                    }
+                }
+            }
+        }
+
+        writeBitmap(out, automaton.initialStates, QSize);
+        writeBitmap(out, automaton.acceptingStates, QSize);
+
+        if (!includeReduced) {
+            out.writeByte(REDUCED_NONE);
+            return;
+        }
+        if (automaton.reduced == null) automaton.getReduced();
+        if (automaton.reduced == automaton) {
+            out.writeByte(REDUCED_SELF);
+        } else {
+            out.writeByte(REDUCED_STORED);
+            writeBlock(automaton.reduced, out, false);
+        }
+    }
+
+    private static void writeVarInt(DataOutputStream out, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            out.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.writeByte(value);
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        writeVarInt(out, bytes.length);
+        out.write(bytes);
+    }
+
+    private static void writeBitmap(DataOutputStream out, int[] states, int QSize) throws IOException {
+        byte[] bitmap = new byte[(QSize + 7) / 8];
+        for (int state : states) {
+            bitmap[state >> 3] |= 1 << (state & 7);
+        }
+        out.write(bitmap);
+    }
+
+    //endregion
+
+    //region READ
+
+    /**
+     * @return Automaton of the same type as the one, that was written. Reduced DFA is cached in it, if it was stored.
+     * @throws IOException If the stream is not in this format, or it has unsupported version
+     */
+    static Automaton read(InputStream in) throws IOException {
+        DataInputStream data = in instanceof DataInputStream ? (DataInputStream) in : new DataInputStream(in);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC)) throw new IOException("Not a binary automaton file");
+        int version = data.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported binary automaton version " + version + ", expected " + VERSION);
+        }
+        return readBlock(data);
+    }
+
+    private static Automaton readBlock(DataInputStream in) throws IOException {
+        int type = in.readUnsignedByte();
+        if (type > TYPE_ENFA) throw new IOException("Invalid automaton type " + type);
+        int flags = in.readUnsignedByte();
+        String description = (flags & FLAG_DESCRIPTION) != 0 ? readString(in) : null;
+
+        int sigmaSize = readVarInt(in), QSize = readVarInt(in);
+        //Names are read before any array of that size is allocated, so corrupted sizes end with EOF instead of OOM
+        String[] sigma = readStrings(in, sigmaSize);
+        String[] Q = readStrings(in, QSize);
+        int cells;
+        try {
+            cells = Math.multiplyExact(QSize, sigmaSize);
+        } catch (ArithmeticException e) {
+            throw new IOException("Transition table of " + QSize + " states and " + sigmaSize + " letters is too large");
+        }
+
+        TransitionTable table;
+        if ((flags & FLAG_DETERMINISTIC) != 0) {
+            int[] dense = new int[cells];
+            for (int i = 0; i < dense.length; i++) {
+                int target = readVarInt(in) - 1;
+                dense[i] = target == -1 ? -1 : checkState(target, QSize);
+            }
+            table = TransitionTable.fromDense(QSize, sigmaSize, dense);
+        } else {
+            TransitionTable.Builder builder = new TransitionTable.Builder(QSize, sigmaSize);
+            for (int cell = cells; cell > 0; cell--) {
+                int count = readVarInt(in), target = 0;
+                for (int i = 0; i < count; i++) {
+                    target += readVarInt(in);
+                    builder.add(checkState(target, QSize));
+                }
+                builder.nextCell();
+            }
+            table = builder.build();
+        }
+
+        int[] initial = readBitmap(in, QSize);
+        int[] accepting = readBitmap(in, QSize);
+
+        Automaton automaton;
+        switch (type) {
+            case TYPE_DFA:
+                if (initial.length != 1) throw new IOException("DFA has to have exactly one initial state");
+                for (int state = 0; state < QSize; state++) {
+                    for (int letter = 0; letter < sigmaSize; letter++) {
+                        if (table.getEnd(state, letter) - table.getStart(state, letter) > 1) {
+                            throw new IOException("DFA has multiple targets of state " + Q[state] + " by letter " + sigma[letter]);
+                        }
+                    }
+                }
+                automaton = new DFAAutomaton(Q, sigma, table, initial[0], accepting);
+                break;
+            case TYPE_NFA:
+                automaton = new NFAAutomaton(Q, sigma, table, initial, accepting);
+                break;
+            default:
+                automaton = new ENFAAutomaton(Q, sigma, table, initial, accepting);
+                break;
+        }
+        if (description != null) automaton.setDescription(description);
+
+        int reduced = in.readUnsignedByte();
+        if (reduced == REDUCED_SELF) {
+            if (type != TYPE_DFA) throw new IOException("Only DFA can be reduced itself");
+            automaton.reduced = (DFAAutomaton) automaton;
+        } else if (reduced == REDUCED_STORED) {
+            Automaton reducedAutomaton = readBlock(in);
+            if (!(reducedAutomaton instanceof DFAAutomaton)) throw new IOException("Reduced automaton has to be DFA");
+            automaton.reduced = (DFAAutomaton) reducedAutomaton;
+        } else if (reduced != REDUCED_NONE) {
+            throw new IOException("Invalid reduced automaton marker " + reduced);
+        }
+        return automaton;
+    }
+
+    private static int readVarInt(DataInputStream in) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                if (value < 0) throw new IOException("Varint out of range");
+                return value;
+            }
+        }
+        throw new IOException("Varint is too long");
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[readVarInt(in)];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static String[] readStrings(DataInputStream in, int count) throws IOException {
+        ArrayList<String> strings = new ArrayList<>(Math.min(count, 1024));
+        for (int i = 0; i < count; i++) {
+            strings.add(readString(in));
+        }
+        return strings.toArray(new String[0]);
+    }
+
+    private static int[] readBitmap(DataInputStream in, int QSize) throws IOException {
+        byte[] bitmap = new byte[(QSize + 7) / 8];
+        in.readFully(bitmap);
+        int[] states = new int[QSize];
+        int count = 0;
+        for (int state = 0; state < QSize; state++) {
+            if ((bitmap[state >> 3] & (1 << (state & 7))) != 0) states[count++] = state;
+        }
+        return Arrays.copyOf(states, count);
+    }
+
+    private static int checkState(int state, int QSize) throws IOException {
+        if (state < 0 || state >= QSize) throw new IOException("Transition to non-existing state " + state);
+        return state;
+    }
+
+    //endregion
+}
@@ -1,5 +1,7 @@
 package cz.cvut.fel.horovtom.automata.logic;
 
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
 import java.util.*;
 import java.util.logging.Logger;
 
@@ -7,8 +9,8 @@ public class BinaryOperators {
     private static final Logger LOGGER = Logger.getLogger(BinaryOperators.class.getName());
     private final Automaton a, b;
     private int aEps, bEps;
-    private final HashMap<Integer, HashMap<Integer, int[]>> aTransitions;
-    private final HashMap<Integer, HashMap<Integer, int[]>> bTransitions;
+    private final TransitionTable aTransitions;
+    private final TransitionTable bTransitions;
 
     private String[] commonQ;
     /**
@@ -29,8 +31,8 @@ public class BinaryOperators {
         this.a = a;
         this.b = b;
 
-        aTransitions = a.getTransitions();
-        bTransitions = b.getTransitions();
+        aTransitions = a.transitions;
+        bTransitions = b.transitions;
 
         createCommon();
     }
@@ -129,15 +131,24 @@ public class BinaryOperators {
         return L1L2.copy();
     }
 
+    /**
+     * Adds targets of the cell in the specified table to the current cell of the builder, shifted by offset
+     */
+    private static void addShifted(TransitionTable.Builder builder, TransitionTable table, int state, int letter, int offset) {
+        int end = table.getEnd(state, letter);
+        for (int i = table.getStart(state, letter); i < end; i++) {
+            builder.add(table.getTargetAt(i) + offset);
+        }
+    }
+
     private void createL1L2() {
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>(this.commonQ.length);
+        TransitionTable.Builder transitions = new TransitionTable.Builder(this.commonQ.length, this.commonSigma.length);
         int[] aAccepting = a.getAcceptingStates();
         int[] bInitial = b.getInitialStates();
 
         int breakingPoint = a.getQSize();
 
         for (int state = 0; state < this.commonQ.length; state++) {
-            HashMap<Integer, int[]> currRow = new HashMap<>();
             if (state < breakingPoint) {
                 //It is an 'A' state
                 boolean acceptingState = false;
@@ -153,47 +164,34 @@ public class BinaryOperators {
                 for (int letter = 0; letter < this.commonSigma.length; letter++) {
                     if (letter == 0) {
                         //Eps transition
-                        ArrayList<Integer> targs = new ArrayList<>();
-
                         if (this.aEps != -1) {
-                            for (int i : aTransitions.get(state).get(this.aSigmaMap.get(letter))) {
-                                targs.add(i);
-                            }
+                            addShifted(transitions, aTransitions, state, this.aSigmaMap.get(letter), 0);
                         }
 
                         if (acceptingState) {
                             for (int i : bInitial) {
-                                targs.add(breakingPoint + i);
+                                transitions.add(breakingPoint + i);
                             }
                         }
 
-                        currRow.put(0, targs.stream().mapToInt(a -> a).toArray());
+                        transitions.nextCell();
                         continue;
                     }
                     if (this.aSigmaMap.containsKey(letter)) {
-                        int[] ints = aTransitions.get(state).get(this.aSigmaMap.get(letter));
-                        currRow.put(letter, Arrays.copyOf(ints, ints.length));
-                    } else {
-                        currRow.put(letter, new int[0]);
+                        addShifted(transitions, aTransitions, state, this.aSigmaMap.get(letter), 0);
                     }
+                    transitions.nextCell();
                 }
             } else {
                 //It is a 'B' state
                 //Letters
                 for (int letter = 0; letter < this.commonSigma.length; letter++) {
                     if (this.bSigmaMap.containsKey(letter)) {
-                        int[] ints = bTransitions.get(state - breakingPoint).get(this.bSigmaMap.get(letter));
-                        for (int i = 0; i < ints.length; i++) {
-                            ints[i] += breakingPoint;
-                        }
-                        currRow.put(letter, Arrays.copyOf(ints, ints.length));
-                    } else {
-                        currRow.put(letter, new int[0]);
+                        addShifted(transitions, bTransitions, state - breakingPoint, this.bSigmaMap.get(letter), breakingPoint);
                     }
+                    transitions.nextCell();
                 }
             }
-
-            transitions.put(state, currRow);
         }
 
         int[] initials = a.getInitialStates();
@@ -202,7 +200,7 @@ public class BinaryOperators {
             acceptingStates[i] += breakingPoint;
         }
 
-        this.L1L2 = new ENFAAutomaton(this.commonQ, this.commonSigma, transitions, initials, acceptingStates);
+        this.L1L2 = new ENFAAutomaton(this.commonQ, this.commonSigma, transitions.build(), initials, acceptingStates);
     }
 
     public Automaton getUnion() {
@@ -225,39 +223,22 @@ public class BinaryOperators {
             Q[currToWrite++] = s;
         }
 
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
-        HashMap<Integer, int[]> currRow = new HashMap<>();
-        currRow.put(0, new int[]{1, bStart});
-        transitions.put(0, currRow);
+        TransitionTable.Builder transitions = new TransitionTable.Builder(Q.length, sigma.length);
+        transitions.add(1).add(bStart).nextCell();
+        for (int letter = 1; letter < sigma.length; letter++) {
+            transitions.nextCell();
+        }
         //a states
         for (int state = 1; state < Q.length; state++) {
-            currRow = new HashMap<>();
             //letters
             for (int letter = 0; letter < sigma.length; letter++) {
                 if (state < bStart && aSigmaMap.containsKey(letter)) {
-                    Integer aLetter = aSigmaMap.get(letter);
-                    int[] ints = aTransitions.get(state - 1).get(aLetter);
-                    int[] newInts = Arrays.copyOf(ints, ints.length);
-                    for (int i = 0; i < newInts.length; i++) {
-                        newInts[i]++;
-                    }
-
-                    currRow.put(letter, newInts);
+                    addShifted(transitions, aTransitions, state - 1, aSigmaMap.get(letter), 1);
                 } else if (state >= bStart && bSigmaMap.containsKey(letter)) {
-                    Integer bLetter = bSigmaMap.get(letter);
-                    int[] ints = bTransitions.get(state - bStart).get(bLetter);
-                    int[] newInts = Arrays.copyOf(ints, ints.length);
-                    for (int i = 0; i < newInts.length; i++) {
-                        newInts[i] += bStart;
-                    }
-
-                    currRow.put(letter, newInts);
-                } else {
-                    currRow.put(letter, new int[0]);
+                    addShifted(transitions, bTransitions, state - bStart, bSigmaMap.get(letter), bStart);
                 }
+                transitions.nextCell();
             }
-
-            transitions.put(state, currRow);
         }
 
         int[] initials = new int[]{0};
@@ -277,7 +258,9 @@ public class BinaryOperators {
         if (nullable)
             accepting[accepting.length - 1] = 0;
 
-        this.union = new ENFAAutomaton(Q, sigma, transitions, initials, accepting);
+        //Operands are reduced DFAs, so their dead sink states are removed from the union
+        Trimmer trimmer = new Trimmer(transitions.build(), initials, accepting, true);
+        this.union = new ENFAAutomaton(trimmer.getQ(Q), sigma, trimmer.getTable(), trimmer.getInitial(), trimmer.getAccepting());
     }
 
     public Automaton getIntersection() {
@@ -290,10 +273,9 @@ public class BinaryOperators {
     private Automaton getEmptyAutomaton() {
         String[] Q = {"0"};
         String[] sigma = new String[0];
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
         int[] initial = {0};
         int[] accepting = new int[0];
-        return new ENFAAutomaton(Q, sigma, transitions, initial, accepting);
+        return new ENFAAutomaton(Q, sigma, TransitionTable.fromDense(1, 0, new int[0]), initial, accepting);
     }
 
     /**
@@ -321,8 +303,8 @@ public class BinaryOperators {
     private void createIntersection() {
         DFAAutomaton a = this.a.getReduced();
         DFAAutomaton b = this.b.getReduced();
-        HashMap<Integer, HashMap<Integer, int[]>> aTransitions = a.getTransitions();
-        HashMap<Integer, HashMap<Integer, int[]>> bTransitions = b.getTransitions();
+        TransitionTable aTransitions = a.transitions;
+        TransitionTable bTransitions = b.transitions;
         String[] aSigma = a.getSigma();
         String[] bSigma = b.getSigma();
         String[] aQ = a.getQ();
@@ -359,53 +341,71 @@ public class BinaryOperators {
           Array that holds indices of the new stateName + 1
          */
         int[][] statesIndices = new int[a.getQSize()][b.getQSize()];
-        ArrayList<Integer> stateMapA = new ArrayList<>();
-        ArrayList<Integer> stateMapB = new ArrayList<>();
+        int sigmaSize = commonSigma.size();
+        int[] aLetters = aSigmaMap.stream().mapToInt(c -> c).toArray();
+        int[] bLetters = bSigmaMap.stream().mapToInt(c -> c).toArray();
+
+        //Letters, that are in the same class in both automata, have the same targets in every product state,
+        // so the product is explored only by one representative letter of every pair of classes
+        AlphabetIndex aIndex = a.getAlphabetIndex();
+        AlphabetIndex bIndex = b.getAlphabetIndex();
+        int[] letterClasses = new int[sigmaSize];
+        int[] representatives = new int[sigmaSize];
+        HashMap<Integer, Integer> classPairs = new HashMap<>();
+        for (int letter = 0; letter < sigmaSize; letter++) {
+            int pair = aIndex.getLetterClass(aLetters[letter]) * bIndex.getClassCount() + bIndex.getLetterClass(bLetters[letter]);
+            Integer productClass = classPairs.get(pair);
+            if (productClass == null) {
+                productClass = classPairs.size();
+                classPairs.put(pair, productClass);
+                representatives[productClass] = letter;
+            }
+            letterClasses[letter] = productClass;
+        }
+        int classCount = classPairs.size();
+        int[] classTargets = new int[classCount];
+        //Product states are processed in the order of their creation, so stateMapA and stateMapB double as a queue
+        int[] stateMapA = new int[16];
+        int[] stateMapB = new int[16];
+        int[] transitions = new int[16 * sigmaSize];
         ArrayList<String> stateNames = new ArrayList<>();
-        HashMap<Integer, HashMap<Integer, Integer>> transitions = new HashMap<>();
-
-        Queue<Integer> toComplete = new LinkedList<>();
 
         //Initial state
         int initialA = a.getInitialStates()[0];
         int initialB = b.getInitialStates()[0];
         stateNames.add(getCompositeName(aQ[initialA], bQ[initialB]));
-        stateMapA.add(initialA);
-        stateMapB.add(initialB);
+        stateMapA[0] = initialA;
+        stateMapB[0] = initialB;
         statesIndices[initialA][initialB] = 1;
-        toComplete.offer(0);
 
         //States
-        while (!toComplete.isEmpty()) {
-            int toDo = toComplete.poll();
-            int aInd = stateMapA.get(toDo);
-            int bInd = stateMapB.get(toDo);
-            HashMap<Integer, Integer> curr = new HashMap<>();
-            transitions.put(toDo, curr);
-
-            for (int letter = 0; letter < commonSigma.size(); letter++) {
-                int aLetInd = aSigmaMap.get(letter);
-                int bLetInd = bSigmaMap.get(letter);
-                int aTarg = -1, bTarg = -1;
-                if (aInd != -1) {
-                    aTarg = aTransitions.get(aInd).get(aLetInd)[0];
-                }
-                if (bInd != -1) {
-                    bTarg = bTransitions.get(bInd).get(bLetInd)[0];
-                }
+        for (int toDo = 0; toDo < stateNames.size(); toDo++) {
+            int aInd = stateMapA[toDo];
+            int bInd = stateMapB[toDo];
+            if (transitions.length < (toDo + 1) * sigmaSize) {
+                transitions = Arrays.copyOf(transitions, transitions.length * 2);
+            }
+
+            for (int productClass = 0; productClass < classCount; productClass++) {
+                int letter = representatives[productClass];
+                int aTarg = aTransitions.getTarget(aInd, aLetters[letter]);
+                int bTarg = bTransitions.getTarget(bInd, bLetters[letter]);
                 if (statesIndices[aTarg][bTarg] == 0) {
                     //Create new state
-                    toComplete.offer(stateNames.size());
+                    int created = stateNames.size();
+                    if (created == stateMapA.length) {
+                        stateMapA = Arrays.copyOf(stateMapA, created * 2);
+                        stateMapB = Arrays.copyOf(stateMapB, created * 2);
+                    }
                     stateNames.add(getCompositeName(aQ[aTarg], bQ[bTarg]));
-                    stateMapA.add(aTarg);
-                    stateMapB.add(bTarg);
-                    statesIndices[aTarg][bTarg] = stateNames.size();
-                    curr.put(letter, statesIndices[aTarg][bTarg] - 1);
-                } else {
-                    //It already exists
-                    curr.put(letter, statesIndices[aTarg][bTarg] - 1);
+                    stateMapA[created] = aTarg;
+                    stateMapB[created] = bTarg;
+                    statesIndices[aTarg][bTarg] = created + 1;
                 }
-
+                classTargets[productClass] = statesIndices[aTarg][bTarg] - 1;
+            }
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                transitions[toDo * sigmaSize + letter] = classTargets[letterClasses[letter]];
             }
         }
 
@@ -418,7 +418,9 @@ public class BinaryOperators {
             }
         }
 
-        intersection = new DFAAutomaton(stateNames.toArray(new String[]{}), commonSigma.toArray(new String[]{}), transitions, 0, acceptingStates.stream().mapToInt(c -> c).toArray());
-        LOGGER.fine("Intersection created: \n" + intersection.toString());
+        int QSize = stateNames.size();
+        intersection = new DFAAutomaton(stateNames.toArray(new String[]{}), commonSigma.toArray(new String[]{}),
+                TransitionTable.fromDense(QSize, sigmaSize, Arrays.copyOf(transitions, QSize * sigmaSize)), 0, acceptingStates.stream().mapToInt(c -> c).toArray());
+        LOGGER.fine(() -> "Intersection created: \n" + intersection.toString());
     }
 }
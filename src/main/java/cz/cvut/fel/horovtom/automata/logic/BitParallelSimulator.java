@@ -0,0 +1,235 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+import java.util.Arrays;
+import java.util.logging.Logger;
+
+/**
+ * This class simulates NFA and ENFA automata on words without determinization.
+ * <p>
+ * Sets of active states are held in bit vectors of type <code>long[]</code>, so it works for any number of states.
+ * Epsilon transitions are resolved once in the constructor: the initial set and all successor sets are closed under
+ * epsilon transitions, so the simulation itself never computes epsilon closures.
+ * </p>
+ * <p>
+ * If the automaton is small enough, successor sets of every state and letter are precomputed as bit masks
+ * and a step is just a bitwise or of masks of the active states. Otherwise successors are read from the transition table.
+ * </p>
+ */
+public final class BitParallelSimulator {
+    private static final Logger LOGGER = Logger.getLogger(BitParallelSimulator.class.getName());
+    /**
+     * Maximal number of longs used by precomputed successor masks
+     */
+    private static final int MAX_MASKS_SIZE = 1 << 20;
+
+    private final Automaton automaton;
+    private final int QSize, words;
+    /**
+     * Index of the first letter of the automaton that is not epsilon
+     */
+    private final int firstLetter;
+    private final long[] initial, accepting;
+    /**
+     * States, from which an accepting state is reachable
+     */
+    private final long[] live;
+    /**
+     * Successors closed under epsilon transitions. Letters are indexed as in the automaton.
+     */
+    private final TransitionTable closed;
+    /**
+     * Successor masks, where mask of state and letter starts at index (letter * QSize + state) * words, or null
+     */
+    private final long[] masks;
+
+    public BitParallelSimulator(Automaton automaton) {
+        this.automaton = automaton;
+        this.QSize = automaton.getQSize();
+        this.words = (QSize + 63) >>> 6;
+        this.firstLetter = automaton.hasEpsilonTransitions() ? 1 : 0;
+        TransitionTable transitions = automaton.transitions;
+        int sigmaSize = automaton.getSigmaSize();
+
+        this.accepting = new long[words];
+        for (int acceptingState : automaton.acceptingStates) {
+            set(accepting, acceptingState);
+        }
+        this.live = new long[words];
+        boolean[] coReachable = Trimmer.getCoReachable(transitions, automaton.acceptingStates);
+        for (int state = 0; state < QSize; state++) {
+            if (coReachable[state]) set(live, state);
+        }
+        this.initial = new long[words];
+        if (firstLetter == 0) {
+            for (int initialState : automaton.initialStates) {
+                set(initial, initialState);
+            }
+            this.closed = transitions;
+        } else {
+            int[][] closures = new int[QSize][];
+            for (int state = 0; state < QSize; state++) {
+                closures[state] = automaton.getEpsilonClosure(state);
+            }
+            for (int initialState : automaton.initialStates) {
+                for (int state : closures[initialState]) {
+                    set(initial, state);
+                }
+            }
+            TransitionTable.Builder builder = new TransitionTable.Builder(QSize, sigmaSize);
+            for (int state = 0; state < QSize; state++) {
+                for (int letter = 0; letter < sigmaSize; letter++) {
+                    if (letter != 0) {
+                        int end = transitions.getEnd(state, letter);
+                        for (int i = transitions.getStart(state, letter); i < end; i++) {
+                            builder.addAll(closures[transitions.getTargetAt(i)]);
+                        }
+                    }
+                    builder.nextCell();
+                }
+            }
+            this.closed = builder.build();
+        }
+
+        long masksSize = (long) QSize * sigmaSize * words;
+        if (masksSize <= MAX_MASKS_SIZE) {
+            this.masks = new long[(int) masksSize];
+            for (int letter = firstLetter; letter < sigmaSize; letter++) {
+                for (int state = 0; state < QSize; state++) {
+                    int base = (letter * QSize + state) * words;
+                    int end = closed.getEnd(state, letter);
+                    for (int i = closed.getStart(state, letter); i < end; i++) {
+                        int target = closed.getTargetAt(i);
+                        masks[base + (target >>> 6)] |= 1L << target;
+                    }
+                }
+            }
+        } else {
+            LOGGER.fine(() -> "Automaton with " + QSize + " states is too large for precomputed masks, using transition table");
+            this.masks = null;
+        }
+    }
+
+    private static void set(long[] set, int state) {
+        set[state >>> 6] |= 1L << state;
+    }
+
+    /**
+     * @return Number of longs in a state set of this simulator
+     */
+    public int getWords() {
+        return words;
+    }
+
+    /**
+     * @return New state set, containing initial states closed under epsilon transitions
+     */
+    public long[] getInitial() {
+        return Arrays.copyOf(initial, words);
+    }
+
+    /**
+     * Writes initial states closed under epsilon transitions to the specified state set
+     */
+    public void reset(long[] current) {
+        System.arraycopy(initial, 0, current, 0, words);
+    }
+
+    /**
+     * Computes set of states reachable from current states by the letter.
+     *
+     * @param current State set to read from
+     * @param letter  Index of the letter in the automaton sigma. It must not be epsilon.
+     * @param next    State set to write the result to. It must not be the same array as current.
+     * @return false if the result is empty
+     */
+    public boolean step(long[] current, int letter, long[] next) {
+        Arrays.fill(next, 0L);
+        boolean nonEmpty = false;
+        for (int w = 0; w < words; w++) {
+            long word = current[w];
+            while (word != 0) {
+                int state = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (masks != null) {
+                    int base = (letter * QSize + state) * words;
+                    for (int i = 0; i < words; i++) {
+                        next[i] |= masks[base + i];
+                    }
+                } else {
+                    int end = closed.getEnd(state, letter);
+                    for (int i = closed.getStart(state, letter); i < end; i++) {
+                        set(next, closed.getTargetAt(i));
+                    }
+                }
+            }
+        }
+        for (int w = 0; w < words && !nonEmpty; w++) {
+            nonEmpty = next[w] != 0;
+        }
+        return nonEmpty;
+    }
+
+    /**
+     * @return true if the state set contains an accepting state
+     */
+    public boolean isAccepting(long[] current) {
+        for (int w = 0; w < words; w++) {
+            if ((current[w] & accepting[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return true if the state set contains a state, from which an accepting state is reachable.
+     * If it does not, no continuation of the word can be accepted.
+     */
+    public boolean isLive(long[] current) {
+        for (int w = 0; w < words; w++) {
+            if ((current[w] & live[w]) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * @param word Array of letter indices in the automaton sigma
+     * @return Whether the automaton accepts the word. Returns false if the word contains epsilon or unknown letter.
+     */
+    public boolean accepts(int[] word) {
+        long[] current = getInitial();
+        long[] next = new long[words];
+        for (int letter : word) {
+            if (letter < firstLetter || letter >= automaton.getSigmaSize()) {
+                LOGGER.info("Invalid letter index passed: " + letter);
+                return false;
+            }
+            if (!step(current, letter, next)) return false;
+            long[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+        return isAccepting(current);
+    }
+
+    /**
+     * @param word Array of letters from sigma
+     * @return Whether the automaton accepts the word. Returns false if the word contains epsilon or unknown letter.
+     */
+    public boolean accepts(String[] word) {
+        long[] current = getInitial();
+        long[] next = new long[words];
+        for (String letter : word) {
+            int letterIndex = automaton.getLetterIndex(letter);
+            if (letterIndex < firstLetter) {
+                LOGGER.info("Unknown letter passed: " + letter);
+                return false;
+            }
+            if (!step(current, letterIndex, next)) return false;
+            long[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+        return isAccepting(current);
+    }
+}
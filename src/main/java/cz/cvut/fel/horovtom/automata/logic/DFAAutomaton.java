@@ -6,6 +6,7 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.nio.IntBuffer;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -14,6 +15,15 @@ import java.util.logging.Logger;
 
 public class DFAAutomaton extends Automaton {
     private final static Logger LOGGER = Logger.getLogger(DFAAutomaton.class.getName());
+    /**
+     * Transitions compressed to equivalence classes of letters, see {@link AlphabetIndex#getClassTable(TransitionTable)}.
+     * It depends only on the transitions, which never change, so it does not have to be invalidated.
+     */
+    private int[] classTable = null;
+    /**
+     * Distances to accepting states, see {@link AcceptDistances}. They never change as well.
+     */
+    private AcceptDistances acceptDistances = null;
 
     /**
      * Interactive constructor used for console initialization by user
@@ -46,14 +56,14 @@ public class DFAAutomaton extends Automaton {
 
     @Override
     public ENFAAutomaton getENFA() {
-        ENFAAutomaton enfaAutomaton = new ENFAAutomaton(Arrays.copyOf(Q, Q.length), Arrays.copyOf(sigma, sigma.length), getTransitions(), new int[]{initialStates[0]}, Arrays.copyOf(acceptingStates, acceptingStates.length));
+        ENFAAutomaton enfaAutomaton = new ENFAAutomaton(Q, sigma, transitions, new int[]{initialStates[0]}, acceptingStates);
         enfaAutomaton.setDescription(description);
         return enfaAutomaton;
     }
 
     @Override
     public NFAAutomaton getNFA() {
-        NFAAutomaton nfaAutomaton = new NFAAutomaton(Arrays.copyOf(Q, Q.length), Arrays.copyOf(sigma, sigma.length), getTransitions(), new int[]{initialStates[0]}, Arrays.copyOf(acceptingStates, acceptingStates.length));
+        NFAAutomaton nfaAutomaton = new NFAAutomaton(Q, sigma, transitions, new int[]{initialStates[0]}, acceptingStates);
         nfaAutomaton.setDescription(description);
         return nfaAutomaton;
     }
@@ -104,11 +114,8 @@ public class DFAAutomaton extends Automaton {
             }
             System.out.print("\n");
             int i = 0;
-            this.transitions = new HashMap<>();
+            int[] table = new int[this.Q.length * this.sigma.length];
             while (i < this.Q.length) {
-                HashMap<Integer, int[]> curr = new HashMap<>();
-                this.transitions.put(i, curr);
-
                 System.out.print(this.Q[i] + " \t");
                 line = br.readLine();
                 st = new StringTokenizer(line);
@@ -117,11 +124,12 @@ public class DFAAutomaton extends Automaton {
                     i--;
                 } else {
                     for (int i1 = 0; i1 < this.sigma.length; i1++) {
-                        curr.put(i1, new int[]{getStateIndex(st.nextToken())});
+                        table[i * this.sigma.length + i1] = getStateIndex(st.nextToken());
                     }
                 }
                 i++;
             }
+            this.transitions = TransitionTable.fromDense(this.Q.length, this.sigma.length, table);
             System.out.println("Specify initial state: ");
             line = br.readLine();
             st = new StringTokenizer(line);
@@ -169,38 +177,35 @@ public class DFAAutomaton extends Automaton {
      * Constructor used for initialization of reduced automaton
      */
     public DFAAutomaton(String[] q, String[] sigma, HashMap<Integer, HashMap<Integer, Integer>> reducedTransitions, int reducedInitial, int[] reducedAccepting) {
+        this(q, sigma, TransitionTable.fromDeterministicHashMap(q.length, sigma.length, reducedTransitions), reducedInitial, reducedAccepting);
+    }
+
+    /**
+     * Constructor used for initialization from already built transition table
+     */
+    public DFAAutomaton(String[] q, String[] sigma, TransitionTable transitions, int initial, int[] accepting) {
         this.Q = q;
         this.sigma = sigma;
-        this.transitions = new HashMap<>();
-        for (int state = 0; state < q.length; state++) {
-            HashMap<Integer, int[]> current = new HashMap<>();
-            this.transitions.put(state, current);
-            HashMap<Integer, Integer> currentRow = reducedTransitions.get(state);
-            for (int letter = 0; letter < sigma.length; letter++) {
-                current.put(letter, new int[]{currentRow.get(letter)});
-            }
-        }
-        this.initialStates = new int[]{reducedInitial};
-        this.acceptingStates = reducedAccepting;
+        this.transitions = transitions;
+        this.initialStates = new int[]{initial};
+        this.acceptingStates = accepting;
     }
 
     @Override
     public DFAAutomaton reduce() {
-        //Transfer transitions to DFAReducer format:
-        HashMap<Integer, HashMap<Integer, Integer>> formattedTransitions = new HashMap<>();
-        for (int s = 0; s < this.Q.length; s++) {
-            HashMap<Integer, Integer> row = new HashMap<>();
-            formattedTransitions.put(s, row);
-            HashMap<Integer, int[]> rowOriginal = this.transitions.get(s);
-            for (int letter = 0; letter < this.sigma.length; letter++) {
-                row.put(letter, rowOriginal.get(letter)[0]);
-            }
-        }
-        DFAReducer reductor = new DFAReducer(formattedTransitions, this.initialStates[0], this.acceptingStates);
+        return reduce(DFAReducer.Algorithm.HOPCROFT);
+    }
+
+    /**
+     * @param algorithm Algorithm used to find equivalent states
+     * @return Reduced version of this automaton, or this automaton if it is already reduced
+     */
+    public DFAAutomaton reduce(DFAReducer.Algorithm algorithm) {
+        DFAReducer reductor = new DFAReducer(this.transitions.getDenseTable(), this.Q.length, this.sigma.length,
+                this.initialStates[0], this.acceptingStates, algorithm);
         if (reductor.wasReduced()) {
             return this;
         }
-        HashMap<Integer, HashMap<Integer, Integer>> reducedTransitions = reductor.getReducedTransitions();
         int[] reducedAccepting = reductor.getReducedAccepting();
         int reducedInitial = reductor.getReducedInitial();
 
@@ -208,33 +213,24 @@ public class DFAAutomaton extends Automaton {
         String[] sigma = Arrays.copyOf(this.sigma, this.sigma.length);
 
         DFAAutomaton dfa = new DFAAutomaton(q, sigma,
-                reducedTransitions, reducedInitial, reducedAccepting);
+                TransitionTable.fromDense(q.length, sigma.length, reductor.getReducedTable()), reducedInitial, reducedAccepting);
         dfa.setDescription(description);
         return dfa;
     }
 
     @Override
     protected int[] getPossibleTransitions(int state, int letter) {
-        return new int[]{transitions.get(state).get(letter)[0]};
+        return new int[]{transitions.getTarget(state, letter)};
     }
 
     @Override
     public Automaton copy() {
         String[] Q = Arrays.copyOf(this.Q, this.Q.length);
         String[] sigma = Arrays.copyOf(this.sigma, this.sigma.length);
-        HashMap<Integer, HashMap<Integer, Integer>> transitions = new HashMap<>();
-        for (int state = 0; state < this.Q.length; state++) {
-            HashMap<Integer, Integer> curr = new HashMap<>();
-            transitions.put(state, curr);
-            HashMap<Integer, int[]> currOrig = this.transitions.get(state);
-            for (int letter = 0; letter < this.sigma.length; letter++) {
-                int[] arr = currOrig.get(letter);
-                curr.put(letter, arr[0]);
-            }
-        }
         int[] accepting = Arrays.copyOf(this.acceptingStates, this.acceptingStates.length);
         int initial = this.initialStates[0];
-        DFAAutomaton dfaAutomaton = new DFAAutomaton(Q, sigma, transitions, initial, accepting);
+        //Transition table is immutable, so it can be shared
+        DFAAutomaton dfaAutomaton = new DFAAutomaton(Q, sigma, this.transitions, initial, accepting);
         dfaAutomaton.setDescription(description);
         return dfaAutomaton;
     }
@@ -244,6 +240,87 @@ public class DFAAutomaton extends Automaton {
         return false;
     }
 
+    /**
+     * @return Transitions indexed by state and class of letters
+     */
+    int[] getClassTable() {
+        if (classTable == null) {
+            classTable = getAlphabetIndex().getClassTable(transitions);
+        }
+        return classTable;
+    }
+
+    /**
+     * @return Distances from states to accepting states, that are used to reject words early
+     */
+    public AcceptDistances getAcceptDistances() {
+        if (acceptDistances == null) {
+            acceptDistances = new AcceptDistances(this);
+        }
+        return acceptDistances;
+    }
+
+    /**
+     * If the other automaton is DFA as well, the shortest distinguishing word is found by {@link DFAEquivalence}
+     * in nearly linear time, without reducing either automaton.
+     */
+    @Override
+    public String[] getDistinguishingWord(Automaton other) {
+        if (other instanceof DFAAutomaton) {
+            return DFAEquivalence.getDistinguishingWord(this, (DFAAutomaton) other);
+        }
+        return super.getDistinguishingWord(other);
+    }
+
+    /**
+     * DFA does not have to be reduced to match words encoded as symbol ids
+     */
+    @Override
+    protected DFAAutomaton getMatchingDFA() {
+        return this;
+    }
+
+    @Override
+    public boolean acceptsWord(int[] symbols) {
+        return getSymbolMatcher().accepts(symbols, 0, symbols.length);
+    }
+
+    @Override
+    public boolean acceptsWord(IntBuffer symbols) {
+        return getSymbolMatcher().accepts(symbols);
+    }
+
+    @Override
+    public boolean acceptsWord(String word) {
+        if (this.reduced == null) {
+            this.getReduced();
+        }
+        if (this.reduced != this) {
+            return this.reduced.acceptsWord(word);
+        }
+
+        AlphabetIndex index = getAlphabetIndex();
+        int[] table = getClassTable();
+        int[] bounds = getAcceptDistances().bounds;
+        int classCount = index.getClassCount();
+        int currentState = this.initialStates[0];
+        int remaining = word.length();
+        if (remaining < bounds[2 * currentState] || remaining > bounds[2 * currentState + 1]) return false;
+        for (int i = 0; i < word.length(); i++) {
+            int letterClass = index.getCharClass(word.charAt(i));
+            if (letterClass == -1) {
+                LOGGER.warning("Unknown letter passed: " + word.charAt(i));
+                return false;
+            }
+            currentState = table[currentState * classCount + letterClass];
+            if (currentState == -1) return false;
+            //No word of the remaining length is accepted from the current state
+            remaining--;
+            if (remaining < bounds[2 * currentState] || remaining > bounds[2 * currentState + 1]) return false;
+        }
+        return isAcceptingState(currentState);
+    }
+
     @Override
     public boolean acceptsWord(String[] word) {
         if (this.reduced == null) {
@@ -251,7 +328,10 @@ public class DFAAutomaton extends Automaton {
         }
 
         if (this.reduced == this) {
+            AcceptDistances distances = getAcceptDistances();
             int currentState = this.initialStates[0];
+            int remaining = word.length;
+            if (!distances.canAccept(currentState, remaining)) return false;
             for (String s : word) {
                 int index = this.getLetterIndex(s);
                 if (index == -1) {
@@ -259,7 +339,8 @@ public class DFAAutomaton extends Automaton {
                     //System.err.println("Unknown letter: " + s);
                     return false;
                 }
-                currentState = transitions.get(currentState).get(index)[0];
+                currentState = transitions.getTarget(currentState, index);
+                if (currentState == -1 || !distances.canAccept(currentState, --remaining)) return false;
             }
             for (int acceptingState : this.acceptingStates) {
                 if (acceptingState == currentState) return true;
@@ -0,0 +1,156 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+
+/**
+ * This class decides equivalence of two DFAs by the algorithm of Hopcroft and Karp, without reducing them.
+ * <p>
+ * States of both automata are elements of one union-find structure. Starting from the pair of initial states,
+ * every pair of states, that have to be equivalent, is merged, and pairs of their successors by every letter
+ * are queued. Pairs, whose states are already in the same class, are skipped, so at most |Q_a| + |Q_b| - 1 pairs
+ * are merged and the algorithm runs in nearly linear time. Automata are not equivalent, iff some merged pair has
+ * one accepting and one non-accepting state.
+ * </p>
+ * <p>
+ * Pairs are queued in BFS order and merged when they leave the queue, so all pairs reached by words of length k
+ * are merged before any pair reached by a longer word. The first pair with different acceptance is therefore
+ * reached by one of the shortest distinguishing words.
+ * </p>
+ * Missing transitions and letters, that are not in the alphabet of one of the automata, lead to a shared dead state.
+ */
+final class DFAEquivalence {
+    private final DFAAutomaton a, b;
+    /**
+     * Letters of both automata, lettersA[i] and lettersB[i] are indices of the letter in their sigmas, or -1
+     */
+    private final String[] letters;
+    private final int[] lettersA, lettersB;
+    /**
+     * States of a are 0 .. |Q_a| - 1, states of b follow and the last one is the dead state
+     */
+    private final int dead;
+    private final boolean[] accepting;
+    private final int[] parent, size;
+
+    //Queue of pairs, with the pair and letter, from which they were reached
+    private int[] first, second, from, letter;
+    private int tail = 0;
+
+    private DFAEquivalence(DFAAutomaton a, DFAAutomaton b) {
+        this.a = a;
+        this.b = b;
+        LinkedHashSet<String> union = new LinkedHashSet<>(Arrays.asList(a.sigma));
+        union.addAll(Arrays.asList(b.sigma));
+        this.letters = union.toArray(new String[0]);
+        this.lettersA = new int[letters.length];
+        this.lettersB = new int[letters.length];
+        HashMap<String, Integer> indicesB = new HashMap<>();
+        for (int i = 0; i < b.sigma.length; i++) {
+            indicesB.put(b.sigma[i], i);
+        }
+        for (int i = 0; i < letters.length; i++) {
+            lettersA[i] = i < a.sigma.length ? i : -1;
+            lettersB[i] = indicesB.getOrDefault(letters[i], -1);
+        }
+
+        this.dead = a.getQSize() + b.getQSize();
+        this.accepting = new boolean[dead + 1];
+        for (int state : a.acceptingStates) {
+            accepting[state] = true;
+        }
+        for (int state : b.acceptingStates) {
+            accepting[a.getQSize() + state] = true;
+        }
+        this.parent = new int[dead + 1];
+        this.size = new int[dead + 1];
+        for (int state = 0; state <= dead; state++) {
+            parent[state] = state;
+            size[state] = 1;
+        }
+        int capacity = 16;
+        this.first = new int[capacity];
+        this.second = new int[capacity];
+        this.from = new int[capacity];
+        this.letter = new int[capacity];
+    }
+
+    /**
+     * @return One of the shortest words accepted by exactly one of the automata, or null if they are equivalent
+     */
+    static String[] getDistinguishingWord(DFAAutomaton a, DFAAutomaton b) {
+        return new DFAEquivalence(a, b).search();
+    }
+
+    private String[] search() {
+        enqueue(a.initialStates[0], a.getQSize() + b.initialStates[0], -1, -1);
+        for (int head = 0; head < tail; head++) {
+            int p = find(first[head]), q = find(second[head]);
+            if (p == q) continue;
+            if (accepting[first[head]] != accepting[second[head]]) return getWord(head);
+            union(p, q);
+            for (int i = 0; i < letters.length; i++) {
+                enqueue(getTargetA(first[head], i), getTargetB(second[head], i), head, i);
+            }
+        }
+        return null;
+    }
+
+    private int getTargetA(int state, int i) {
+        if (state == dead || lettersA[i] == -1) return dead;
+        int target = a.transitions.getTarget(state, lettersA[i]);
+        return target == -1 ? dead : target;
+    }
+
+    private int getTargetB(int state, int i) {
+        if (state == dead || lettersB[i] == -1) return dead;
+        int target = b.transitions.getTarget(state - a.getQSize(), lettersB[i]);
+        return target == -1 ? dead : a.getQSize() + target;
+    }
+
+    private void enqueue(int p, int q, int fromPair, int viaLetter) {
+        if (tail == first.length) {
+            int capacity = tail * 2;
+            first = Arrays.copyOf(first, capacity);
+            second = Arrays.copyOf(second, capacity);
+            from = Arrays.copyOf(from, capacity);
+            letter = Arrays.copyOf(letter, capacity);
+        }
+        first[tail] = p;
+        second[tail] = q;
+        from[tail] = fromPair;
+        letter[tail] = viaLetter;
+        tail++;
+    }
+
+    private int find(int state) {
+        while (parent[state] != state) {
+            parent[state] = parent[parent[state]];
+            state = parent[state];
+        }
+        return state;
+    }
+
+    private void union(int p, int q) {
+        if (size[p] < size[q]) {
+            int tmp = p;
+            p = q;
+            q = tmp;
+        }
+        parent[q] = p;
+        size[p] += size[q];
+    }
+
+    private String[] getWord(int pair) {
+        int length = 0;
+        for (int current = pair; from[current] != -1; current = from[current]) {
+            length++;
+        }
+        String[] word = new String[length];
+        for (int current = pair; from[current] != -1; current = from[current]) {
+            word[--length] = letters[letter[current]];
+        }
+        return word;
+    }
+}
@@ -70,7 +70,7 @@ public class ENFAAutomaton extends Automaton {
     public NFAAutomaton getNFA() {
         if (hasEpsilonTransitions()) {
             ENFAReducer reducer = new ENFAReducer(Q, sigma, transitions, initialStates, acceptingStates, 0);
-            NFAAutomaton nfaAutomaton = new NFAAutomaton(reducer.getQ(), reducer.getSigma(), reducer.getTransitions(), new int[]{reducer.getInitial()}, reducer.getAccepting());
+            NFAAutomaton nfaAutomaton = new NFAAutomaton(reducer.getQ(), reducer.getSigma(), reducer.getTable(), new int[]{reducer.getInitial()}, reducer.getAccepting());
             nfaAutomaton.setDescription(description);
             return nfaAutomaton;
         }
@@ -88,12 +88,18 @@ public class ENFAAutomaton extends Automaton {
      * This constructor is used for initialization by indices in Q and Sigma
      */
     public ENFAAutomaton(String[] q, String[] sigma, HashMap<Integer, HashMap<Integer, int[]>> transitions, int[] initialStates, int[] acceptingStates) {
+        this(q, sigma, TransitionTable.fromHashMap(q.length, sigma.length, transitions), initialStates, acceptingStates);
+    }
+
+    /**
+     * This constructor is used for initialization from already built transition table
+     */
+    public ENFAAutomaton(String[] q, String[] sigma, TransitionTable transitions, int[] initialStates, int[] acceptingStates) {
         this.Q = Arrays.copyOf(q, q.length);
         this.sigma = Arrays.copyOf(sigma, sigma.length);
         this.initialStates = Arrays.copyOf(initialStates, initialStates.length);
         this.acceptingStates = Arrays.copyOf(acceptingStates, acceptingStates.length);
-        this.transitions = Utilities.getCopyOfHashMap(transitions);
-        refactorTransitions();
+        this.transitions = transitions;
     }
 
     /**
@@ -154,11 +160,11 @@ public class ENFAAutomaton extends Automaton {
             }
             System.out.print("\n");
             int i = 0;
-            this.transitions = new HashMap<>();
+            HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
             outer:
             while (i < this.Q.length) {
                 HashMap<Integer, int[]> curr = new HashMap<>();
-                this.transitions.put(i, curr);
+                transitions.put(i, curr);
 
                 System.out.print(this.Q[i] + " \t");
                 line = br.readLine();
@@ -197,6 +203,7 @@ public class ENFAAutomaton extends Automaton {
                 }
                 i++;
             }
+            this.transitions = TransitionTable.fromHashMap(this.Q.length, this.sigma.length, transitions);
 
             //GET INITIAL STATES
             System.out.println("Specify initial states on one line separated by spaces: ");
@@ -262,21 +269,17 @@ public class ENFAAutomaton extends Automaton {
             return;
         }
 
-        HashMap<Integer, HashMap<Integer, int[]>> newTransitions = new HashMap<>(this.transitions.size());
-        HashMap<Integer, int[]> current;
+        TransitionTable.Builder builder = new TransitionTable.Builder(this.Q.length, this.sigma.length);
 
         for (int state = 0; state < this.Q.length; state++) {
-            current = new HashMap<>();
-            newTransitions.put(state, current);
-            current.put(0, this.transitions.get(state).get(epsilon));
-            int currentLetter = 1;
+            builder.addAll(this.transitions.getTargets(state, epsilon)).nextCell();
             for (int letter = 0; letter < this.sigma.length; letter++) {
                 if (letter == epsilon) continue;
-                current.put(currentLetter++, this.transitions.get(state).get(letter));
+                builder.addAll(this.transitions.getTargets(state, letter)).nextCell();
             }
         }
 
-        this.transitions = newTransitions;
+        this.transitions = builder.build();
 
         String[] newSigma = new String[this.sigma.length];
         newSigma[0] = this.sigma[epsilon];
@@ -298,8 +301,9 @@ public class ENFAAutomaton extends Automaton {
             return nfa.getReduced();
         }
 
-        ENFAReducer reducer = new ENFAReducer(this.Q, this.sigma, this.transitions, this.initialStates, this.acceptingStates, 0);
-        NFAAutomaton nfa = new NFAAutomaton(reducer.getQ(), reducer.getSigma(), reducer.getTransitions(), new int[]{reducer.getInitial()}, reducer.getAccepting());
+        //Names of subsets are lost in minimization, so useless states can be trimmed first
+        ENFAReducer reducer = new ENFAReducer(this.Q, this.sigma, this.transitions, this.initialStates, this.acceptingStates, 0, true);
+        NFAAutomaton nfa = new NFAAutomaton(reducer.getQ(), reducer.getSigma(), reducer.getTable(), new int[]{reducer.getInitial()}, reducer.getAccepting());
         nfa.setDescription(description);
         return nfa.getReduced();
     }
@@ -309,9 +313,9 @@ public class ENFAAutomaton extends Automaton {
         int[] closure = getEpsilonClosure(state);
         Set<Integer> returning = new HashSet<>();
         for (int i : closure) {
-            int[] curr = this.transitions.get(i).get(letter);
-            for (int i1 : curr) {
-                returning.add(i1);
+            int end = this.transitions.getEnd(i, letter);
+            for (int i1 = this.transitions.getStart(i, letter); i1 < end; i1++) {
+                returning.add(this.transitions.getTargetAt(i1));
             }
         }
 
@@ -0,0 +1,182 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+
+/**
+ * This class decides inclusion of languages of two automata by the antichain algorithm, without determinization.
+ * <p>
+ * Word w is in L(a) and not in L(b), iff a state p of a reached by w is accepting and the set S of states of b
+ * reached by w contains no accepting state. Pairs (p, S) are explored by BFS from the initial pairs, where S is
+ * simulated by {@link BitParallelSimulator} of b. Pair (p, S) does not have to be explored, if a pair (p, S') with
+ * S' &sube; S has been explored already, because every counterexample from (p, S) is a counterexample from (p, S') too.
+ * So only pairs with minimal sets, the antichain, are kept, and usually only a small part of the subset construction
+ * of b is ever built. States of a, from which no accepting state is reachable, are never explored.
+ * </p>
+ * <p>
+ * Search stops at the first counterexample. Pairs are explored by BFS, so it is short, but it does not have to be
+ * the shortest one, because pairs replaced in the antichain by pairs found later are not explored.
+ * Letters of a, that are not in the alphabet of b, lead to the empty set of b.
+ * </p>
+ */
+final class LanguageInclusion {
+    private final Automaton a;
+    private final BitParallelSimulator simulatorA, simulatorB;
+    private final boolean[] live, accepting;
+    /**
+     * letters[i] is the index of the letter firstLetter + i of a in sigma of b, or -1
+     */
+    private final int[] letters;
+    private final int firstLetter;
+    /**
+     * Sets of b, that were explored with the state of a, none of them is a subset of another
+     */
+    private final HashMap<Integer, ArrayList<Pair>> antichains = new HashMap<>();
+
+    private LanguageInclusion(Automaton a, Automaton b) {
+        this.a = a;
+        this.simulatorA = a.getSimulator();
+        this.simulatorB = b.getSimulator();
+        this.live = Trimmer.getCoReachable(a.transitions, a.acceptingStates);
+        this.accepting = new boolean[a.getQSize()];
+        for (int state : a.acceptingStates) {
+            accepting[state] = true;
+        }
+        this.firstLetter = a.hasEpsilonTransitions() ? 1 : 0;
+        int firstLetterB = b.hasEpsilonTransitions() ? 1 : 0;
+        this.letters = new int[a.getSigmaSize() - firstLetter];
+        for (int i = 0; i < letters.length; i++) {
+            int letter = b.getLetterIndex(a.sigma[firstLetter + i]);
+            letters[i] = letter < firstLetterB ? -1 : letter;
+        }
+    }
+
+    /**
+     * @return Word accepted by a and not by b, or null if L(a) is a subset of L(b)
+     */
+    static String[] getCounterexample(Automaton a, Automaton b) {
+        return new LanguageInclusion(a, b).search();
+    }
+
+    private String[] search() {
+        ArrayDeque<Pair> queue = new ArrayDeque<>();
+        long[] initialB = simulatorB.getInitial();
+        long[] initialA = simulatorA.getInitial();
+        for (int state : states(initialA)) {
+            Pair pair = add(state, initialB, null, -1);
+            if (pair == null) continue;
+            if (isCounterexample(pair)) return getWord(pair);
+            queue.add(pair);
+        }
+
+        long[] single = new long[simulatorA.getWords()];
+        long[] targets = new long[simulatorA.getWords()];
+        while (!queue.isEmpty()) {
+            Pair current = queue.poll();
+            if (current.removed) continue;
+            single[current.state >>> 6] |= 1L << current.state;
+            for (int i = 0; i < letters.length; i++) {
+                if (!simulatorA.step(single, firstLetter + i, targets)) continue;
+                long[] set = new long[simulatorB.getWords()];
+                if (letters[i] != -1) simulatorB.step(current.set, letters[i], set);
+                for (int state : states(targets)) {
+                    Pair pair = add(state, set, current, firstLetter + i);
+                    if (pair == null) continue;
+                    if (isCounterexample(pair)) return getWord(pair);
+                    queue.add(pair);
+                }
+            }
+            single[current.state >>> 6] = 0;
+        }
+        return null;
+    }
+
+    /**
+     * @return Live states of a in the set
+     */
+    private int[] states(long[] set) {
+        int[] result = new int[a.getQSize()];
+        int count = 0;
+        for (int w = 0; w < set.length; w++) {
+            long word = set[w];
+            while (word != 0) {
+                int state = (w << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+                if (live[state]) result[count++] = state;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private boolean isCounterexample(Pair pair) {
+        return accepting[pair.state] && !simulatorB.isAccepting(pair.set);
+    }
+
+    /**
+     * Adds the pair to the antichain of its state and removes pairs, that it subsumes.
+     *
+     * @return New pair, or null if it is subsumed by an explored pair
+     */
+    private Pair add(int state, long[] set, Pair parent, int letter) {
+        ArrayList<Pair> antichain = antichains.computeIfAbsent(state, k -> new ArrayList<>());
+        for (Pair explored : antichain) {
+            if (isSubset(explored.set, set)) return null;
+        }
+        Iterator<Pair> iterator = antichain.iterator();
+        while (iterator.hasNext()) {
+            Pair explored = iterator.next();
+            if (isSubset(set, explored.set)) {
+                explored.removed = true;
+                iterator.remove();
+            }
+        }
+        Pair pair = new Pair(state, set, parent, letter);
+        antichain.add(pair);
+        return pair;
+    }
+
+    private static boolean isSubset(long[] subset, long[] set) {
+        for (int w = 0; w < set.length; w++) {
+            if ((subset[w] & ~set[w]) != 0) return false;
+        }
+        return true;
+    }
+
+    private String[] getWord(Pair pair) {
+        ArrayList<String> word = new ArrayList<>();
+        for (Pair current = pair; current.parent != null; current = current.parent) {
+            word.add(a.sigma[current.letter]);
+        }
+        String[] result = new String[word.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = word.get(result.length - 1 - i);
+        }
+        return result;
+    }
+
+    private static final class Pair {
+        private final int state;
+        private final long[] set;
+        /**
+         * Pair, from which this pair was reached by the letter, or null for initial pairs
+         */
+        private final Pair parent;
+        private final int letter;
+        /**
+         * Pair was replaced in the antichain by a pair with a smaller set, so it does not have to be explored
+         */
+        private boolean removed;
+
+        private Pair(int state, long[] set, Pair parent, int letter) {
+            this.state = state;
+            this.set = set;
+            this.parent = parent;
+            this.letter = letter;
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.logging.Logger;
+
+/**
+ * This class determinizes NFA and ENFA automata lazily, while words are being accepted.
+ * <p>
+ * DFA states are sets of states of the original automaton, closed under epsilon transitions. A DFA state and its
+ * transitions are computed by {@link BitParallelSimulator} only when a word first reaches them, so only the subsets
+ * actually visited by the input are ever constructed. Subsets without any state, from which an accepting state
+ * is reachable, are not constructed either, words reaching them are rejected immediately.
+ * </p>
+ * <p>
+ * Number of cached DFA states is bounded. When the cache is full, it is flushed and determinization starts again from
+ * the current subset. If the cache keeps being flushed before it could be reused, it is thrashing and all further words
+ * are accepted by the bit-parallel simulation directly.
+ * </p>
+ * <p>
+ * This class is not thread safe.
+ * </p>
+ */
+public final class LazyDFA {
+    private static final Logger LOGGER = Logger.getLogger(LazyDFA.class.getName());
+    public static final int DEFAULT_MAX_STATES = 10000;
+    /**
+     * Transition that has not been computed yet
+     */
+    private static final int UNKNOWN = -1;
+    /**
+     * Transition to a subset, from which no word is accepted
+     */
+    private static final int DEAD = -2;
+    /**
+     * Flush is considered bad, if there were fewer than this many steps per cached state since the last flush
+     */
+    private static final int MIN_STEPS_PER_STATE = 10;
+    /**
+     * Number of consecutive bad flushes, after which the cache is considered to be thrashing
+     */
+    private static final int MAX_BAD_FLUSHES = 3;
+
+    private final Automaton automaton;
+    private final BitParallelSimulator simulator;
+    private final int sigmaSize, firstLetter, maxStates;
+
+    private final HashMap<StateSet, Integer> stateIndices;
+    private long[][] sets;
+    private boolean[] accepting;
+    /**
+     * Transitions of cached states, where transitions[state * sigmaSize + letter] is the target state,
+     * {@link #UNKNOWN} or {@link #DEAD}
+     */
+    private int[] transitions;
+    private final long[] buffer;
+    private int stateCount = 0;
+    private int initialState = UNKNOWN;
+
+    private long stepsSinceFlush = 0;
+    private int flushCount = 0, badFlushes = 0;
+    private boolean thrashing = false;
+
+    public LazyDFA(Automaton automaton) {
+        this(automaton, DEFAULT_MAX_STATES);
+    }
+
+    /**
+     * @param maxStates Maximal number of cached DFA states, at least 2
+     */
+    public LazyDFA(Automaton automaton, int maxStates) {
+        if (maxStates < 2) {
+            throw new IllegalArgumentException("Lazy DFA has to be able to cache at least 2 states, got: " + maxStates);
+        }
+        this.automaton = automaton;
+        this.simulator = automaton.getSimulator();
+        this.sigmaSize = automaton.getSigmaSize();
+        this.firstLetter = automaton.hasEpsilonTransitions() ? 1 : 0;
+        this.maxStates = maxStates;
+        this.stateIndices = new HashMap<>();
+        int capacity = Math.min(maxStates, 64);
+        this.sets = new long[capacity][];
+        this.accepting = new boolean[capacity];
+        this.transitions = new int[capacity * sigmaSize];
+        this.buffer = new long[simulator.getWords()];
+    }
+
+    /**
+     * @return Number of DFA states currently in the cache
+     */
+    public int getCachedStateCount() {
+        return stateCount;
+    }
+
+    /**
+     * @return Number of times the cache was flushed because it was full
+     */
+    public int getFlushCount() {
+        return flushCount;
+    }
+
+    /**
+     * @return true if the cache was thrashing and words are now accepted by bit-parallel simulation
+     */
+    public boolean isThrashing() {
+        return thrashing;
+    }
+
+    /**
+     * @param word Array of letters from sigma
+     * @return Whether the automaton accepts the word. Returns false if the word contains epsilon or unknown letter.
+     */
+    public boolean accepts(String[] word) {
+        int[] letters = new int[word.length];
+        for (int i = 0; i < word.length; i++) {
+            letters[i] = automaton.getLetterIndex(word[i]);
+            if (letters[i] < firstLetter) {
+                LOGGER.info("Unknown letter passed: " + word[i]);
+                return false;
+            }
+        }
+        return accepts(letters);
+    }
+
+    /**
+     * @param word Array of letter indices in the automaton sigma
+     * @return Whether the automaton accepts the word. Returns false if the word contains epsilon or unknown letter.
+     */
+    public boolean accepts(int[] word) {
+        return accepts(word, 0, word.length);
+    }
+
+    /**
+     * @param word Array of letter indices in the automaton sigma
+     * @param from Index of the first letter of the word in the array
+     * @param to   Index after the last letter of the word in the array
+     * @return Whether the automaton accepts the word. Returns false if the word contains epsilon or unknown letter.
+     */
+    public boolean accepts(int[] word, int from, int to) {
+        if (initialState == UNKNOWN && !thrashing) {
+            initialState = addState(simulator.getInitial());
+        }
+        if (thrashing) return simulate(simulator.getInitial(), word, from, to);
+
+        int current = initialState;
+        for (int i = from; i < to; i++) {
+            int letter = word[i];
+            if (letter < firstLetter || letter >= sigmaSize) {
+                LOGGER.info("Invalid letter index passed: " + letter);
+                return false;
+            }
+            stepsSinceFlush++;
+            int next = transitions[current * sigmaSize + letter];
+            if (next == UNKNOWN) {
+                next = computeTransition(current, letter);
+                if (thrashing) {
+                    return next != DEAD && simulate(Arrays.copyOf(buffer, buffer.length), word, i + 1, to);
+                }
+            }
+            if (next == DEAD) return false;
+            current = next;
+        }
+        return accepting[current];
+    }
+
+    /**
+     * Finishes the word from specified index by bit-parallel simulation
+     */
+    private boolean simulate(long[] current, int[] word, int from, int to) {
+        long[] next = new long[current.length];
+        for (int i = from; i < to; i++) {
+            if (word[i] < firstLetter || word[i] >= sigmaSize) {
+                LOGGER.info("Invalid letter index passed: " + word[i]);
+                return false;
+            }
+            if (!simulator.step(current, word[i], next)) return false;
+            long[] tmp = current;
+            current = next;
+            next = tmp;
+        }
+        return simulator.isAccepting(current);
+    }
+
+    /**
+     * Computes target of the transition into buffer and caches it.
+     * If the cache has to be flushed, transition is not cached, only its target state.
+     *
+     * @return Index of the target state or {@link #DEAD}
+     */
+    private int computeTransition(int state, int letter) {
+        if (!simulator.step(sets[state], letter, buffer) || !simulator.isLive(buffer)) {
+            transitions[state * sigmaSize + letter] = DEAD;
+            return DEAD;
+        }
+        Integer target = stateIndices.get(new StateSet(buffer));
+        if (target != null) {
+            transitions[state * sigmaSize + letter] = target;
+            return target;
+        }
+        if (stateCount == maxStates) {
+            flush();
+            if (thrashing) return UNKNOWN;
+            return addState(Arrays.copyOf(buffer, buffer.length));
+        }
+        int index = addState(Arrays.copyOf(buffer, buffer.length));
+        transitions[state * sigmaSize + letter] = index;
+        return index;
+    }
+
+    private int addState(long[] set) {
+        if (stateCount == sets.length) {
+            int capacity = Math.min(maxStates, sets.length * 2);
+            sets = Arrays.copyOf(sets, capacity);
+            accepting = Arrays.copyOf(accepting, capacity);
+            transitions = Arrays.copyOf(transitions, capacity * sigmaSize);
+        }
+        int index = stateCount++;
+        sets[index] = set;
+        accepting[index] = simulator.isAccepting(set);
+        Arrays.fill(transitions, index * sigmaSize, (index + 1) * sigmaSize, UNKNOWN);
+        stateIndices.put(new StateSet(set), index);
+        return index;
+    }
+
+    private void flush() {
+        flushCount++;
+        if (stepsSinceFlush < (long) MIN_STEPS_PER_STATE * maxStates) {
+            badFlushes++;
+        } else {
+            badFlushes = 0;
+        }
+        stepsSinceFlush = 0;
+        stateIndices.clear();
+        Arrays.fill(sets, 0, stateCount, null);
+        stateCount = 0;
+        initialState = UNKNOWN;
+        if (badFlushes >= MAX_BAD_FLUSHES) {
+            LOGGER.info("Lazy DFA cache of " + maxStates + " states is thrashing, falling back to bit-parallel simulation");
+            thrashing = true;
+        } else {
+            LOGGER.fine(() -> "Lazy DFA cache flushed, flush count: " + flushCount);
+        }
+    }
+
+    /**
+     * Key of a subset in the cache
+     */
+    private static final class StateSet {
+        private final long[] set;
+        private final int hash;
+
+        StateSet(long[] set) {
+            this.set = set;
+            this.hash = Arrays.hashCode(set);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof StateSet && Arrays.equals(set, ((StateSet) obj).set);
+        }
+    }
+}
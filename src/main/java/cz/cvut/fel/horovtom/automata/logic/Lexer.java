@@ -0,0 +1,155 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.converters.JavaSourceWriter;
+
+import java.util.List;
+
+/**
+ * Longest-match lexer over a list of token automata. Every character of the input is one letter,
+ * as in {@link Automaton#acceptsWord(String)}.
+ * <p>
+ * Token automata are combined by {@link MultiPatternMatcher} into one labeled DFA, so the input is scanned once
+ * instead of once per token. Every token is the longest prefix of the rest of the input, that is accepted by some token
+ * automaton. Scanner remembers the last accepting position and backtracks to it, when the DFA reaches a state,
+ * from which no token can be accepted. Such states are -1 in the table, so input is not read past the point,
+ * where no token can match anymore.
+ * If more automata accept the longest prefix, the one with lower index wins. Empty tokens are never reported.
+ * </p>
+ * <p>
+ * Tokens are reported by {@link TokenHandler} and nothing is allocated while scanning. Lexer can also be exported as
+ * a standalone Java class, see {@link #toJavaSource(String, String)}. Instances are immutable and thread safe.
+ * </p>
+ */
+public final class Lexer {
+    /**
+     * Receives tokens in the order of their positions
+     */
+    public interface TokenHandler {
+        /**
+         * @param type  Index of the token automaton
+         * @param start Index of the first character of the token
+         * @param end   Index after the last character of the token
+         */
+        void token(int type, int start, int end);
+    }
+
+    private final int tokenCount;
+    private final AlphabetIndex index;
+    private final int[] table;
+    private final int classCount;
+    /**
+     * types[state] is the token with the highest priority accepted in the state, or -1
+     */
+    private final int[] types;
+
+    /**
+     * @param tokens Token automata ordered by priority, type of the token is its index in the list
+     */
+    public Lexer(List<? extends Automaton> tokens) {
+        this.tokenCount = tokens.size();
+        MultiPatternMatcher matcher = new MultiPatternMatcher(tokens);
+        this.index = matcher.getIndex();
+        this.table = matcher.getTable();
+        this.classCount = index.getClassCount();
+        int QSize = matcher.getAutomaton().getQSize();
+        this.types = new int[QSize];
+        for (int state = 0; state < QSize; state++) {
+            int[] patterns = matcher.getPatterns(state);
+            types[state] = patterns.length == 0 ? -1 : patterns[0];
+        }
+    }
+
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * Splits the input to tokens, until its end or until no token matches.
+     *
+     * @return Index after the last token. It is the length of the input, iff the whole input was split to tokens.
+     */
+    public int scan(CharSequence input, TokenHandler handler) {
+        int position = 0, length = input.length();
+        while (position < length) {
+            int state = 0, type = -1, end = -1;
+            for (int i = position; i < length; i++) {
+                int letterClass = index.getCharClass(input.charAt(i));
+                if (letterClass == -1) break;
+                state = table[state * classCount + letterClass];
+                if (state == -1) break;
+                if (types[state] != -1) {
+                    type = types[state];
+                    end = i + 1;
+                }
+            }
+            if (end == -1) return position;
+            handler.token(type, position, end);
+            position = end;
+        }
+        return position;
+    }
+
+    /**
+     * Generates source of a class, that does not depend on this library. It has the same method
+     * <code>public static int scan(CharSequence input, TokenHandler handler)</code> and its own interface TokenHandler.
+     *
+     * @param packageName Package of the class, or empty string for the default package
+     * @param className   Simple name of the class
+     */
+    public String toJavaSource(String packageName, String className) {
+        if (!JavaSourceWriter.isIdentifier(className)) throw new IllegalArgumentException("Invalid class name: " + className);
+        int maxChar = -1;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (index.getCharClass((char) c) != -1) maxChar = c;
+        }
+        int[] charClasses = new int[maxChar + 1];
+        for (int c = 0; c <= maxChar; c++) {
+            charClasses[c] = index.getCharClass((char) c);
+        }
+
+        StringBuilder sb = new StringBuilder();
+        JavaSourceWriter.appendPackage(sb, packageName);
+        sb.append("/**\n");
+        sb.append(" * Longest-match scanner of ").append(tokenCount).append(" token types, generated by JAutomata.\n");
+        sb.append(" */\n");
+        sb.append("public final class ").append(className).append(" {\n");
+        sb.append("    public interface TokenHandler {\n");
+        sb.append("        void token(int type, int start, int end);\n");
+        sb.append("    }\n\n");
+        sb.append("    public static final int TOKEN_COUNT = ").append(tokenCount).append(";\n");
+        sb.append("    private static final int CLASS_COUNT = ").append(classCount).append(";\n");
+        JavaSourceWriter.appendTable(sb, "CHAR_CLASSES", charClasses);
+        JavaSourceWriter.appendTable(sb, "TABLE", table);
+        JavaSourceWriter.appendTable(sb, "TYPES", types);
+        sb.append("\n");
+        sb.append("    private ").append(className).append("() {\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * @return Index after the last token. It is the length of the input, iff the whole input was split to tokens.\n");
+        sb.append("     */\n");
+        sb.append("    public static int scan(CharSequence input, TokenHandler handler) {\n");
+        sb.append("        int position = 0, length = input.length();\n");
+        sb.append("        while (position < length) {\n");
+        sb.append("            int state = 0, type = -1, end = -1;\n");
+        sb.append("            for (int i = position; i < length; i++) {\n");
+        sb.append("                char c = input.charAt(i);\n");
+        sb.append("                int letterClass = c < CHAR_CLASSES.length ? CHAR_CLASSES[c] : -1;\n");
+        sb.append("                if (letterClass == -1) break;\n");
+        sb.append("                state = TABLE[state * CLASS_COUNT + letterClass];\n");
+        sb.append("                if (state == -1) break;\n");
+        sb.append("                if (TYPES[state] != -1) {\n");
+        sb.append("                    type = TYPES[state];\n");
+        sb.append("                    end = i + 1;\n");
+        sb.append("                }\n");
+        sb.append("            }\n");
+        sb.append("            if (end == -1) return position;\n");
+        sb.append("            handler.token(type, position, end);\n");
+        sb.append("            position = end;\n");
+        sb.append("        }\n");
+        sb.append("        return position;\n");
+        sb.append("    }\n\n");
+        JavaSourceWriter.appendDecoder(sb);
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
@@ -0,0 +1,274 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.logging.Logger;
+
+/**
+ * Read-only DFA, that runs directly on a memory-mapped file.
+ * <p>
+ * Nothing but the alphabet is deserialized when the file is opened, so opening takes constant time regardless of
+ * the size of the automaton, and processes mapping the same file share its pages in the page cache.
+ * Instances are safe to use from multiple threads.
+ * </p>
+ * <p>
+ * The file has fixed layout of big-endian ints:
+ * <pre>
+ * header         magic "JDFA", version, |Q|, |&Sigma;|, initial state, size of alphabet table in bytes
+ * alphabet       for every letter: length in bytes and UTF-8 bytes, padded to whole ints
+ * accepting      bitmap of |Q| bits, stored in ceil(|Q| / 32) ints
+ * transitions    |Q| x |&Sigma;| matrix of target states, row by row, -1 for missing transition
+ * </pre>
+ * Transition matrix is mapped in segments, so it can be larger than 2 GB.
+ * </p>
+ */
+public final class MappedDFA {
+    private static final Logger LOGGER = Logger.getLogger(MappedDFA.class.getName());
+    private static final int MAGIC = ('J' << 24) | ('D' << 16) | ('F' << 8) | 'A';
+    public static final int VERSION = 1;
+    private static final int HEADER_INTS = 6;
+    /**
+     * Transitions are mapped in segments of 2^SEGMENT_BITS ints
+     */
+    private static final int SEGMENT_BITS = 28;
+    private static final long SEGMENT_MASK = (1L << SEGMENT_BITS) - 1;
+
+    private final int QSize, sigmaSize, initial;
+    private final String[] sigma;
+    private final HashMap<String, Integer> letterIndices;
+    /**
+     * charLetters[c] is index of single-character letter c, or -1
+     */
+    private final int[] charLetters;
+    private final IntBuffer accepting;
+    private final IntBuffer[] segments;
+
+    private MappedDFA(int QSize, String[] sigma, int initial, IntBuffer accepting, IntBuffer[] segments) {
+        this.QSize = QSize;
+        this.sigmaSize = sigma.length;
+        this.sigma = sigma;
+        this.initial = initial;
+        this.accepting = accepting;
+        this.segments = segments;
+        this.letterIndices = new HashMap<>();
+        int maxChar = -1;
+        for (int i = 0; i < sigma.length; i++) {
+            letterIndices.put(sigma[i], i);
+            if (sigma[i].length() == 1) maxChar = Math.max(maxChar, sigma[i].charAt(0));
+        }
+        this.charLetters = new int[maxChar + 1];
+        Arrays.fill(charLetters, -1);
+        for (int i = 0; i < sigma.length; i++) {
+            if (sigma[i].length() == 1) charLetters[sigma[i].charAt(0)] = i;
+        }
+    }
+
+    //region FILE
+
+    /**
+     * Writes the DFA to the file in the format, that can be opened by {@link #open(File)}.
+     * Pass reduced automaton, if the mapped one should be minimal.
+     */
+    public static void write(DFAAutomaton dfa, File file) throws IOException {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16))) {
+            int QSize = dfa.Q.length, sigmaSize = dfa.sigma.length;
+            byte[][] letters = new byte[sigmaSize][];
+            int alphabetBytes = 0;
+            for (int i = 0; i < sigmaSize; i++) {
+                letters[i] = dfa.sigma[i].getBytes(StandardCharsets.UTF_8);
+                alphabetBytes += 4 + padded(letters[i].length);
+            }
+
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(QSize);
+            out.writeInt(sigmaSize);
+            out.writeInt(dfa.initialStates[0]);
+            out.writeInt(alphabetBytes);
+            for (byte[] letter : letters) {
+                out.writeInt(letter.length);
+                out.write(letter);
+                out.write(new byte[padded(letter.length) - letter.length]);
+            }
+
+            int[] bitmap = new int[(QSize + 31) / 32];
+            for (int state : dfa.acceptingStates) {
+                bitmap[state >> 5] |= 1 << (state & 31);
+            }
+            for (int word : bitmap) {
+                out.writeInt(word);
+            }
+
+            TransitionTable table = dfa.transitions;
+            for (int state = 0; state < QSize; state++) {
+                for (int letter = 0; letter < sigmaSize; letter++) {
+                    out.writeInt(table.getTarget(state, letter));
+                }
+            }
+        }
+    }
+
+    /**
+     * Maps the file written by {@link #write(DFAAutomaton, File)}. File is mapped read-only and it must not be modified
+     * while the returned automaton is in use. Mapping is released, when the returned object is garbage collected.
+     *
+     * @throws IOException If the file is not a mapped DFA, it has unsupported version or it is truncated
+     */
+    public static MappedDFA open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            if (size < HEADER_INTS * 4) throw new IOException("File is too short to be a mapped DFA");
+            ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, HEADER_INTS * 4);
+            if (header.getInt(0) != MAGIC) throw new IOException("Not a mapped DFA file");
+            int version = header.getInt(4);
+            if (version != VERSION) {
+                throw new IOException("Unsupported mapped DFA version " + version + ", expected " + VERSION);
+            }
+            int QSize = header.getInt(8), sigmaSize = header.getInt(12), initial = header.getInt(16);
+            int alphabetBytes = header.getInt(20);
+            long acceptingOffset = HEADER_INTS * 4L + alphabetBytes;
+            long acceptingInts = (QSize + 31L) / 32;
+            long transitionsOffset = acceptingOffset + acceptingInts * 4;
+            long cells = (long) QSize * sigmaSize;
+            if (QSize < 0 || sigmaSize < 0 || alphabetBytes < 0 || initial < 0 || initial >= QSize
+                    || size < transitionsOffset + cells * 4) {
+                throw new IOException("Mapped DFA file is truncated or corrupted");
+            }
+
+            ByteBuffer alphabet = channel.map(FileChannel.MapMode.READ_ONLY, HEADER_INTS * 4, alphabetBytes);
+            String[] sigma = new String[sigmaSize];
+            for (int i = 0; i < sigmaSize; i++) {
+                byte[] bytes = new byte[alphabet.getInt()];
+                alphabet.get(bytes);
+                alphabet.position(alphabet.position() + padded(bytes.length) - bytes.length);
+                sigma[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            IntBuffer accepting = channel.map(FileChannel.MapMode.READ_ONLY, acceptingOffset, acceptingInts * 4).asIntBuffer();
+            ArrayList<IntBuffer> segments = new ArrayList<>();
+            for (long start = 0; start < cells; start += SEGMENT_MASK + 1) {
+                long length = Math.min(SEGMENT_MASK + 1, cells - start);
+                MappedByteBuffer segment = channel.map(FileChannel.MapMode.READ_ONLY, transitionsOffset + start * 4, length * 4);
+                segments.add(segment.asIntBuffer());
+            }
+            LOGGER.fine(() -> "Mapped DFA with " + QSize + " states and " + sigmaSize + " letters from " + file);
+            return new MappedDFA(QSize, sigma, initial, accepting, segments.toArray(new IntBuffer[0]));
+        }
+    }
+
+    private static int padded(int bytes) {
+        return (bytes + 3) & ~3;
+    }
+
+    //endregion
+
+    //region ACCESS
+
+    public int getQSize() {
+        return QSize;
+    }
+
+    public int getSigmaSize() {
+        return sigmaSize;
+    }
+
+    /**
+     * @return byval copy of letter names
+     */
+    public String[] getSigma() {
+        return Arrays.copyOf(sigma, sigma.length);
+    }
+
+    public int getInitialState() {
+        return initial;
+    }
+
+    public boolean isAcceptingState(int state) {
+        return (accepting.get(state >> 5) & (1 << (state & 31))) != 0;
+    }
+
+    /**
+     * @return Target state, or -1 if there is no transition
+     */
+    public int getTarget(int state, int letter) {
+        long cell = (long) state * sigmaSize + letter;
+        return segments[(int) (cell >>> SEGMENT_BITS)].get((int) (cell & SEGMENT_MASK));
+    }
+
+    /**
+     * @return Index of the letter, or -1 if it is not in sigma
+     */
+    public int getLetterIndex(String letter) {
+        Integer index = letterIndices.get(letter);
+        return index == null ? -1 : index;
+    }
+
+    //endregion
+
+    //region ACCEPTING
+
+    /**
+     * @param word Array of letter indices
+     */
+    public boolean acceptsWord(int[] word) {
+        int state = initial;
+        for (int letter : word) {
+            if (letter < 0 || letter >= sigmaSize) return false;
+            state = getTarget(state, letter);
+            if (state == -1) return false;
+        }
+        return isAcceptingState(state);
+    }
+
+    /**
+     * @param word Array of letters from sigma
+     */
+    public boolean acceptsWord(String[] word) {
+        int state = initial;
+        for (String s : word) {
+            int letter = getLetterIndex(s);
+            if (letter == -1) {
+                LOGGER.warning("Unknown letter passed: " + s);
+                return false;
+            }
+            state = getTarget(state, letter);
+            if (state == -1) return false;
+        }
+        return isAcceptingState(state);
+    }
+
+    /**
+     * Every character of the string is one letter, see {@link Automaton#acceptsWord(String)}.
+     * No array of letters is created.
+     */
+    public boolean acceptsWord(String word) {
+        int state = initial;
+        for (int i = 0; i < word.length(); i++) {
+            char c = word.charAt(i);
+            int letter = c < charLetters.length ? charLetters[c] : -1;
+            if (letter == -1) {
+                LOGGER.warning("Unknown letter passed: " + c);
+                return false;
+            }
+            state = getTarget(state, letter);
+            if (state == -1) return false;
+        }
+        return isAcceptingState(state);
+    }
+
+    /**
+     * @param input ArrayList of strings that contains letters of sigma
+     */
+    public boolean acceptsWord(ArrayList<String> input) {
+        return acceptsWord(input.toArray(new String[0]));
+    }
+
+    //endregion
+}
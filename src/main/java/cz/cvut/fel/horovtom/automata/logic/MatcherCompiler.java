@@ -0,0 +1,354 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+import javax.tools.Diagnostic;
+import javax.tools.DiagnosticCollector;
+import javax.tools.FileObject;
+import javax.tools.ForwardingJavaFileManager;
+import javax.tools.JavaCompiler;
+import javax.tools.JavaFileManager;
+import javax.tools.JavaFileObject;
+import javax.tools.SimpleJavaFileObject;
+import javax.tools.ToolProvider;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+import java.util.logging.Logger;
+
+/**
+ * This class compiles reduced DFA into a generated class, where every state is a method with a switch on the character,
+ * that returns the next state. The matching loop has no table loads, but it jumps to the code of the current state
+ * by every character, so it is faster than the table only if these jumps are predictable for the CPU.
+ * On random input, the table-driven matcher is several times faster.
+ * <p>
+ * Whether compiled code wins is estimated on sample words without compiling them: they are run on the DFA and every step,
+ * whose target is not the most frequent target of its state, is counted as a mispredicted jump.
+ * Automaton is compiled, only if at most {@link #MAX_MISPREDICTIONS} of steps are mispredicted and its code is not larger
+ * than {@link #MAX_CODE_SIZE}.
+ * </p>
+ * <p>
+ * Source is compiled in memory by the system Java compiler from <code>javax.tools</code> and loaded by its own class loader,
+ * so the class is unloaded together with the matcher. Compilation takes hundreds of milliseconds, so it pays off
+ * only for matchers used for many words. If some generated method would be larger than {@link #MAX_METHOD_SIZE},
+ * the automaton has letters with more than one character, or if the compiler is not available, because the library
+ * runs on JRE, the table-driven matcher is used.
+ * </p>
+ */
+public final class MatcherCompiler {
+    private static final Logger LOGGER = Logger.getLogger(MatcherCompiler.class.getName());
+    /**
+     * Maximal estimated bytecode size of a generated method. HotSpot does not JIT compile larger methods.
+     */
+    static final int MAX_METHOD_SIZE = 8000;
+    /**
+     * Maximal ratio of mispredicted steps on sample words, for which compiled code is faster than the table
+     */
+    static final double MAX_MISPREDICTIONS = 0.02;
+    /**
+     * Maximal estimated bytecode size of the generated class, that is compiled, if it is estimated to be faster.
+     * Larger code loses even on predictable input, because it does not fit into caches of the CPU.
+     */
+    static final int MAX_CODE_SIZE = 24 * 1024;
+    /**
+     * Number and length of uniformly random sample words, if no sample is given
+     */
+    private static final int RANDOM_WORDS = 64, RANDOM_LENGTH = 64;
+    private static final AtomicInteger COUNTER = new AtomicInteger();
+
+    private MatcherCompiler() {
+    }
+
+    /**
+     * Compiles automaton, if it is estimated to be faster on uniformly random words. This is rare, so pass typical input
+     * to {@link #compile(Automaton, Collection)}, if it is known.
+     */
+    public static WordMatcher compile(Automaton automaton) {
+        DFAAutomaton dfa = automaton.getReduced();
+        Random random = new Random(dfa.getQSize());
+        String[] sigma = dfa.getSigma();
+        ArrayList<String> sample = new ArrayList<>();
+        for (int i = 0; i < RANDOM_WORDS && sigma.length > 0; i++) {
+            StringBuilder word = new StringBuilder();
+            for (int j = 0; j < RANDOM_LENGTH; j++) {
+                word.append(sigma[random.nextInt(sigma.length)]);
+            }
+            sample.add(word.toString());
+        }
+        return compile(automaton, sample);
+    }
+
+    /**
+     * @param sample Words, that are typical input of the matcher
+     * @return Compiled matcher, if it is estimated to be faster on the sample words, or table-driven matcher
+     */
+    public static WordMatcher compile(Automaton automaton, Collection<? extends CharSequence> sample) {
+        DFAAutomaton dfa = automaton.getReduced();
+        if (getCodeSize(dfa) > MAX_CODE_SIZE) {
+            LOGGER.fine("Code of automaton with " + dfa.getQSize() + " states is too large to be faster than the table");
+            return new TableMatcher(new SymbolMatcher(dfa, dfa.getSigma()));
+        }
+        double mispredictions = getMispredictions(dfa, sample);
+        if (mispredictions > MAX_MISPREDICTIONS) {
+            LOGGER.fine(String.format("%.1f %% of steps on sample words are mispredicted, table-driven matcher is used",
+                    100 * mispredictions));
+            return new TableMatcher(new SymbolMatcher(dfa, dfa.getSigma()));
+        }
+        return compile(automaton, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Compiles the automaton without estimating, whether it is faster than the table-driven matcher.
+     *
+     * @param maxStates Maximal number of states of the reduced automaton, that is compiled. Larger automata use tables.
+     * @return Compiled matcher, or table-driven matcher if the automaton cannot be compiled
+     */
+    public static WordMatcher compile(Automaton automaton, int maxStates) {
+        DFAAutomaton dfa = automaton.getReduced();
+        TableMatcher fallback = new TableMatcher(new SymbolMatcher(dfa, dfa.getSigma()));
+        if (dfa.getQSize() > maxStates || getMaxMethodSize(dfa) > MAX_METHOD_SIZE) {
+            LOGGER.fine("Automaton with " + dfa.getQSize() + " states is too large to compile");
+            return fallback;
+        }
+        if (!dfa.getAlphabetIndex().isSingleCharacter()) {
+            LOGGER.fine("Automaton with multiple character letters cannot be compiled");
+            return fallback;
+        }
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) {
+            LOGGER.info("Java compiler is not available, table-driven matcher is used");
+            return fallback;
+        }
+
+        String className = "CompiledDFA" + COUNTER.incrementAndGet();
+        try {
+            byte[] bytecode = compileSource(compiler, className, toJavaSource(dfa, className));
+            if (bytecode == null) return fallback;
+            Class<?> generated = new GeneratedLoader(MatcherCompiler.class.getClassLoader()).define(className, bytecode);
+            @SuppressWarnings("unchecked")
+            Predicate<CharSequence> predicate = (Predicate<CharSequence>) generated.getDeclaredConstructor().newInstance();
+            return new CompiledMatcher(predicate);
+        } catch (ReflectiveOperationException | LinkageError e) {
+            LOGGER.warning("Could not load compiled automaton: " + e);
+            return fallback;
+        }
+    }
+
+    /**
+     * @return Whether the matcher runs generated code, or false if it is the table-driven fallback
+     */
+    public static boolean isCompiled(WordMatcher matcher) {
+        return matcher instanceof CompiledMatcher;
+    }
+
+    /**
+     * Runs the words on the DFA and counts steps, whose target is not the most frequent target of their state.
+     * Words are run until their end, or until they reach the dead state.
+     *
+     * @return Ratio of such steps to all steps, or 1 if there are no steps
+     */
+    static double getMispredictions(DFAAutomaton dfa, Collection<? extends CharSequence> words) {
+        AlphabetIndex index = dfa.getAlphabetIndex();
+        int classCount = index.getClassCount();
+        int[] table = dfa.getClassTable();
+        AcceptDistances distances = dfa.getAcceptDistances();
+        //Number of steps from the state by the class of letters
+        long[] counts = new long[dfa.getQSize() * classCount];
+        long steps = 0;
+        for (CharSequence word : words) {
+            int state = dfa.initialStates[0];
+            for (int i = 0, length = word.length(); i < length && state != -1 && !distances.isDead(state); i++) {
+                int letterClass = index.getCharClass(word.charAt(i));
+                if (letterClass == -1) break;
+                counts[state * classCount + letterClass]++;
+                steps++;
+                state = table[state * classCount + letterClass];
+            }
+        }
+        if (steps == 0) return 1;
+        long predicted = 0;
+        HashMap<Integer, Long> targets = new HashMap<>();
+        for (int state = 0; state < dfa.getQSize(); state++) {
+            targets.clear();
+            long max = 0;
+            for (int letterClass = 0; letterClass < classCount; letterClass++) {
+                long count = counts[state * classCount + letterClass];
+                if (count == 0) continue;
+                max = Math.max(max, targets.merge(table[state * classCount + letterClass], count, Long::sum));
+            }
+            predicted += max;
+        }
+        return (double) (steps - predicted) / steps;
+    }
+
+    /**
+     * Estimates bytecode size of the largest generated method. The matching method has a case of about 12 bytes
+     * for every state and every state method has a case of about 12 bytes for every letter.
+     */
+    static int getMaxMethodSize(DFAAutomaton dfa) {
+        return 64 + 12 * Math.max(dfa.getQSize(), dfa.getSigmaSize());
+    }
+
+    /**
+     * Estimates bytecode size of the generated class, see {@link #getMaxMethodSize(DFAAutomaton)}
+     */
+    static long getCodeSize(DFAAutomaton dfa) {
+        return 64 + 12L * dfa.getQSize() * (dfa.getSigmaSize() + 2);
+    }
+
+    /**
+     * Generates class implementing {@link Predicate} of CharSequence, so that it does not need this library on class path
+     * of the compiler. States, from which no accepting state is reachable, are -1 and reject immediately.
+     */
+    static String toJavaSource(DFAAutomaton dfa, String className) {
+        TransitionTable transitions = dfa.transitions;
+        boolean[] live = Trimmer.getCoReachable(transitions, dfa.acceptingStates);
+        String[] sigma = dfa.getSigma();
+        int initial = dfa.initialStates[0];
+
+        StringBuilder sb = new StringBuilder();
+        sb.append("public final class ").append(className).append(" implements java.util.function.Predicate<CharSequence> {\n");
+        sb.append("    @Override\n");
+        sb.append("    public boolean test(CharSequence word) {\n");
+        if (!live[initial]) {
+            sb.append("        return false;\n    }\n}\n");
+            return sb.toString();
+        }
+        sb.append("        int state = ").append(initial).append(";\n");
+        sb.append("        for (int i = 0, length = word.length(); i < length; i++) {\n");
+        sb.append("            char c = word.charAt(i);\n");
+        sb.append("            switch (state) {\n");
+        for (int state = 0; state < dfa.getQSize(); state++) {
+            if (!live[state]) continue;
+            sb.append("                case ").append(state).append(":\n");
+            sb.append("                    state = state").append(state).append("(c);\n");
+            sb.append("                    break;\n");
+        }
+        sb.append("                default:\n");
+        sb.append("                    return false;\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("        switch (state) {\n");
+        for (int accepting : dfa.acceptingStates) {
+            sb.append("            case ").append(accepting).append(":\n");
+        }
+        sb.append("                return true;\n");
+        sb.append("            default:\n");
+        sb.append("                return false;\n");
+        sb.append("        }\n");
+        sb.append("    }\n");
+
+        for (int state = 0; state < dfa.getQSize(); state++) {
+            if (!live[state]) continue;
+            //Characters grouped by their live targets
+            LinkedHashMap<Integer, ArrayList<Integer>> targets = new LinkedHashMap<>();
+            for (int letter = 0; letter < sigma.length; letter++) {
+                int target = transitions.getTarget(state, letter);
+                if (target == -1 || !live[target]) continue;
+                targets.computeIfAbsent(target, k -> new ArrayList<>()).add((int) sigma[letter].charAt(0));
+            }
+            sb.append("\n");
+            sb.append("    private static int state").append(state).append("(char c) {\n");
+            sb.append("        switch (c) {\n");
+            for (int target : targets.keySet()) {
+                ArrayList<Integer> chars = targets.get(target);
+                Collections.sort(chars);
+                for (int c : chars) {
+                    sb.append("            case ").append(c).append(":\n");
+                }
+                sb.append("                return ").append(target).append(";\n");
+            }
+            sb.append("            default:\n");
+            sb.append("                return -1;\n");
+            sb.append("        }\n");
+            sb.append("    }\n");
+        }
+        sb.append("}\n");
+        return sb.toString();
+    }
+
+    /**
+     * @return Bytecode of the class, or null if the compilation failed
+     */
+    private static byte[] compileSource(JavaCompiler compiler, String className, String source) {
+        JavaFileObject sourceFile = new SimpleJavaFileObject(URI.create("string:///" + className + ".java"), JavaFileObject.Kind.SOURCE) {
+            @Override
+            public CharSequence getCharContent(boolean ignoreEncodingErrors) {
+                return source;
+            }
+        };
+        ByteArrayOutputStream bytecode = new ByteArrayOutputStream();
+        DiagnosticCollector<JavaFileObject> diagnostics = new DiagnosticCollector<>();
+        try (JavaFileManager manager = new ForwardingJavaFileManager<JavaFileManager>(
+                compiler.getStandardFileManager(diagnostics, null, StandardCharsets.UTF_8)) {
+            @Override
+            public JavaFileObject getJavaFileForOutput(Location location, String name, JavaFileObject.Kind kind, FileObject sibling) {
+                return new SimpleJavaFileObject(URI.create("bytes:///" + name + kind.extension), kind) {
+                    @Override
+                    public OutputStream openOutputStream() {
+                        return bytecode;
+                    }
+                };
+            }
+        }) {
+            Boolean success = compiler.getTask(null, manager, diagnostics, Collections.singletonList("-g:none"),
+                    null, Collections.singletonList(sourceFile)).call();
+            if (success == null || !success) {
+                for (Diagnostic<? extends JavaFileObject> diagnostic : diagnostics.getDiagnostics()) {
+                    LOGGER.warning("Compilation of automaton failed: " + diagnostic.getMessage(null));
+                }
+                return null;
+            }
+        } catch (IOException e) {
+            LOGGER.warning("Compilation of automaton failed: " + e);
+            return null;
+        }
+        return bytecode.toByteArray();
+    }
+
+    private static final class GeneratedLoader extends ClassLoader {
+        private GeneratedLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        private Class<?> define(String name, byte[] bytecode) {
+            return defineClass(name, bytecode, 0, bytecode.length);
+        }
+    }
+
+    private static final class CompiledMatcher implements WordMatcher {
+        private final Predicate<CharSequence> predicate;
+
+        private CompiledMatcher(Predicate<CharSequence> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean matches(CharSequence word) {
+            return predicate.test(word);
+        }
+    }
+
+    private static final class TableMatcher implements WordMatcher {
+        private final SymbolMatcher matcher;
+
+        private TableMatcher(SymbolMatcher matcher) {
+            this.matcher = matcher;
+        }
+
+        @Override
+        public boolean matches(CharSequence word) {
+            return matcher.accepts(word);
+        }
+    }
+}
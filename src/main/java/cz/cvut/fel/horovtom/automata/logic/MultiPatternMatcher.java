@@ -0,0 +1,300 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.reducers.HopcroftMinimizer;
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.logging.Logger;
+
+/**
+ * Matches a word against many patterns in one pass.
+ * <p>
+ * Patterns are reduced and combined into one product DFA, whose states are tuples of states of the patterns.
+ * Every state is labeled by the set of patterns, that accept in it. As in {@link BinaryOperators#getIntersection()},
+ * the product is explored only once for every class of letters, that no pattern can tell apart.
+ * Product is then minimized by {@link HopcroftMinimizer} starting from the partition by labels, so states with different
+ * sets of patterns are never merged. Matching stops early in the state, from which no pattern can accept.
+ * </p>
+ * <p>
+ * Time of matching does not depend on the number of patterns, but the product can have up to the product of sizes
+ * of the patterns states. Instances are immutable and thread safe.
+ * </p>
+ */
+public final class MultiPatternMatcher {
+    private static final Logger LOGGER = Logger.getLogger(MultiPatternMatcher.class.getName());
+    private static final int[] NO_PATTERNS = new int[0];
+
+    private final int patternCount;
+    private final DFAAutomaton automaton;
+    /**
+     * patterns[state] are sorted ids of the patterns accepting in the state
+     */
+    private final int[][] patterns;
+    private final AlphabetIndex index;
+    private final int[] table;
+    private final int classCount, initialState;
+
+    /**
+     * @param automata Patterns, whose ids are their indices in the list
+     */
+    public MultiPatternMatcher(List<? extends Automaton> automata) {
+        this.patternCount = automata.size();
+        DFAAutomaton[] dfas = new DFAAutomaton[patternCount];
+        for (int i = 0; i < patternCount; i++) {
+            dfas[i] = automata.get(i).getReduced();
+        }
+
+        //Common sigma and classes of letters of the product
+        LinkedHashMap<String, Integer> letters = new LinkedHashMap<>();
+        for (DFAAutomaton dfa : dfas) {
+            for (String letter : dfa.getSigma()) {
+                letters.putIfAbsent(letter, letters.size());
+            }
+        }
+        String[] sigma = letters.keySet().toArray(new String[0]);
+        int[] letterClasses = new int[sigma.length];
+        ArrayList<int[]> signatures = new ArrayList<>();
+        HashMap<Key, Integer> signatureIndices = new HashMap<>();
+        for (int letter = 0; letter < sigma.length; letter++) {
+            //Class of the letter in every pattern, or -1 if the pattern does not have it
+            int[] signature = new int[patternCount];
+            for (int p = 0; p < patternCount; p++) {
+                AlphabetIndex patternIndex = dfas[p].getAlphabetIndex();
+                int patternLetter = patternIndex.getLetterIndex(sigma[letter]);
+                signature[p] = patternLetter == -1 ? -1 : patternIndex.getLetterClass(patternLetter);
+            }
+            Integer existing = signatureIndices.putIfAbsent(new Key(signature), signatures.size());
+            if (existing == null) {
+                letterClasses[letter] = signatures.size();
+                signatures.add(signature);
+            } else {
+                letterClasses[letter] = existing;
+            }
+        }
+        int productClasses = signatures.size();
+
+        //Product reachable from the initial tuple, by breadth first search
+        int[][] tables = new int[patternCount][];
+        int[] tupleInitial = new int[patternCount];
+        int[] patternClasses = new int[patternCount];
+        for (int p = 0; p < patternCount; p++) {
+            tables[p] = dfas[p].getClassTable();
+            tupleInitial[p] = dfas[p].initialStates[0];
+            patternClasses[p] = dfas[p].getAlphabetIndex().getClassCount();
+        }
+        ArrayList<int[]> tuples = new ArrayList<>();
+        HashMap<Key, Integer> tupleIndices = new HashMap<>();
+        tuples.add(tupleInitial);
+        tupleIndices.put(new Key(tupleInitial), 0);
+        int[] product = new int[16 * Math.max(1, productClasses)];
+        boolean sinkUsed = false;
+        for (int state = 0; state < tuples.size(); state++) {
+            int[] tuple = tuples.get(state);
+            if ((state + 1) * productClasses > product.length) {
+                product = Arrays.copyOf(product, Math.max(product.length * 2, (state + 1) * productClasses));
+            }
+            for (int c = 0; c < productClasses; c++) {
+                int[] signature = signatures.get(c);
+                int[] next = new int[patternCount];
+                boolean alive = false;
+                for (int p = 0; p < patternCount; p++) {
+                    next[p] = tuple[p] == -1 || signature[p] == -1 ? -1
+                            : tables[p][tuple[p] * patternClasses[p] + signature[p]];
+                    alive |= next[p] != -1;
+                }
+                if (!alive) {
+                    product[state * productClasses + c] = -1;
+                    sinkUsed = true;
+                    continue;
+                }
+                Integer target = tupleIndices.putIfAbsent(new Key(next), tuples.size());
+                if (target == null) {
+                    target = tuples.size();
+                    tuples.add(next);
+                }
+                product[state * productClasses + c] = target;
+            }
+        }
+        LOGGER.fine("Product of " + patternCount + " patterns has " + tuples.size() + " states");
+
+        //Labels, where label 0 is the empty set of patterns
+        int QSize = tuples.size() + (sinkUsed ? 1 : 0), sink = tuples.size();
+        int[] labels = new int[QSize];
+        ArrayList<int[]> labelPatterns = new ArrayList<>();
+        HashMap<Key, Integer> labelIndices = new HashMap<>();
+        labelPatterns.add(NO_PATTERNS);
+        labelIndices.put(new Key(NO_PATTERNS), 0);
+        for (int state = 0; state < tuples.size(); state++) {
+            int[] tuple = tuples.get(state);
+            int[] accepted = new int[patternCount];
+            int count = 0;
+            for (int p = 0; p < patternCount; p++) {
+                if (tuple[p] != -1 && dfas[p].isAcceptingState(tuple[p])) accepted[count++] = p;
+            }
+            Key key = new Key(Arrays.copyOf(accepted, count));
+            Integer label = labelIndices.putIfAbsent(key, labelPatterns.size());
+            if (label == null) {
+                label = labelPatterns.size();
+                labelPatterns.add(key.values);
+            }
+            labels[state] = label;
+        }
+
+        //Complete table for the minimizer
+        int[] complete = Arrays.copyOf(product, QSize * productClasses);
+        for (int i = 0; i < complete.length; i++) {
+            if (i >= sink * productClasses || complete[i] == -1) complete[i] = sink;
+        }
+        HopcroftMinimizer minimizer = new HopcroftMinimizer(complete, QSize, productClasses, labels);
+        int[] classes = minimizer.getClasses();
+        int minimalSize = minimizer.getClassCount();
+        //Classes are numbered by their first state, so the initial state is 0
+        String[] Q = new String[minimalSize];
+        this.patterns = new int[minimalSize][];
+        int[] representatives = new int[minimalSize];
+        for (int state = QSize - 1; state >= 0; state--) {
+            representatives[classes[state]] = state;
+            patterns[classes[state]] = labelPatterns.get(labels[state]);
+        }
+        ArrayList<Integer> accepting = new ArrayList<>();
+        TransitionTable.Builder builder = new TransitionTable.Builder(minimalSize, sigma.length);
+        for (int state = 0; state < minimalSize; state++) {
+            Q[state] = String.valueOf(state);
+            if (patterns[state].length > 0) accepting.add(state);
+            for (int letter = 0; letter < sigma.length; letter++) {
+                builder.add(classes[complete[representatives[state] * productClasses + letterClasses[letter]]]).nextCell();
+            }
+        }
+        int[] acceptingStates = new int[accepting.size()];
+        for (int i = 0; i < acceptingStates.length; i++) {
+            acceptingStates[i] = accepting.get(i);
+        }
+        this.automaton = new DFAAutomaton(Q, sigma, builder.build(), 0, acceptingStates);
+        this.index = automaton.getAlphabetIndex();
+        this.classCount = index.getClassCount();
+        this.initialState = 0;
+
+        //Reduced patterns are complete, so the dead state usually is a tuple of their sinks, not the added sink.
+        //Matching stops in every state, from which no accepting state is reachable.
+        boolean[] live = Trimmer.getCoReachable(automaton.transitions, automaton.acceptingStates);
+        this.table = automaton.getClassTable().clone();
+        for (int i = 0; i < table.length; i++) {
+            if (!live[table[i]]) table[i] = -1;
+        }
+    }
+
+    /**
+     * Tuple of ints as a key of a hash map
+     */
+    private static final class Key {
+        private final int[] values;
+        private final int hash;
+
+        private Key(int[] values) {
+            this.values = values;
+            this.hash = Arrays.hashCode(values);
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            return obj instanceof Key && Arrays.equals(values, ((Key) obj).values);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    public int getPatternCount() {
+        return patternCount;
+    }
+
+    /**
+     * @return Minimal DFA accepting the union of the patterns. Its state s is labeled by {@link #getPatterns(int)}.
+     */
+    public DFAAutomaton getAutomaton() {
+        return (DFAAutomaton) automaton.copy();
+    }
+
+    /**
+     * @return Sorted ids of the patterns accepting in the state of {@link #getAutomaton()}
+     */
+    public int[] getPatterns(int state) {
+        return patterns[state].clone();
+    }
+
+    /**
+     * @return Transitions of {@link #getAutomaton()} by classes of letters of {@link #getIndex()}, where the dead state is -1
+     */
+    int[] getTable() {
+        return table;
+    }
+
+    AlphabetIndex getIndex() {
+        return index;
+    }
+
+    /**
+     * Every character of the word is one letter, as in {@link Automaton#acceptsWord(String)}
+     *
+     * @return State of {@link #getAutomaton()} after the word, or -1 if no pattern can accept any continuation of the word
+     * or the word has unknown letter
+     */
+    public int getState(CharSequence word) {
+        int state = initialState;
+        for (int i = 0, length = word.length(); i < length; i++) {
+            int letterClass = index.getCharClass(word.charAt(i));
+            if (letterClass == -1) return -1;
+            state = table[state * classCount + letterClass];
+            if (state == -1) return -1;
+        }
+        return state;
+    }
+
+    /**
+     * @param word Array of letters
+     * @return State of {@link #getAutomaton()} after the word, or -1 if no pattern can accept any continuation of the word
+     */
+    public int getState(String[] word) {
+        int state = initialState;
+        for (String letter : word) {
+            int letterIndex = index.getLetterIndex(letter);
+            if (letterIndex == -1) return -1;
+            state = table[state * classCount + index.getLetterClass(letterIndex)];
+            if (state == -1) return -1;
+        }
+        return state;
+    }
+
+    /**
+     * Every character of the word is one letter, as in {@link Automaton#acceptsWord(String)}
+     *
+     * @return Set of ids of the patterns accepting the word
+     */
+    public BitSet match(CharSequence word) {
+        return toBitSet(getState(word));
+    }
+
+    /**
+     * @param word Array of letters
+     * @return Set of ids of the patterns accepting the word
+     */
+    public BitSet match(String[] word) {
+        return toBitSet(getState(word));
+    }
+
+    private BitSet toBitSet(int state) {
+        BitSet matched = new BitSet(patternCount);
+        if (state == -1) return matched;
+        for (int pattern : patterns[state]) {
+            matched.set(pattern);
+        }
+        return matched;
+    }
+}
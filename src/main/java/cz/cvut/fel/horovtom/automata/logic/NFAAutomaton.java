@@ -26,7 +26,7 @@ public class NFAAutomaton extends Automaton {
 
     @Override
     public ENFAAutomaton getENFA() {
-        ENFAAutomaton enfaAutomaton = new ENFAAutomaton(Arrays.copyOf(Q, Q.length), Arrays.copyOf(sigma, sigma.length), getTransitions(), Arrays.copyOf(initialStates, initialStates.length), Arrays.copyOf(acceptingStates, acceptingStates.length));
+        ENFAAutomaton enfaAutomaton = new ENFAAutomaton(Q, sigma, transitions, initialStates, acceptingStates);
         enfaAutomaton.setDescription(description);
         return enfaAutomaton;
     }
@@ -39,7 +39,7 @@ public class NFAAutomaton extends Automaton {
     @Override
     public DFAAutomaton getDFA() {
         NFAReducer reducer = new NFAReducer(this.Q, this.sigma, this.transitions, this.initialStates, this.acceptingStates);
-        DFAAutomaton dfaAutomaton = new DFAAutomaton(reducer.getReducedQ(), reducer.getReducedSigma(), reducer.getReducedTransitions(), reducer.getReducedInitial(), reducer.getReducedAccepting());
+        DFAAutomaton dfaAutomaton = new DFAAutomaton(reducer.getReducedQ(), reducer.getReducedSigma(), reducer.getReducedTable(), reducer.getReducedInitial(), reducer.getReducedAccepting());
         dfaAutomaton.setDescription(description);
         return dfaAutomaton;
     }
@@ -88,11 +88,11 @@ public class NFAAutomaton extends Automaton {
             }
             System.out.print("\n");
             int i = 0;
-            this.transitions = new HashMap<>();
+            HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
             outer:
             while (i < this.Q.length) {
                 HashMap<Integer, int[]> curr = new HashMap<>();
-                this.transitions.put(i, curr);
+                transitions.put(i, curr);
 
                 System.out.print(this.Q[i] + " \t");
                 line = br.readLine();
@@ -131,6 +131,7 @@ public class NFAAutomaton extends Automaton {
                 }
                 i++;
             }
+            this.transitions = TransitionTable.fromHashMap(this.Q.length, this.sigma.length, transitions);
 
             //GET INITIAL STATES
             System.out.println("Specify initial states on one line separated by spaces: ");
@@ -211,27 +212,25 @@ public class NFAAutomaton extends Automaton {
      * Constructor used to initialize by reducers
      */
     public NFAAutomaton(String[] q, String[] sigma, HashMap<Integer, HashMap<Integer, int[]>> transitions, int[] initialStates, int[] acceptingStates) {
+        this(q, sigma, TransitionTable.fromHashMap(q.length, sigma.length, transitions), initialStates, acceptingStates);
+    }
+
+    /**
+     * Constructor used for initialization from already built transition table
+     */
+    public NFAAutomaton(String[] q, String[] sigma, TransitionTable transitions, int[] initialStates, int[] acceptingStates) {
         this.Q = Arrays.copyOf(q, q.length);
         this.sigma = Arrays.copyOf(sigma, sigma.length);
-        //Copy transitions
-        this.transitions = new HashMap<>();
-        for (int i = 0; i < q.length; i++) {
-            HashMap<Integer, int[]> curr = new HashMap<>();
-            this.transitions.put(i, curr);
-            HashMap<Integer, int[]> currRow = transitions.get(i);
-            for (int l = 0; l < sigma.length; l++) {
-                int[] targets = currRow.get(l);
-                curr.put(l, Arrays.copyOf(targets, targets.length));
-            }
-        }
+        this.transitions = transitions;
         this.initialStates = Arrays.copyOf(initialStates, initialStates.length);
         this.acceptingStates = Arrays.copyOf(acceptingStates, acceptingStates.length);
     }
 
     @Override
     public DFAAutomaton reduce() {
-        NFAReducer reducer = new NFAReducer(this.Q, this.sigma, this.transitions, this.initialStates, this.acceptingStates);
-        DFAAutomaton dfa = new DFAAutomaton(reducer.getReducedQ(), reducer.getReducedSigma(), reducer.getReducedTransitions(), reducer.getReducedInitial(), reducer.getReducedAccepting());
+        //Names of subsets are lost in minimization, so useless states can be trimmed first
+        NFAReducer reducer = new NFAReducer(this.Q, this.sigma, this.transitions, this.initialStates, this.acceptingStates, true);
+        DFAAutomaton dfa = new DFAAutomaton(reducer.getReducedQ(), reducer.getReducedSigma(), reducer.getReducedTable(), reducer.getReducedInitial(), reducer.getReducedAccepting());
         dfa.setDescription(description);
         dfa = dfa.getReduced();
         return dfa;
@@ -239,24 +238,13 @@ public class NFAAutomaton extends Automaton {
 
     @Override
     protected int[] getPossibleTransitions(int state, int letter) {
-        int[] transitions = this.transitions.get(state).get(letter);
-        return Arrays.copyOf(transitions, transitions.length);
+        return this.transitions.getTargets(state, letter);
     }
 
     @Override
     public Automaton copy() {
         String[] Q = Arrays.copyOf(this.Q, this.Q.length);
         String[] sigma = Arrays.copyOf(this.sigma, this.sigma.length);
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
-        for (int state = 0; state < this.Q.length; state++) {
-            HashMap<Integer, int[]> curr = new HashMap<>();
-            transitions.put(state, curr);
-            HashMap<Integer, int[]> currOrig = this.transitions.get(state);
-            for (int letter = 0; letter < this.sigma.length; letter++) {
-                int[] arr = currOrig.get(letter);
-                curr.put(letter, Arrays.copyOf(arr, arr.length));
-            }
-        }
         int[] accepting = Arrays.copyOf(this.acceptingStates, this.acceptingStates.length);
         int[] initial = Arrays.copyOf(this.initialStates, this.initialStates.length);
         NFAAutomaton nfaAutomaton = new NFAAutomaton(Q, sigma, transitions, initial, accepting);
@@ -0,0 +1,187 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Matches one long input in parallel. Every character of the input is one letter, as in {@link Automaton#acceptsWord(String)}.
+ * <p>
+ * Input is split into chunks. The first chunk is run from the initial state, other chunks are run speculatively
+ * from all states of the reduced DFA at once, which results in a map from the state at the start of the chunk
+ * to the state at its end. The maps are then composed in order. Runs from different states usually reach the same state
+ * after a few letters, so runs, that are in the same state, are merged to one and a chunk costs little more
+ * than a run from a single state. If some chunk has no run left, the input is rejected and other chunks are stopped.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe.
+ * </p>
+ */
+public final class ParallelMatcher {
+    /**
+     * Inputs shorter than this many characters per chunk are matched sequentially
+     */
+    private static final int MIN_CHUNK = 1 << 12;
+    /**
+     * Maximal number of characters, that are run before merging runs in the same state
+     */
+    private static final int MAX_BLOCK = 1 << 12;
+
+    private final AlphabetIndex index;
+    private final int[] table;
+    private final int QSize, classCount, initialState;
+    private final boolean[] accepting;
+
+    /**
+     * Reduces the automaton, see {@link Automaton#getReduced()}
+     */
+    public ParallelMatcher(Automaton automaton) {
+        DFAAutomaton dfa = automaton.getReduced();
+        this.index = dfa.getAlphabetIndex();
+        this.table = dfa.getClassTable();
+        this.QSize = dfa.getQSize();
+        this.classCount = index.getClassCount();
+        this.initialState = dfa.initialStates[0];
+        this.accepting = new boolean[QSize];
+        for (int s : dfa.acceptingStates) {
+            accepting[s] = true;
+        }
+    }
+
+    /**
+     * @return Number of states of the reduced DFA, that every speculative chunk starts from
+     */
+    public int getQSize() {
+        return QSize;
+    }
+
+    /**
+     * Splits input to one chunk per thread of the common {@link ForkJoinPool}
+     */
+    public boolean accepts(CharSequence input) {
+        return accepts(input, ForkJoinPool.getCommonPoolParallelism(), ForkJoinPool.commonPool());
+    }
+
+    /**
+     * @param chunks   Number of chunks to split the input to. It is lowered for short inputs.
+     * @param executor Executor, that runs the chunks
+     * @return Whether the input is accepted
+     */
+    public boolean accepts(CharSequence input, int chunks, Executor executor) {
+        if (chunks < 1) throw new IllegalArgumentException("Number of chunks has to be positive: " + chunks);
+        int length = input.length();
+        chunks = Math.max(1, Math.min(chunks, length / MIN_CHUNK));
+        if (chunks == 1) {
+            int state = run(input, 0, length);
+            return state != -1 && accepting[state];
+        }
+
+        AtomicBoolean rejected = new AtomicBoolean();
+        int chunkLength = length / chunks;
+        ArrayList<CompletableFuture<int[]>> maps = new ArrayList<>(chunks - 1);
+        for (int i = 1; i < chunks; i++) {
+            int from = i * chunkLength, to = i == chunks - 1 ? length : from + chunkLength;
+            maps.add(CompletableFuture.supplyAsync(() -> getStateMap(input, from, to, rejected), executor));
+        }
+        int state = run(input, 0, chunkLength);
+        if (state == -1) rejected.set(true);
+        for (CompletableFuture<int[]> map : maps) {
+            int[] stateMap = map.join();
+            if (state == -1 || stateMap == null) {
+                rejected.set(true);
+                return false;
+            }
+            state = stateMap[state];
+        }
+        return state != -1 && accepting[state];
+    }
+
+    /**
+     * @return State after the input from the initial state, or -1
+     */
+    private int run(CharSequence input, int from, int to) {
+        int state = initialState;
+        for (int i = from; i < to; i++) {
+            int letterClass = index.getCharClass(input.charAt(i));
+            if (letterClass == -1) return -1;
+            state = table[state * classCount + letterClass];
+            if (state == -1) return -1;
+        }
+        return state;
+    }
+
+    /**
+     * Runs the input from all states at once. Runs are processed by blocks of letters, after every block,
+     * runs in the same state are merged. Blocks grow, because runs merge mostly at the beginning.
+     *
+     * @return Array, where map[state] is the state after the input from that state or -1,
+     * or null if there is no state after the input or the input was rejected elsewhere
+     */
+    private int[] getStateMap(CharSequence input, int from, int to, AtomicBoolean rejected) {
+        //runs[r] is the current state of run r, owners[state] is the run started in that state
+        int[] runs = new int[QSize];
+        int[] owners = new int[QSize];
+        for (int s = 0; s < QSize; s++) {
+            runs[s] = owners[s] = s;
+        }
+        int runCount = QSize;
+        int[] classes = new int[Math.min(MAX_BLOCK, to - from)];
+        int[] merged = new int[QSize];
+        Arrays.fill(merged, -1);
+        int[] renumbered = new int[QSize];
+
+        for (int position = from, block = 8; position < to; position += block, block = Math.min(MAX_BLOCK, block * 2)) {
+            if (rejected.get()) return null;
+            int blockLength = Math.min(block, to - position);
+            for (int i = 0; i < blockLength; i++) {
+                classes[i] = index.getCharClass(input.charAt(position + i));
+                if (classes[i] == -1) {
+                    rejected.set(true);
+                    return null;
+                }
+            }
+            for (int r = 0; r < runCount; r++) {
+                int state = runs[r];
+                for (int i = 0; i < blockLength && state != -1; i++) {
+                    state = table[state * classCount + classes[i]];
+                }
+                runs[r] = state;
+            }
+
+            //Merge runs in the same state and drop dead runs
+            int newCount = 0;
+            for (int r = 0; r < runCount; r++) {
+                int state = runs[r];
+                if (state == -1) {
+                    renumbered[r] = -1;
+                } else if (merged[state] != -1) {
+                    renumbered[r] = merged[state];
+                } else {
+                    merged[state] = renumbered[r] = newCount;
+                    runs[newCount++] = state;
+                }
+            }
+            for (int r = 0; r < newCount; r++) {
+                merged[runs[r]] = -1;
+            }
+            if (newCount == 0) {
+                rejected.set(true);
+                return null;
+            }
+            if (newCount < runCount) {
+                for (int s = 0; s < QSize; s++) {
+                    if (owners[s] != -1) owners[s] = renumbered[owners[s]];
+                }
+                runCount = newCount;
+            }
+        }
+
+        for (int s = 0; s < QSize; s++) {
+            owners[s] = owners[s] == -1 ? -1 : runs[owners[s]];
+        }
+        return owners;
+    }
+}
@@ -0,0 +1,171 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Accepts batches of words, that share long prefixes, such as dictionaries or paths.
+ * Every character of a word is one letter, as in {@link Automaton#acceptsWord(String)}.
+ * <p>
+ * Words are visited in sorted order, which is a depth first walk of their prefix trie. States reached after every prefix
+ * of the previous word are kept on a stack, so a word is matched only from the end of its longest common prefix
+ * with the previous word and every edge of the trie is walked once. Once a prefix has no continuation,
+ * all following words with that prefix are rejected without any work. A prefix has no continuation, once no accepting state
+ * is reachable from its state, so the rest of the word is not read. Input, that is sorted already, is not sorted again.
+ * </p>
+ * <p>
+ * DFA is run on its transition table. NFA and ENFA are run on their reduced DFA, if it has been computed already,
+ * otherwise the stack holds state sets of {@link BitParallelSimulator}. Instances are not thread safe.
+ * </p>
+ */
+public final class PrefixMatcher {
+    private final AlphabetIndex index;
+
+    //Deterministic mode
+    private final int[] table;
+    private final int classCount, initialState;
+    private final boolean[] accepting;
+    private final AcceptDistances distances;
+    private int[] states;
+
+    //Simulation mode
+    private final BitParallelSimulator simulator;
+    private long[][] sets;
+
+    public PrefixMatcher(Automaton automaton) {
+        DFAAutomaton dfa = automaton instanceof DFAAutomaton ? (DFAAutomaton) automaton : automaton.reduced;
+        this.index = dfa == null ? automaton.getAlphabetIndex() : dfa.getAlphabetIndex();
+        if (dfa != null) {
+            this.table = dfa.getClassTable();
+            this.classCount = index.getClassCount();
+            this.initialState = dfa.initialStates[0];
+            this.accepting = new boolean[dfa.Q.length];
+            for (int s : dfa.acceptingStates) {
+                accepting[s] = true;
+            }
+            this.distances = dfa.getAcceptDistances();
+            this.states = new int[16];
+            this.simulator = null;
+        } else {
+            this.table = null;
+            this.classCount = 0;
+            this.initialState = -1;
+            this.accepting = null;
+            this.distances = null;
+            this.simulator = automaton.getSimulator();
+            this.sets = new long[16][];
+        }
+    }
+
+    /**
+     * @return Set of indices of accepted words
+     */
+    public BitSet accepts(List<? extends CharSequence> words) {
+        int[] order = getSortedOrder(words);
+        BitSet accepted = new BitSet(words.size());
+        CharSequence previous = null;
+        //Stack holds states after prefixes of the previous walked word up to length valid.
+        //Prefix of length deadAt of the previous word has no continuation.
+        int valid = 0, deadAt = Integer.MAX_VALUE;
+        if (simulator == null) {
+            states[0] = initialState;
+        } else if (sets[0] == null) {
+            sets[0] = simulator.getInitial();
+        }
+        for (int i = 0; i < words.size(); i++) {
+            int position = order == null ? i : order[i];
+            CharSequence word = words.get(position);
+            int common = previous == null ? 0 : getCommonPrefix(previous, word);
+            previous = word;
+            if (common >= deadAt) continue;
+            ensureDepth(word.length());
+            valid = simulator == null ? walk(word, Math.min(common, valid)) : simulate(word, Math.min(common, valid));
+            if (valid < word.length()) {
+                deadAt = valid + 1;
+                continue;
+            }
+            deadAt = Integer.MAX_VALUE;
+            if (simulator == null ? accepting[states[valid]] : simulator.isAccepting(sets[valid])) {
+                accepted.set(position);
+            }
+        }
+        return accepted;
+    }
+
+    /**
+     * Walks the word from the state after its prefix of length from.
+     *
+     * @return Length of the longest prefix of the word, that has a state, from which an accepting state is reachable
+     */
+    private int walk(CharSequence word, int from) {
+        int depth = from;
+        int state = states[depth];
+        for (int length = word.length(); depth < length; depth++) {
+            int letterClass = index.getCharClass(word.charAt(depth));
+            if (letterClass == -1) break;
+            state = table[state * classCount + letterClass];
+            if (state == -1 || distances.isDead(state)) break;
+            states[depth + 1] = state;
+        }
+        return depth;
+    }
+
+    /**
+     * Simulates the word from the state set after its prefix of length from.
+     *
+     * @return Length of the longest prefix of the word, that has a state set, from which an accepting state is reachable
+     */
+    private int simulate(CharSequence word, int from) {
+        int depth = from;
+        for (int length = word.length(); depth < length; depth++) {
+            int letter = index.getLetterIndex(word.charAt(depth));
+            if (letter == -1) break;
+            if (sets[depth + 1] == null) sets[depth + 1] = new long[simulator.getWords()];
+            if (!simulator.step(sets[depth], letter, sets[depth + 1]) || !simulator.isLive(sets[depth + 1])) break;
+        }
+        return depth;
+    }
+
+    private void ensureDepth(int length) {
+        if (simulator == null) {
+            if (states.length <= length) states = Arrays.copyOf(states, Math.max(length + 1, states.length * 2));
+        } else if (sets.length <= length) {
+            sets = Arrays.copyOf(sets, Math.max(length + 1, sets.length * 2));
+        }
+    }
+
+    private static int getCommonPrefix(CharSequence a, CharSequence b) {
+        int length = Math.min(a.length(), b.length());
+        int i = 0;
+        while (i < length && a.charAt(i) == b.charAt(i)) i++;
+        return i;
+    }
+
+    private static int compare(CharSequence a, CharSequence b) {
+        int common = getCommonPrefix(a, b);
+        if (common < a.length() && common < b.length()) return a.charAt(common) - b.charAt(common);
+        return a.length() - b.length();
+    }
+
+    /**
+     * @return Indices of words in sorted order, or null if they are sorted already
+     */
+    private static int[] getSortedOrder(List<? extends CharSequence> words) {
+        boolean sorted = true;
+        for (int i = 1; i < words.size() && sorted; i++) {
+            sorted = compare(words.get(i - 1), words.get(i)) <= 0;
+        }
+        if (sorted) return null;
+        Integer[] order = new Integer[words.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> compare(words.get(a), words.get(b)));
+        int[] result = new int[order.length];
+        for (int i = 0; i < order.length; i++) {
+            result[i] = order[i];
+        }
+        return result;
+    }
+}
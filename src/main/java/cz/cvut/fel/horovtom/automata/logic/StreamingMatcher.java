@@ -0,0 +1,261 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+/**
+ * Stateful matcher, that reads input in chunks of characters, so that the whole input never has to be in memory.
+ * Every character is one letter, as in {@link Automaton#acceptsWord(String)}. Letters longer than one character
+ * cannot be matched and characters outside of sigma make the matcher dead.
+ * <p>
+ * DFA is run directly on its transition table. NFA and ENFA are run on their reduced DFA, if it has been computed
+ * already, otherwise they are simulated by {@link BitParallelSimulator}. Feeding characters does not allocate.
+ * </p>
+ * <p>
+ * Matcher is dead, when no continuation of the input fed so far can be accepted. Once it is dead, the rest of the input
+ * is skipped. If the length of the input is known in advance, see {@link #setRemainingLength(long)}, deterministic mode
+ * also dies, when no continuation of the remaining length can be accepted, see {@link AcceptDistances}.
+ * This class is not thread safe, get one matcher per thread by {@link Automaton#getMatcher()}.
+ * </p>
+ */
+public final class StreamingMatcher {
+    private static final int BUFFER_SIZE = 8192;
+
+    private final AlphabetIndex index;
+
+    //Deterministic mode, on transitions compressed to classes of letters
+    private final int[] table;
+    private final int classCount, initialState;
+    private final boolean[] accepting;
+    private final AcceptDistances distances;
+    private int state;
+    /**
+     * Number of characters, that will be fed until the end of the input, if lengthKnown
+     */
+    private long remaining;
+    private boolean lengthKnown;
+
+    //Simulation mode
+    private final BitParallelSimulator simulator;
+    private long[] current, next;
+
+    private boolean dead;
+    private char[] chars;
+    private ByteBuffer bytes;
+    private CharBuffer decoded;
+
+    public StreamingMatcher(Automaton automaton) {
+        DFAAutomaton dfa = automaton instanceof DFAAutomaton ? (DFAAutomaton) automaton : automaton.reduced;
+        Automaton matched = dfa == null ? automaton : dfa;
+        this.index = matched.getAlphabetIndex();
+
+        if (dfa != null) {
+            this.table = dfa.getClassTable();
+            this.classCount = index.getClassCount();
+            this.initialState = dfa.initialStates[0];
+            this.accepting = new boolean[dfa.Q.length];
+            for (int s : dfa.acceptingStates) {
+                accepting[s] = true;
+            }
+            this.distances = dfa.getAcceptDistances();
+            this.simulator = null;
+        } else {
+            this.table = null;
+            this.classCount = 0;
+            this.initialState = -1;
+            this.accepting = null;
+            this.distances = null;
+            this.simulator = automaton.getSimulator();
+            this.current = new long[simulator.getWords()];
+            this.next = new long[simulator.getWords()];
+        }
+        reset();
+    }
+
+    /**
+     * Returns matcher to the initial state, as if no input was fed. Remaining length is forgotten.
+     */
+    public void reset() {
+        lengthKnown = false;
+        if (simulator == null) {
+            state = initialState;
+            dead = distances.isDead(state);
+        } else {
+            simulator.reset(current);
+            dead = !simulator.isLive(current);
+        }
+    }
+
+    /**
+     * @return Whether the input fed since the last reset is accepted
+     */
+    public boolean isAccepting() {
+        if (dead) return false;
+        return simulator == null ? accepting[state] : simulator.isAccepting(current);
+    }
+
+    /**
+     * @return Whether no continuation of the input fed since the last reset can be accepted
+     */
+    public boolean isDead() {
+        return dead;
+    }
+
+    /**
+     * Declares, that exactly the specified number of characters will be fed until the end of the input,
+     * for example when the size of the file is known. In deterministic mode the matcher is dead as soon as
+     * no continuation of that length can be accepted, and feeding more characters makes it dead.
+     * Simulation mode ignores the length.
+     */
+    public StreamingMatcher setRemainingLength(long length) {
+        if (length < 0) throw new IllegalArgumentException("Remaining length cannot be negative: " + length);
+        if (simulator == null && !dead) {
+            remaining = length;
+            lengthKnown = true;
+            dead = !distances.canAccept(state, remaining);
+        }
+        return this;
+    }
+
+    //region FEEDING
+
+    /**
+     * Reads one character. Returns false, if the matcher is dead after that.
+     */
+    private boolean step(char c) {
+        if (simulator == null) {
+            int letterClass = index.getCharClass(c);
+            state = letterClass == -1 ? -1 : table[state * classCount + letterClass];
+            dead = state == -1 || (lengthKnown ? !distances.canAccept(state, --remaining) : distances.isDead(state));
+            return !dead;
+        }
+        int letter = index.getLetterIndex(c);
+        if (letter == -1) {
+            dead = true;
+            return false;
+        }
+        long[] tmp = current;
+        current = next;
+        next = tmp;
+        dead = !simulator.step(next, letter, current) || !simulator.isLive(current);
+        return !dead;
+    }
+
+    public StreamingMatcher feed(char c) {
+        if (!dead) step(c);
+        return this;
+    }
+
+    public StreamingMatcher feed(CharSequence chunk) {
+        for (int i = 0, length = chunk.length(); i < length && !dead; i++) {
+            if (!step(chunk.charAt(i))) break;
+        }
+        return this;
+    }
+
+    public StreamingMatcher feed(char[] chunk, int offset, int length) {
+        if (offset < 0 || length < 0 || offset + length > chunk.length) {
+            throw new IndexOutOfBoundsException("Invalid range " + offset + " + " + length + " of array of length " + chunk.length);
+        }
+        if (dead) return this;
+        int end = offset + length;
+        if (simulator == null) {
+            //Inlined loop of the deterministic mode
+            int[] bounds = distances.bounds;
+            int s = state;
+            if (lengthKnown) {
+                if (length > remaining) {
+                    dead = true;
+                    return this;
+                }
+                //Characters, that will follow the current one
+                long left = remaining;
+                for (int i = offset; i < end; i++) {
+                    int letterClass = index.getCharClass(chunk[i]);
+                    s = letterClass == -1 ? -1 : table[s * classCount + letterClass];
+                    left--;
+                    if (s == -1 || left < bounds[2 * s] || left > bounds[2 * s + 1]) {
+                        dead = true;
+                        return this;
+                    }
+                }
+                remaining = left;
+            } else {
+                for (int i = offset; i < end; i++) {
+                    int letterClass = index.getCharClass(chunk[i]);
+                    s = letterClass == -1 ? -1 : table[s * classCount + letterClass];
+                    if (s == -1 || bounds[2 * s] == AcceptDistances.UNBOUNDED) {
+                        dead = true;
+                        return this;
+                    }
+                }
+            }
+            state = s;
+            return this;
+        }
+        for (int i = offset; i < end && !dead; i++) {
+            if (!step(chunk[i])) break;
+        }
+        return this;
+    }
+
+    /**
+     * Feeds all characters from the reader, until its end or until the matcher is dead. Reader is not closed.
+     */
+    public StreamingMatcher feed(Reader reader) throws IOException {
+        if (chars == null) chars = new char[BUFFER_SIZE];
+        int read;
+        while (!dead && (read = reader.read(chars)) != -1) {
+            feed(chars, 0, read);
+        }
+        return this;
+    }
+
+    /**
+     * Decodes and feeds all bytes from the channel, until its end or until the matcher is dead. Channel is not closed.
+     * Malformed input is replaced by the charset replacement character.
+     */
+    public StreamingMatcher feed(ReadableByteChannel channel, Charset charset) throws IOException {
+        if (bytes == null) {
+            bytes = ByteBuffer.allocate(BUFFER_SIZE);
+            decoded = CharBuffer.allocate(BUFFER_SIZE);
+        }
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        bytes.clear();
+        boolean end = false;
+        while (!dead && !end) {
+            end = channel.read(bytes) == -1;
+            bytes.flip();
+            CoderResult result;
+            do {
+                result = decoder.decode(bytes, decoded, end);
+                feedDecoded();
+            } while (result.isOverflow() && !dead);
+            bytes.compact();
+        }
+        if (!dead) {
+            while (decoder.flush(decoded).isOverflow()) {
+                feedDecoded();
+            }
+            feedDecoded();
+        }
+        return this;
+    }
+
+    private void feedDecoded() {
+        decoded.flip();
+        feed(decoded.array(), decoded.arrayOffset() + decoded.position(), decoded.remaining());
+        decoded.clear();
+    }
+
+    //endregion
+}
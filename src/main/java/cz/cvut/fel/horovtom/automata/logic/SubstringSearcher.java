@@ -0,0 +1,233 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+import java.util.BitSet;
+
+/**
+ * Searches a text for all its substrings, that are accepted by an automaton, like grep.
+ * Every character of the text is one letter, as in {@link Automaton#acceptsWord(String)}, other characters never match.
+ * <p>
+ * Search runs in two passes. The backward pass reads the text from its end by DFA of Σ*·reverse(L),
+ * so it finds all positions, where some match starts, in linear time. Then the forward pass runs the reduced DFA of L
+ * from these positions only, until it has no continuation. Results are reported by {@link Search#find()},
+ * in the same way as by {@link java.util.regex.Matcher#find()}, and nothing is allocated per character or per match.
+ * </p>
+ * <p>
+ * Instances are immutable and thread safe, every {@link Search} is used by one thread.
+ * </p>
+ */
+public final class SubstringSearcher {
+    //DFA of L
+    private final AlphabetIndex index;
+    private final int[] table;
+    private final int classCount, initialState;
+    private final boolean[] accepting, live;
+
+    //DFA of Σ*·reverse(L)
+    private final AlphabetIndex reverseIndex;
+    private final int[] reverseTable;
+    private final int reverseClassCount, reverseInitialState;
+    private final boolean[] reverseAccepting;
+
+    /**
+     * Reduces the automaton and determinizes its reverse
+     */
+    public SubstringSearcher(Automaton automaton) {
+        DFAAutomaton dfa = automaton.getReduced();
+        this.index = dfa.getAlphabetIndex();
+        this.table = dfa.getClassTable();
+        this.classCount = index.getClassCount();
+        this.initialState = dfa.initialStates[0];
+        this.accepting = new boolean[dfa.getQSize()];
+        for (int s : dfa.acceptingStates) {
+            accepting[s] = true;
+        }
+        this.live = Trimmer.getCoReachable(dfa.transitions, dfa.acceptingStates);
+
+        DFAAutomaton reverse = getReverseSearch(dfa).getReduced();
+        this.reverseIndex = reverse.getAlphabetIndex();
+        this.reverseTable = reverse.getClassTable();
+        this.reverseClassCount = reverseIndex.getClassCount();
+        this.reverseInitialState = reverse.initialStates[0];
+        this.reverseAccepting = new boolean[reverse.getQSize()];
+        for (int s : reverse.acceptingStates) {
+            reverseAccepting[s] = true;
+        }
+    }
+
+    /**
+     * Builds NFA, that accepts reversed words, that end by a word of the DFA, which is Σ*·reverse(L).
+     * <p>
+     * Its states are the states of the DFA and a new initial state z, that loops by every letter.
+     * Transitions of the DFA are reversed and z goes to all accepting states of the DFA by every letter.
+     * After reading reversed suffix of a text, it is in state q iff some prefix of the suffix leads from q
+     * to an accepting state of the DFA. It accepts, iff the initial state of the DFA is among them.
+     * </p>
+     */
+    static NFAAutomaton getReverseSearch(DFAAutomaton dfa) {
+        int QSize = dfa.getQSize(), sigmaSize = dfa.getSigmaSize(), z = QSize;
+        //Reverse transitions, predecessors of q by letter are sources[starts[q * sigmaSize + letter] ..]
+        int[] starts = new int[QSize * sigmaSize + 1];
+        for (int p = 0; p < QSize; p++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int q = dfa.transitions.getTarget(p, letter);
+                if (q != -1) starts[q * sigmaSize + letter + 1]++;
+            }
+        }
+        for (int i = 0; i < QSize * sigmaSize; i++) {
+            starts[i + 1] += starts[i];
+        }
+        int[] sources = new int[starts[QSize * sigmaSize]];
+        int[] filled = new int[QSize * sigmaSize];
+        for (int p = 0; p < QSize; p++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int q = dfa.transitions.getTarget(p, letter);
+                if (q == -1) continue;
+                int cell = q * sigmaSize + letter;
+                sources[starts[cell] + filled[cell]++] = p;
+            }
+        }
+
+        TransitionTable.Builder builder = new TransitionTable.Builder(QSize + 1, sigmaSize);
+        for (int q = 0; q < QSize; q++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int cell = q * sigmaSize + letter;
+                for (int i = starts[cell]; i < starts[cell + 1]; i++) {
+                    builder.add(sources[i]);
+                }
+                builder.nextCell();
+            }
+        }
+        for (int letter = 0; letter < sigmaSize; letter++) {
+            builder.add(z).addAll(dfa.acceptingStates).nextCell();
+        }
+
+        String[] Q = new String[QSize + 1];
+        for (int i = 0; i < Q.length; i++) {
+            Q[i] = String.valueOf(i);
+        }
+        int[] initial = new int[dfa.acceptingStates.length + 1];
+        System.arraycopy(dfa.acceptingStates, 0, initial, 0, dfa.acceptingStates.length);
+        initial[initial.length - 1] = z;
+        return new NFAAutomaton(Q, dfa.getSigma(), builder.build(), initial, new int[]{dfa.initialStates[0]});
+    }
+
+    /**
+     * @return Search of leftmost longest matches, that do not overlap. Empty matches are reported as well.
+     */
+    public Search search(CharSequence text) {
+        return new Search(text, false);
+    }
+
+    /**
+     * @return Search of all matches, including overlapping ones, ordered by start and then by end
+     */
+    public Search searchOverlapping(CharSequence text) {
+        return new Search(text, true);
+    }
+
+    /**
+     * Cursor over the matches in a text. Call {@link #find()} to move to the next match,
+     * then read its span by {@link #start()} and {@link #end()}.
+     */
+    public final class Search {
+        private final CharSequence text;
+        private final boolean overlapping;
+        /**
+         * Positions, where some match starts
+         */
+        private final BitSet starts;
+        private int start = -1, end = -1;
+        //Position, from which the next start is searched
+        private int next = 0;
+        //State of the forward run from start, that is at end, used by overlapping search
+        private int state = -1;
+
+        private Search(CharSequence text, boolean overlapping) {
+            this.text = text;
+            this.overlapping = overlapping;
+            int length = text.length();
+            this.starts = new BitSet(length + 1);
+            int reverseState = reverseInitialState;
+            if (reverseAccepting[reverseState]) starts.set(length);
+            for (int i = length - 1; i >= 0; i--) {
+                int letterClass = reverseIndex.getCharClass(text.charAt(i));
+                //No match contains unknown letter, so the backward run starts again before it
+                reverseState = letterClass == -1 ? reverseInitialState
+                        : reverseTable[reverseState * reverseClassCount + letterClass];
+                if (reverseAccepting[reverseState]) starts.set(i);
+            }
+        }
+
+        /**
+         * Moves to the next match
+         *
+         * @return false if there are no more matches
+         */
+        public boolean find() {
+            return overlapping ? findOverlapping() : findLongest();
+        }
+
+        private boolean findLongest() {
+            int from = next > text.length() ? -1 : starts.nextSetBit(next);
+            if (from == -1) {
+                start = end = -1;
+                return false;
+            }
+            int longest = accepting[initialState] ? from : -1;
+            int current = initialState;
+            for (int i = from; i < text.length(); i++) {
+                int letterClass = index.getCharClass(text.charAt(i));
+                if (letterClass == -1) break;
+                current = table[current * classCount + letterClass];
+                if (current == -1 || !live[current]) break;
+                if (accepting[current]) longest = i + 1;
+            }
+            start = from;
+            end = longest;
+            next = end > start ? end : start + 1;
+            return true;
+        }
+
+        private boolean findOverlapping() {
+            while (true) {
+                if (state == -1) {
+                    int from = next > text.length() ? -1 : starts.nextSetBit(next);
+                    if (from == -1) {
+                        start = end = -1;
+                        return false;
+                    }
+                    next = from + 1;
+                    start = end = from;
+                    state = initialState;
+                    if (accepting[state]) return true;
+                }
+                while (end < text.length()) {
+                    int letterClass = index.getCharClass(text.charAt(end));
+                    state = letterClass == -1 ? -1 : table[state * classCount + letterClass];
+                    if (state == -1 || !live[state]) break;
+                    end++;
+                    if (accepting[state]) return true;
+                }
+                state = -1;
+            }
+        }
+
+        /**
+         * @return Index of the first character of the current match
+         */
+        public int start() {
+            if (start == -1) throw new IllegalStateException("No match available");
+            return start;
+        }
+
+        /**
+         * @return Index after the last character of the current match
+         */
+        public int end() {
+            if (start == -1) throw new IllegalStateException("No match available");
+            return end;
+        }
+    }
+}
@@ -0,0 +1,99 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.nio.IntBuffer;
+
+/**
+ * Immutable DFA matcher of words encoded as symbol ids, that are indices of letters in sigma of some source automaton.
+ * Symbols are translated to classes of letters of the DFA by a table, so matching does no lookups by name.
+ * Words are rejected as soon as no word of the remaining length is accepted from the current state, see {@link AcceptDistances}.
+ * It is safe to share one instance between threads.
+ */
+final class SymbolMatcher {
+    private final AlphabetIndex index;
+    private final int[] table;
+    private final int classCount, initial;
+    private final boolean[] accepting;
+    /**
+     * Minimal and maximal distances of states to accepting states, see {@link AcceptDistances#bounds}
+     */
+    private final int[] bounds;
+    /**
+     * symbolClasses[symbol] is the class of the DFA letter with the same name as the source letter, or -1
+     */
+    private final int[] symbolClasses;
+
+    /**
+     * @param dfa         DFA accepting the same language as the source automaton
+     * @param sourceSigma Letters of the source automaton, whose indices are the symbols
+     */
+    SymbolMatcher(DFAAutomaton dfa, String[] sourceSigma) {
+        this.index = dfa.getAlphabetIndex();
+        this.table = dfa.getClassTable();
+        this.classCount = index.getClassCount();
+        this.initial = dfa.initialStates[0];
+        this.bounds = dfa.getAcceptDistances().bounds;
+        this.accepting = new boolean[dfa.Q.length];
+        for (int state : dfa.acceptingStates) {
+            accepting[state] = true;
+        }
+        this.symbolClasses = new int[sourceSigma.length];
+        for (int symbol = 0; symbol < sourceSigma.length; symbol++) {
+            int letter = index.getLetterIndex(sourceSigma[symbol]);
+            symbolClasses[symbol] = letter == -1 ? -1 : index.getLetterClass(letter);
+        }
+    }
+
+    /**
+     * @return Whether the word symbols[from .. to - 1] is accepted. Unknown symbols and epsilon are rejected.
+     */
+    boolean accepts(int[] symbols, int from, int to) {
+        int state = initial;
+        if (!fits(state, to - from)) return false;
+        for (int i = from; i < to; i++) {
+            int symbol = symbols[i];
+            if (symbol < 0 || symbol >= symbolClasses.length || symbolClasses[symbol] == -1) return false;
+            state = table[state * classCount + symbolClasses[symbol]];
+            if (state == -1 || !fits(state, to - i - 1)) return false;
+        }
+        return accepting[state];
+    }
+
+    /**
+     * @return Whether the remaining symbols of the buffer are accepted. Position of the buffer is not changed.
+     */
+    boolean accepts(IntBuffer symbols) {
+        int state = initial;
+        int limit = symbols.limit();
+        if (!fits(state, limit - symbols.position())) return false;
+        for (int i = symbols.position(); i < limit; i++) {
+            int symbol = symbols.get(i);
+            if (symbol < 0 || symbol >= symbolClasses.length || symbolClasses[symbol] == -1) return false;
+            state = table[state * classCount + symbolClasses[symbol]];
+            if (state == -1 || !fits(state, limit - i - 1)) return false;
+        }
+        return accepting[state];
+    }
+
+    /**
+     * @return Whether the word is accepted, where every character is one letter, as in {@link Automaton#acceptsWord(String)}
+     */
+    boolean accepts(CharSequence word) {
+        int state = initial;
+        int length = word.length();
+        if (!fits(state, length)) return false;
+        for (int i = 0; i < length; i++) {
+            int letterClass = index.getCharClass(word.charAt(i));
+            if (letterClass == -1) return false;
+            state = table[state * classCount + letterClass];
+            if (state == -1 || !fits(state, length - i - 1)) return false;
+        }
+        return accepting[state];
+    }
+
+    /**
+     * @return Whether some word of the remaining length may be accepted from the state
+     */
+    private boolean fits(int state, int remaining) {
+        return remaining >= bounds[2 * state] && remaining <= bounds[2 * state + 1];
+    }
+}
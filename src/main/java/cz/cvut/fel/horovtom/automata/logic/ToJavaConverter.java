@@ -0,0 +1,111 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import cz.cvut.fel.horovtom.automata.logic.converters.JavaSourceWriter;
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+
+/**
+ * This class is used to convert Automaton to source of a standalone Java class, that matches the same words
+ * and does not depend on this library.
+ * <p>
+ * Generated class contains reduced DFA as packed int[] table over classes of letters, where states, from which
+ * no accepting state is reachable, are replaced by <code>DEAD</code> (-1). It has these static methods:
+ * <pre>
+ * boolean matches(CharSequence word) - whether the word is accepted, nothing is allocated
+ * int step(int state, char c)        - next state for streaming input, starting from INITIAL
+ * boolean isAccepting(int state)     - whether the input read so far is accepted
+ * </pre>
+ * Every character of the input is one letter, as in {@link Automaton#acceptsWord(String)}, so letters with more than
+ * one character are never matched.
+ * </p>
+ */
+public class ToJavaConverter {
+    private final int initial, classCount;
+    private final int[] charClasses;
+    private final int[] table;
+    private final int[] accepting;
+
+    public ToJavaConverter(Automaton a) {
+        DFAAutomaton dfa = a.getReduced();
+        AlphabetIndex index = dfa.getAlphabetIndex();
+        boolean[] live = Trimmer.getCoReachable(dfa.transitions, dfa.acceptingStates);
+        this.classCount = index.getClassCount();
+        this.initial = live[dfa.initialStates[0]] ? dfa.initialStates[0] : -1;
+
+        int[] classTable = dfa.getClassTable();
+        this.table = new int[classTable.length];
+        for (int i = 0; i < classTable.length; i++) {
+            int target = classTable[i];
+            table[i] = target == -1 || !live[target] ? -1 : target;
+        }
+        this.accepting = new int[dfa.getQSize()];
+        for (int state : dfa.acceptingStates) {
+            accepting[state] = 1;
+        }
+
+        int maxChar = -1;
+        for (int c = 0; c <= Character.MAX_VALUE; c++) {
+            if (index.getCharClass((char) c) != -1) maxChar = c;
+        }
+        this.charClasses = new int[maxChar + 1];
+        for (int c = 0; c <= maxChar; c++) {
+            charClasses[c] = index.getCharClass((char) c);
+        }
+    }
+
+    /**
+     * @param packageName Package of the class, or empty string for the default package
+     * @param className   Simple name of the class
+     * @return Source of the class
+     */
+    public String getSource(String packageName, String className) {
+        if (!JavaSourceWriter.isIdentifier(className)) throw new IllegalArgumentException("Invalid class name: " + className);
+        StringBuilder sb = new StringBuilder();
+        JavaSourceWriter.appendPackage(sb, packageName);
+        sb.append("/**\n");
+        sb.append(" * Matcher of DFA with ").append(accepting.length).append(" states, generated by JAutomata.\n");
+        sb.append(" */\n");
+        sb.append("public final class ").append(className).append(" {\n");
+        sb.append("    /**\n");
+        sb.append("     * State, from which no word is accepted\n");
+        sb.append("     */\n");
+        sb.append("    public static final int DEAD = -1;\n");
+        sb.append("    public static final int INITIAL = ").append(initial).append(";\n");
+        sb.append("    private static final int CLASS_COUNT = ").append(classCount).append(";\n");
+        JavaSourceWriter.appendTable(sb, "CHAR_CLASSES", charClasses);
+        JavaSourceWriter.appendTable(sb, "TABLE", table);
+        JavaSourceWriter.appendTable(sb, "ACCEPTING", accepting);
+        sb.append("\n");
+        sb.append("    private ").append(className).append("() {\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * @return Whether the word is accepted\n");
+        sb.append("     */\n");
+        sb.append("    public static boolean matches(CharSequence word) {\n");
+        sb.append("        int state = INITIAL;\n");
+        sb.append("        for (int i = 0, length = word.length(); i < length && state != DEAD; i++) {\n");
+        sb.append("            char c = word.charAt(i);\n");
+        sb.append("            int letterClass = c < CHAR_CLASSES.length ? CHAR_CLASSES[c] : -1;\n");
+        sb.append("            if (letterClass == -1) return false;\n");
+        sb.append("            state = TABLE[state * CLASS_COUNT + letterClass];\n");
+        sb.append("        }\n");
+        sb.append("        return isAccepting(state);\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * @return State after reading the character, or DEAD if no word with this prefix is accepted\n");
+        sb.append("     */\n");
+        sb.append("    public static int step(int state, char c) {\n");
+        sb.append("        if (state == DEAD || c >= CHAR_CLASSES.length) return DEAD;\n");
+        sb.append("        int letterClass = CHAR_CLASSES[c];\n");
+        sb.append("        return letterClass == -1 ? DEAD : TABLE[state * CLASS_COUNT + letterClass];\n");
+        sb.append("    }\n\n");
+        sb.append("    /**\n");
+        sb.append("     * @return Whether the input, that led to the state, is accepted\n");
+        sb.append("     */\n");
+        sb.append("    public static boolean isAccepting(int state) {\n");
+        sb.append("        return state != DEAD && ACCEPTING[state] != 0;\n");
+        sb.append("    }\n\n");
+        JavaSourceWriter.appendDecoder(sb);
+        sb.append("}\n");
+        return sb.toString();
+    }
+}
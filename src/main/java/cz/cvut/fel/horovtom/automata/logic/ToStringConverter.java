@@ -11,7 +11,7 @@ public class ToStringConverter {
     private final Logger LOGGER = Logger.getLogger(ToStringConverter.class.getName());
     private final String[] sigma;
     private final String[] Q;
-    private final HashMap<Integer, HashMap<Integer, int[]>> transitions;
+    private final TransitionTable transitions;
     private final int[] initials;
     private final int[] accepting;
     private final String description;
@@ -56,7 +56,7 @@ public class ToStringConverter {
             ret[where] = epsFound ? 1 : this.sigma[letter].length();
             for (int state = 0; state < this.Q.length; state++) {
                 int curr = -1;
-                for (int i : this.transitions.get(state).get(letter)) {
+                for (int i : this.transitions.getTargets(state, letter)) {
                     if (i >= this.Q.length || i < 0) {
                         LOGGER.severe("Malformed automaton! States are shorter than they should be!");
                         continue;
@@ -76,7 +76,7 @@ public class ToStringConverter {
     public ToStringConverter(Automaton a) {
         this.sigma = a.getSigma();
         this.Q = a.getQ();
-        this.transitions = a.getTransitions();
+        this.transitions = a.transitions;
         this.initials = a.getInitialStates();
         this.accepting = a.getAcceptingStates();
         this.description = a.getDescription();
@@ -186,7 +186,7 @@ public class ToStringConverter {
             sb.append("| ").append(io).append(" |").append(String.format("%1$-" + (columnLengths[0]) + "s", Q[state])).append("|");
             //Letters
             for (int letter = 0; letter < sigma.length; letter++) {
-                int[] ints = transitions.get(state).get(letter);
+                int[] ints = transitions.getTargets(state, letter);
                 sb.append(" ");
                 StringBuilder a = new StringBuilder();
                 if (ints.length > 0) {
@@ -238,7 +238,7 @@ public class ToStringConverter {
             //Transitions
             for (int letter = 0; letter < this.sigma.length; letter++) {
                 StringBuilder cell = new StringBuilder();
-                int[] transitions = this.transitions.get(state).get(letter);
+                int[] transitions = this.transitions.getTargets(state, letter);
                 if (transitions.length == 0) {
                     result.append(String.format("%1$-" + (columnLengths[letter + 1] + 1) + "s", ""));
                     continue;
@@ -294,7 +294,7 @@ public class ToStringConverter {
             res.append("</td><td>").append(this.Q[i]).append("</td>");
             for (int letter = 0; letter < this.sigma.length; letter++) {
                 res.append("<td>");
-                int[] cell = this.transitions.get(i).get(letter);
+                int[] cell = this.transitions.getTargets(i, letter);
                 StringBuilder cellString = new StringBuilder();
                 if (cell.length != 0)
                     cellString.append(this.Q[cell[0]]);
@@ -365,7 +365,7 @@ public class ToStringConverter {
             //Transitions
             for (int letter = 0; letter < this.sigma.length; letter++) {
                 res.append("& ");
-                int[] current = this.transitions.get(state).get(letter);
+                int[] current = this.transitions.getTargets(state, letter);
                 if (current.length != 0)
                     res.append("$").append(this.Q[current[0]]);
                 for (int i = 1; i < current.length; i++) {
@@ -463,9 +463,8 @@ public class ToStringConverter {
      * @return true if there is an edge from state to target
      */
     private boolean hasEdgeFromTo(int state, int target) {
-        HashMap<Integer, int[]> states = this.transitions.get(state);
         for (int letter = 0; letter < this.sigma.length; letter++) {
-            for (int i : states.get(letter)) {
+            for (int i : this.transitions.getTargets(state, letter)) {
                 if (i == target) return true;
             }
         }
@@ -478,10 +477,8 @@ public class ToStringConverter {
     private HashMap<Integer, ArrayList<Integer>> getEdgesFromState(int state) {
         // key: target, value: letters
         HashMap<Integer, ArrayList<Integer>> res = new HashMap<>();
-        // key: letter, value: targets
-        HashMap<Integer, int[]> stateTransitions = this.transitions.get(state);
         for (int letter = 0; letter < this.sigma.length; letter++) {
-            int[] targs = stateTransitions.get(letter);
+            int[] targs = this.transitions.getTargets(state, letter);
             for (int targ : targs) {
                 if (!res.containsKey(targ)) {
                     res.put(targ, new ArrayList<>());
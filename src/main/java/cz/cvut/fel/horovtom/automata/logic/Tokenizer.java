@@ -0,0 +1,62 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+
+/**
+ * This class encodes words to symbol ids of an automaton once, so that they can be accepted many times
+ * without looking up letters by name, see {@link Automaton#acceptsWord(int[])}.
+ * <p>
+ * Symbol id is the index of the letter in sigma of the automaton. Unknown letters are encoded as {@link #UNKNOWN},
+ * and words containing them are never accepted. Instances are immutable.
+ * </p>
+ */
+public final class Tokenizer {
+    public static final int UNKNOWN = -1;
+    private final AlphabetIndex index;
+
+    public Tokenizer(Automaton automaton) {
+        this.index = automaton.getAlphabetIndex();
+    }
+
+    /**
+     * Every character of the word is one letter, as in {@link Automaton#acceptsWord(String)}
+     */
+    public int[] encode(String word) {
+        int[] symbols = new int[word.length()];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = index.getLetterIndex(word.charAt(i));
+        }
+        return symbols;
+    }
+
+    /**
+     * @param word Array of letters from sigma
+     */
+    public int[] encode(String[] word) {
+        int[] symbols = new int[word.length];
+        for (int i = 0; i < symbols.length; i++) {
+            symbols[i] = index.getLetterIndex(word[i]);
+        }
+        return symbols;
+    }
+
+    /**
+     * Encodes words, where every character is one letter, into one batch
+     */
+    public WordBatch encodeAll(Iterable<String> words) {
+        int[] symbols = new int[64];
+        int[] offsets = new int[17];
+        int count = 0, size = 0;
+        for (String word : words) {
+            if (count + 1 == offsets.length) offsets = Arrays.copyOf(offsets, offsets.length * 2);
+            if (size + word.length() > symbols.length) {
+                symbols = Arrays.copyOf(symbols, Math.max(symbols.length * 2, size + word.length()));
+            }
+            for (int i = 0; i < word.length(); i++) {
+                symbols[size++] = index.getLetterIndex(word.charAt(i));
+            }
+            offsets[++count] = size;
+        }
+        return new WordBatch(Arrays.copyOf(symbols, size), Arrays.copyOf(offsets, count + 1));
+    }
+}
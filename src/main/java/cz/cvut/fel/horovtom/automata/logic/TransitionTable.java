@@ -0,0 +1,251 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+import java.util.HashMap;
+
+/**
+ * Immutable flat representation of the transition function &delta; : Q x &Sigma; &rarr; P(Q).
+ * <p>
+ * Cells are stored in row-major order, so the cell of state <i>q</i> and letter <i>l</i> has index
+ * <i>q * sigmaSize + l</i>. If every cell holds exactly one target, the table is stored densely
+ * as a single <code>int[]</code> of targets. Otherwise it is stored in compressed sparse row format: an array of offsets
+ * points into a shared array of targets, so that targets of cell <i>c</i> are
+ * <code>targets[offsets[c]] .. targets[offsets[c + 1] - 1]</code>. Empty cells take no space in the targets array.
+ * </p>
+ * <p>
+ * Targets of every cell are sorted in ascending order and contain no duplicates.
+ * </p>
+ * <p>
+ * Hot loops should use {@link #getTarget(int, int)} for deterministic tables and
+ * {@link #getStart(int, int)}, {@link #getEnd(int, int)} and {@link #getTargetAt(int)} for the general case,
+ * which do not allocate.
+ * </p>
+ */
+public final class TransitionTable {
+    private final int QSize, sigmaSize;
+    /**
+     * Offsets of cells into targets array. Null if this table is dense.
+     */
+    private final int[] offsets;
+    /**
+     * Targets of all cells. If this table is dense, it holds exactly one target per cell.
+     */
+    private final int[] targets;
+
+    private TransitionTable(int QSize, int sigmaSize, int[] offsets, int[] targets) {
+        this.QSize = QSize;
+        this.sigmaSize = sigmaSize;
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Creates deterministic table from array, where table[state * sigmaSize + letter] is the target state
+     */
+    public static TransitionTable fromDense(int QSize, int sigmaSize, int[] table) {
+        if (table.length != QSize * sigmaSize) {
+            throw new IllegalArgumentException("Dense table has " + table.length + " cells, expected " + QSize * sigmaSize);
+        }
+        return new TransitionTable(QSize, sigmaSize, null, Arrays.copyOf(table, table.length));
+    }
+
+    /**
+     * Creates table from transitions map, where first key is the state and second key is the letter.
+     * Missing rows and cells are considered empty.
+     */
+    public static TransitionTable fromHashMap(int QSize, int sigmaSize, HashMap<Integer, HashMap<Integer, int[]>> transitions) {
+        Builder builder = new Builder(QSize, sigmaSize);
+        for (int state = 0; state < QSize; state++) {
+            HashMap<Integer, int[]> row = transitions.get(state);
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int[] cell = row == null ? null : row.get(letter);
+                if (cell != null) builder.addAll(cell);
+                builder.nextCell();
+            }
+        }
+        return builder.build();
+    }
+
+    /**
+     * Creates deterministic table from transitions map, where first key is the state and second key is the letter.
+     */
+    public static TransitionTable fromDeterministicHashMap(int QSize, int sigmaSize, HashMap<Integer, HashMap<Integer, Integer>> transitions) {
+        int[] table = new int[QSize * sigmaSize];
+        for (int state = 0; state < QSize; state++) {
+            HashMap<Integer, Integer> row = transitions.get(state);
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                table[state * sigmaSize + letter] = row.get(letter);
+            }
+        }
+        return new TransitionTable(QSize, sigmaSize, null, table);
+    }
+
+    public int getQSize() {
+        return QSize;
+    }
+
+    public int getSigmaSize() {
+        return sigmaSize;
+    }
+
+    /**
+     * @return Total number of transitions stored in this table
+     */
+    public int getTransitionCount() {
+        return targets.length;
+    }
+
+    /**
+     * @return Whether there is transition from state by letter to target
+     */
+    public boolean hasTransition(int state, int letter, int target) {
+        return Arrays.binarySearch(targets, getStart(state, letter), getEnd(state, letter), target) >= 0;
+    }
+
+    /**
+     * @return Whether every cell of this table has exactly one target
+     */
+    public boolean isDeterministic() {
+        return offsets == null;
+    }
+
+    /**
+     * @return The first target of the cell, or -1 if the cell is empty
+     */
+    public int getTarget(int state, int letter) {
+        int cell = state * sigmaSize + letter;
+        if (offsets == null) return targets[cell];
+        int start = offsets[cell];
+        return start < offsets[cell + 1] ? targets[start] : -1;
+    }
+
+    /**
+     * @return Index of the first target of the cell, see {@link #getTargetAt(int)}
+     */
+    public int getStart(int state, int letter) {
+        int cell = state * sigmaSize + letter;
+        return offsets == null ? cell : offsets[cell];
+    }
+
+    /**
+     * @return Index after the last target of the cell, see {@link #getTargetAt(int)}
+     */
+    public int getEnd(int state, int letter) {
+        int cell = state * sigmaSize + letter;
+        return offsets == null ? cell + 1 : offsets[cell + 1];
+    }
+
+    /**
+     * @param index Index between {@link #getStart(int, int)} and {@link #getEnd(int, int)}
+     * @return Target state stored on that index
+     */
+    public int getTargetAt(int index) {
+        return targets[index];
+    }
+
+    /**
+     * @return byval copy of the targets of the cell
+     */
+    public int[] getTargets(int state, int letter) {
+        return Arrays.copyOfRange(targets, getStart(state, letter), getEnd(state, letter));
+    }
+
+    /**
+     * @return Array where table[state * sigmaSize + letter] is the first target of the cell, or -1 if the cell is empty
+     */
+    public int[] getDenseTable() {
+        if (offsets == null) return Arrays.copyOf(targets, targets.length);
+        int[] table = new int[QSize * sigmaSize];
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                table[state * sigmaSize + letter] = getTarget(state, letter);
+            }
+        }
+        return table;
+    }
+
+    /**
+     * @return Transitions in map format used by the public API
+     */
+    public HashMap<Integer, HashMap<Integer, int[]>> toHashMap() {
+        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>(QSize);
+        for (int state = 0; state < QSize; state++) {
+            HashMap<Integer, int[]> row = new HashMap<>(sigmaSize);
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                row.put(letter, getTargets(state, letter));
+            }
+            transitions.put(state, row);
+        }
+        return transitions;
+    }
+
+    /**
+     * This class is used to fill the table cell by cell in row-major order.
+     * Targets of a cell can be added in any order and with duplicates, they are sorted and deduplicated when the cell is closed.
+     */
+    public static final class Builder {
+        private final int QSize, sigmaSize;
+        private final int[] offsets;
+        private int[] targets;
+        private int cell = 0, size = 0;
+
+        public Builder(int QSize, int sigmaSize) {
+            this.QSize = QSize;
+            this.sigmaSize = sigmaSize;
+            this.offsets = new int[QSize * sigmaSize + 1];
+            this.targets = new int[Math.max(16, QSize)];
+        }
+
+        /**
+         * Adds target to the current cell
+         */
+        public Builder add(int target) {
+            if (size == targets.length) {
+                targets = Arrays.copyOf(targets, targets.length * 2);
+            }
+            targets[size++] = target;
+            return this;
+        }
+
+        /**
+         * Adds targets to the current cell
+         */
+        public Builder addAll(int[] cellTargets) {
+            for (int target : cellTargets) {
+                add(target);
+            }
+            return this;
+        }
+
+        /**
+         * Closes the current cell and moves to the next one
+         */
+        public Builder nextCell() {
+            int start = offsets[cell];
+            if (size - start > 1) {
+                Arrays.sort(targets, start, size);
+                int last = start;
+                for (int i = start + 1; i < size; i++) {
+                    if (targets[i] != targets[last]) targets[++last] = targets[i];
+                }
+                size = last + 1;
+            }
+            offsets[++cell] = size;
+            return this;
+        }
+
+        public TransitionTable build() {
+            if (cell != QSize * sigmaSize) {
+                throw new IllegalStateException("Transition table has " + cell + " cells filled, expected " + QSize * sigmaSize);
+            }
+            boolean dense = size == cell;
+            for (int i = 0; dense && i < cell; i++) {
+                if (offsets[i + 1] - offsets[i] != 1) dense = false;
+            }
+            if (dense) {
+                return new TransitionTable(QSize, sigmaSize, null, Arrays.copyOf(targets, size));
+            }
+            return new TransitionTable(QSize, sigmaSize, offsets, Arrays.copyOf(targets, size));
+        }
+    }
+}
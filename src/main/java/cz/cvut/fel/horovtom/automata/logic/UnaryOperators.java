@@ -1,7 +1,6 @@
 package cz.cvut.fel.horovtom.automata.logic;
 
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
 import java.util.logging.Logger;
 
@@ -34,53 +33,47 @@ public class UnaryOperators {
     }
 
     private void createKleene() {
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = a.getTransitions();
+        TransitionTable transitions = a.transitions;
         String[] q = a.getQ();
         String[] sigma = a.getSigma();
         int[] acceptingStates = a.getAcceptingStates();
         int[] initialStates = a.getInitialStates();
-        HashMap<Integer, HashMap<Integer, int[]>> newTransitions = new HashMap<>();
-
-        int eps = aEps;
 
+        //If there are no eps transitions, new eps letter is added at index 0 and the others are shifted
+        int shift = aEps == -1 ? 1 : 0;
+        int eps = aEps == -1 ? 0 : aEps;
         if (aEps == -1) {
-            //Add eps transitions
             String[] newSigma = new String[sigma.length + 1];
             newSigma[0] = "eps";
-
             System.arraycopy(sigma, 0, newSigma, 1, sigma.length);
-
-            for (int i = 0; i < q.length; i++) {
-                //Letters
-                HashMap<Integer, int[]> row = new HashMap<>();
-                row.put(0, new int[0]);
-                for (int i1 = 0; i1 < sigma.length; i1++) {
-                    row.put(i1 + 1, transitions.get(i).get(i1));
-                }
-                newTransitions.put(i, row);
-            }
-            transitions = newTransitions;
             sigma = newSigma;
-            eps = 0;
         }
 
-
+        boolean[] accepting = new boolean[q.length];
         for (int acceptingState : acceptingStates) {
-            int[] targs = transitions.get(acceptingState).get(eps);
-            HashSet<Integer> newTargs = new HashSet<>();
-            for (int initialState : initialStates) {
-                newTargs.add(initialState);
-            }
-            for (int targ : targs) {
-                newTargs.add(targ);
+            accepting[acceptingState] = true;
+        }
+
+        TransitionTable.Builder builder = new TransitionTable.Builder(q.length, sigma.length);
+        for (int state = 0; state < q.length; state++) {
+            for (int letter = 0; letter < sigma.length; letter++) {
+                int[] targs = letter == eps && shift == 1 ? new int[0] : transitions.getTargets(state, letter - shift);
+                if (letter == eps && accepting[state]) {
+                    HashSet<Integer> newTargs = new HashSet<>();
+                    for (int initialState : initialStates) {
+                        newTargs.add(initialState);
+                    }
+                    for (int targ : targs) {
+                        newTargs.add(targ);
+                    }
+                    targs = newTargs.stream().mapToInt(a -> a).toArray();
+                    Arrays.sort(targs);
+                }
+                builder.addAll(targs).nextCell();
             }
-            int[] newTargsArr = newTargs.stream().mapToInt(a -> a).toArray();
-            Arrays.sort(newTargsArr);
-            transitions.get(acceptingState).remove(eps);
-            transitions.get(acceptingState).put(eps, newTargsArr);
         }
 
-        kleene = new ENFAAutomaton(q, sigma, transitions, initialStates, acceptingStates);
+        kleene = new ENFAAutomaton(q, sigma, builder.build(), initialStates, acceptingStates);
     }
 
     public Automaton getKleene() {
@@ -103,7 +96,6 @@ public class UnaryOperators {
         Automaton a = this.a.getReduced();
         String[] Q = a.getQ();
         String[] sigma = a.getSigma();
-        HashMap<Integer, HashMap<Integer, int[]>> transitions = a.getTransitions();
         int[] initialStates = a.getInitialStates();
         int[] acceptingStates = a.getAcceptingStates();
 
@@ -117,6 +109,6 @@ public class UnaryOperators {
             newAccepting[current++] = i;
         }
 
-        this.complement = new ENFAAutomaton(Q, sigma, transitions, initialStates, newAccepting);
+        this.complement = new ENFAAutomaton(Q, sigma, a.transitions, initialStates, newAccepting);
     }
 }
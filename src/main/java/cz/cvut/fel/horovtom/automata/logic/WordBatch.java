@@ -0,0 +1,62 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+import java.util.Arrays;
+
+/**
+ * Immutable batch of words encoded as symbol ids, see {@link Tokenizer}.
+ * All words are stored in one array, word i is symbols[offsets[i] .. offsets[i + 1] - 1].
+ */
+public final class WordBatch {
+    private final int[] symbols;
+    private final int[] offsets;
+
+    WordBatch(int[] symbols, int[] offsets) {
+        this.symbols = symbols;
+        this.offsets = offsets;
+    }
+
+    /**
+     * Creates batch from already encoded words
+     */
+    public static WordBatch of(int[]... words) {
+        int[] offsets = new int[words.length + 1];
+        for (int i = 0; i < words.length; i++) {
+            offsets[i + 1] = offsets[i] + words[i].length;
+        }
+        int[] symbols = new int[offsets[words.length]];
+        for (int i = 0; i < words.length; i++) {
+            System.arraycopy(words[i], 0, symbols, offsets[i], words[i].length);
+        }
+        return new WordBatch(symbols, offsets);
+    }
+
+    /**
+     * @return Number of words in this batch
+     */
+    public int size() {
+        return offsets.length - 1;
+    }
+
+    /**
+     * @return Copy of the symbols of the word
+     */
+    public int[] getWord(int word) {
+        return Arrays.copyOfRange(symbols, offsets[word], offsets[word + 1]);
+    }
+
+    public int getLength(int word) {
+        return offsets[word + 1] - offsets[word];
+    }
+
+    int[] getSymbols() {
+        return symbols;
+    }
+
+    int getStart(int word) {
+        return offsets[word];
+    }
+
+    int getEnd(int word) {
+        return offsets[word + 1];
+    }
+}
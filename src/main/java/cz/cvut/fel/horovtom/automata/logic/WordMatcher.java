@@ -0,0 +1,12 @@
+package cz.cvut.fel.horovtom.automata.logic;
+
+/**
+ * Matcher of whole words, where every character is one letter, as in {@link Automaton#acceptsWord(String)}.
+ * Implementations are immutable and thread safe, see {@link MatcherCompiler}.
+ */
+public interface WordMatcher {
+    /**
+     * @return Whether the word is accepted. Words with unknown letters are rejected.
+     */
+    boolean matches(CharSequence word);
+}
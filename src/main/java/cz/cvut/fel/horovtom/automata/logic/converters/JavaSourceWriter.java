@@ -0,0 +1,100 @@
+package cz.cvut.fel.horovtom.automata.logic.converters;
+
+/**
+ * This class writes tables of generated Java classes.
+ * <p>
+ * Large array initializers do not fit into the 64 KB limit of a class initializer, so tables are written
+ * as string literals, where every int is stored in two chars, and decoded once, when the generated class is loaded.
+ * Literals are split to chunks, that fit into the limit of a string constant.
+ * </p>
+ */
+public final class JavaSourceWriter {
+    /**
+     * Number of chars of one string literal, every char takes at most 3 bytes of the class file constant
+     */
+    private static final int CHUNK = 8192;
+
+    private JavaSourceWriter() {
+    }
+
+    /**
+     * Appends declaration of a constant array, that is decoded by the method written by {@link #appendDecoder(StringBuilder)}.
+     * Values have to be greater than or equal to -1.
+     */
+    public static void appendTable(StringBuilder sb, String name, int[] values) {
+        sb.append("    private static final int[] ").append(name).append(" = decode(").append(values.length).append(", new String[]{");
+        for (int i = 0; i < values.length; i++) {
+            if (i % (CHUNK / 2) == 0) sb.append(i == 0 ? "\n            \"" : "\",\n            \"");
+            int value = values[i] + 1;
+            appendChar(sb, (char) (value >>> 16));
+            appendChar(sb, (char) value);
+        }
+        if (values.length > 0) sb.append("\"\n    ");
+        sb.append("});\n");
+    }
+
+    /**
+     * Escapes the char for a string literal. Unicode escapes of line breaks, quotes and backslashes
+     * would be translated before the literal is parsed, so they use character escapes.
+     */
+    private static void appendChar(StringBuilder sb, char c) {
+        switch (c) {
+            case '\n':
+                sb.append("\\n");
+                break;
+            case '\r':
+                sb.append("\\r");
+                break;
+            case '"':
+                sb.append("\\\"");
+                break;
+            case '\\':
+                sb.append("\\\\");
+                break;
+            default:
+                if (c >= 0x20 && c < 0x7F) {
+                    sb.append(c);
+                } else {
+                    sb.append(String.format("\\u%04x", (int) c));
+                }
+        }
+    }
+
+    /**
+     * Appends the method, that decodes tables written by {@link #appendTable(StringBuilder, String, int[])}
+     */
+    public static void appendDecoder(StringBuilder sb) {
+        sb.append("    private static int[] decode(int length, String[] chunks) {\n");
+        sb.append("        int[] values = new int[length];\n");
+        sb.append("        int i = 0;\n");
+        sb.append("        for (String chunk : chunks) {\n");
+        sb.append("            for (int j = 0; j < chunk.length(); j += 2) {\n");
+        sb.append("                values[i++] = (chunk.charAt(j) << 16 | chunk.charAt(j + 1)) - 1;\n");
+        sb.append("            }\n");
+        sb.append("        }\n");
+        sb.append("        return values;\n");
+        sb.append("    }\n");
+    }
+
+    /**
+     * @return Whether the name is a valid Java identifier, that can be used as a name of a generated class
+     */
+    public static boolean isIdentifier(String name) {
+        if (name.isEmpty() || !Character.isJavaIdentifierStart(name.charAt(0))) return false;
+        for (int i = 1; i < name.length(); i++) {
+            if (!Character.isJavaIdentifierPart(name.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Appends package declaration, unless the package is empty
+     */
+    public static void appendPackage(StringBuilder sb, String packageName) {
+        if (packageName == null || packageName.isEmpty()) return;
+        for (String part : packageName.split("\\.", -1)) {
+            if (!isIdentifier(part)) throw new IllegalArgumentException("Invalid package name: " + packageName);
+        }
+        sb.append("package ").append(packageName).append(";\n\n");
+    }
+}
@@ -1,5 +1,7 @@
 package cz.cvut.fel.horovtom.automata.logic.reducers;
 
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -8,11 +10,29 @@ import java.util.logging.Logger;
 public class DFAReducer {
     private static Logger LOGGER = Logger.getLogger(DFAReducer.class.getName());
 
-    private final HashMap<Integer, HashMap<Integer, Integer>> originalTransitions;
+    /**
+     * Algorithm used to find equivalent states
+     */
+    public enum Algorithm {
+        /**
+         * Reduction table, that gets a new column until the partition of states stops changing. O(n^2 * |&Sigma;|)
+         */
+        TABLE,
+        /**
+         * Hopcroft's partition refinement, see {@link HopcroftMinimizer}. O(n * |&Sigma;| * log n)
+         */
+        HOPCROFT
+    }
+
+    /**
+     * Original transitions, where originalTransitions[state * sigmaSize + letter] is the target state
+     */
+    private final int[] originalTransitions;
     private final int originalInitial;
     private final int[] originalAccepting;
     private final int QSize, sigmaSize;
-    private HashMap<Integer, HashMap<Integer, Integer>> reducedTransitions;
+    private final Algorithm algorithm;
+    private int[] reducedTransitions;
     private int reducedInitial;
     private int[] reducedAccepting;
     private ArrayList<ArrayList<Integer>> reductionTable;
@@ -22,16 +42,59 @@ public class DFAReducer {
     private String[] reducedQ;
 
     public DFAReducer(HashMap<Integer, HashMap<Integer, Integer>> originalTransitions, int initial, int[] accepting) {
+        this(toTable(originalTransitions, originalTransitions.get(initial).keySet().size()), originalTransitions.keySet().size(),
+                originalTransitions.get(initial).keySet().size(), initial, accepting);
+    }
+
+    /**
+     * @param originalTransitions Array, where originalTransitions[state * sigmaSize + letter] is the target state
+     */
+    public DFAReducer(int[] originalTransitions, int QSize, int sigmaSize, int initial, int[] accepting) {
+        this(originalTransitions, QSize, sigmaSize, initial, accepting, Algorithm.HOPCROFT);
+    }
+
+    /**
+     * @param originalTransitions Array, where originalTransitions[state * sigmaSize + letter] is the target state
+     * @param algorithm           Algorithm used to find equivalent states
+     */
+    public DFAReducer(int[] originalTransitions, int QSize, int sigmaSize, int initial, int[] accepting, Algorithm algorithm) {
+        this.algorithm = algorithm;
         this.originalTransitions = originalTransitions;
         this.originalInitial = initial;
         this.originalAccepting = accepting;
-        this.QSize = this.originalTransitions.keySet().size();
-        this.sigmaSize = this.originalTransitions.get(initial).keySet().size();
+        this.QSize = QSize;
+        this.sigmaSize = sigmaSize;
         reduce();
     }
 
+    private static int[] toTable(HashMap<Integer, HashMap<Integer, Integer>> transitions, int sigmaSize) {
+        int[] table = new int[transitions.size() * sigmaSize];
+        for (int state = 0; state < transitions.size(); state++) {
+            HashMap<Integer, Integer> row = transitions.get(state);
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                table[state * sigmaSize + letter] = row.get(letter);
+            }
+        }
+        return table;
+    }
+
     public HashMap<Integer, HashMap<Integer, Integer>> getReducedTransitions() {
-        return reducedTransitions;
+        HashMap<Integer, HashMap<Integer, Integer>> returning = new HashMap<>();
+        for (int state = 0; state < this.reducedQ.length; state++) {
+            HashMap<Integer, Integer> row = new HashMap<>();
+            returning.put(state, row);
+            for (int letter = 0; letter < this.sigmaSize; letter++) {
+                row.put(letter, this.reducedTransitions[state * this.sigmaSize + letter]);
+            }
+        }
+        return returning;
+    }
+
+    /**
+     * @return Array, where table[state * sigmaSize + letter] is the target state in the reduced automaton
+     */
+    public int[] getReducedTable() {
+        return Arrays.copyOf(this.reducedTransitions, this.reducedTransitions.length);
     }
 
     public int[] getReducedAccepting() {
@@ -47,7 +110,10 @@ public class DFAReducer {
             LOGGER.finer("Trying to further reduce already reduced reducer");
             return;
         }
-        //TODO: IMPLEMENT SAVING PROCESS
+        if (this.algorithm == Algorithm.HOPCROFT) {
+            reduceHopcroft();
+            return;
+        }
 
         initializeReductionTable();
         while (true) {
@@ -55,25 +121,29 @@ public class DFAReducer {
         }
 
         int namesCol = this.reductionTable.get(0).size() - 2 - this.sigmaSize;
-        this.reducedTransitions = new HashMap<>();
+        int reducedCount = 0;
+        for (ArrayList<Integer> row : this.reductionTable) {
+            reducedCount = Math.max(reducedCount, row.get(namesCol) + 1);
+        }
+        this.reducedTransitions = new int[reducedCount * this.sigmaSize];
+        boolean[] filled = new boolean[reducedCount];
 
         ArrayList<Integer> newAccepting = new ArrayList<>();
         ArrayList<String> reducedStates = new ArrayList<>();
 
 
         for (int state = 0; state < this.reductionTable.size(); state++) {
-            if (this.reducedTransitions.containsKey(this.reductionTable.get(state).get(namesCol))) continue;
-            HashMap<Integer, Integer> curr = new HashMap<>();
-            for (int letter = 0; letter < this.sigmaSize; letter++) {
-                curr.put(letter, this.reductionTable.get(state).get(namesCol + letter + 1));
-            }
-
             int currentStateKey = this.reductionTable.get(state).get(namesCol);
-            this.reducedTransitions.put(currentStateKey, curr);
-            reducedStates.add(String.valueOf(currentStateKey));
             if (this.reductionTableInitial == state) {
                 reducedInitial = currentStateKey;
             }
+            if (filled[currentStateKey]) continue;
+            filled[currentStateKey] = true;
+            for (int letter = 0; letter < this.sigmaSize; letter++) {
+                this.reducedTransitions[currentStateKey * this.sigmaSize + letter] = this.reductionTable.get(state).get(namesCol + letter + 1);
+            }
+
+            reducedStates.add(String.valueOf(currentStateKey));
             if (this.reductionTableAccepting.contains(state)) {
                 newAccepting.add(currentStateKey);
             }
@@ -83,7 +153,72 @@ public class DFAReducer {
 
         this.reducedAccepting = newAccepting.stream().mapToInt(a -> a).toArray();
 
-        LOGGER.fine("Reduced automaton reduction table: \n" + getReductionTableInString());
+        LOGGER.fine(() -> "Reduced automaton reduction table: \n" + getReductionTableInString());
+    }
+
+    private void reduceHopcroft() {
+        int[] references = new int[QSize];
+        int reachableCount = findReachables(references);
+        int[] table = new int[reachableCount * sigmaSize];
+        boolean[] accepting = new boolean[reachableCount];
+        for (int state = 0; state < QSize; state++) {
+            if (references[state] == -1) continue;
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                table[references[state] * sigmaSize + letter] = references[originalTransitions[state * sigmaSize + letter]];
+            }
+        }
+        for (int state : originalAccepting) {
+            if (references[state] != -1) accepting[references[state]] = true;
+        }
+
+        HopcroftMinimizer minimizer = new HopcroftMinimizer(table, reachableCount, sigmaSize, accepting);
+        int[] classes = minimizer.getClasses();
+        int reducedCount = minimizer.getClassCount();
+
+        this.reducedTransitions = new int[reducedCount * sigmaSize];
+        boolean[] reducedAcceptingFlags = new boolean[reducedCount];
+        for (int state = 0; state < reachableCount; state++) {
+            int reducedState = classes[state];
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                reducedTransitions[reducedState * sigmaSize + letter] = classes[table[state * sigmaSize + letter]];
+            }
+            if (accepting[state]) reducedAcceptingFlags[reducedState] = true;
+        }
+        this.reducedInitial = classes[references[originalInitial]];
+
+        int acceptingCount = 0;
+        for (boolean flag : reducedAcceptingFlags) {
+            if (flag) acceptingCount++;
+        }
+        this.reducedAccepting = new int[acceptingCount];
+        this.reducedQ = new String[reducedCount];
+        for (int state = 0, i = 0; state < reducedCount; state++) {
+            if (reducedAcceptingFlags[state]) reducedAccepting[i++] = state;
+            reducedQ[state] = String.valueOf(state);
+        }
+        LOGGER.fine(() -> "Hopcroft minimization reduced " + QSize + " states to " + reducedCount);
+    }
+
+    /**
+     * @return Array, where reachable[state] denotes whether the state is reachable from the initial state
+     */
+    private boolean[] getReachables() {
+        return Trimmer.getReachable(TransitionTable.fromDense(QSize, sigmaSize, originalTransitions), new int[]{originalInitial});
+    }
+
+    /**
+     * Finds states reachable from the initial state
+     *
+     * @param references Array to be filled with new indices of reachable states in original order, or -1 for unreachable states
+     * @return Number of reachable states
+     */
+    private int findReachables(int[] references) {
+        boolean[] used = getReachables();
+        int curr = 0;
+        for (int state = 0; state < QSize; state++) {
+            references[state] = used[state] ? curr++ : -1;
+        }
+        return curr;
     }
 
     private void initializeReductionTable() {
@@ -138,9 +273,7 @@ public class DFAReducer {
      * Removes unreachable states and saves the result to the reduction table
      */
     private void removeUnreachables() {
-        boolean[] used = new boolean[QSize];
-        used[originalInitial] = true;
-        reachabilityCheck(originalInitial, used);
+        boolean[] used = getReachables();
 
         int[] references = new int[used.length];
         int curr = 0;
@@ -169,23 +302,12 @@ public class DFAReducer {
                 ArrayList<Integer> currRow = new ArrayList<>();
                 this.reductionTable.add(currRow);
                 for (int letter = 0; letter < this.sigmaSize; letter++) {
-                    currRow.add(references[this.originalTransitions.get(i).get(letter)]);
+                    currRow.add(references[this.originalTransitions[i * this.sigmaSize + letter]]);
                 }
             }
         }
     }
 
-    private void reachabilityCheck(int current, boolean[] used) {
-        HashMap<Integer, Integer> currentRow = this.originalTransitions.get(current);
-        for (int i = 0; i < this.sigmaSize; i++) {
-            int child = currentRow.get(i);
-            if (!used[child]) {
-                used[child] = true;
-                reachabilityCheck(child, used);
-            }
-        }
-    }
-
     private String getReductionTableInString() {
         StringBuilder res = new StringBuilder();
         for (ArrayList<Integer> integers : this.reductionTable) {
@@ -0,0 +1,231 @@
+package cz.cvut.fel.horovtom.automata.logic.reducers;
+
+import java.util.Arrays;
+
+/**
+ * This class computes classes of equivalent states of a complete DFA by Hopcroft's partition refinement
+ * in O(n * |&Sigma;| * log n) time.
+ * <p>
+ * The partition is stored in primitive arrays: states are kept in a single array ordered by blocks,
+ * so that every block is a contiguous range, and splitting a block only moves its marked states to the front of the range.
+ * Predecessors are read from inverse transitions, stored in compressed sparse row format.
+ * </p>
+ */
+public final class HopcroftMinimizer {
+    private final int QSize, sigmaSize;
+    private final int[] transitions;
+
+    /**
+     * States ordered by blocks
+     */
+    private final int[] elements;
+    /**
+     * Position of the state in elements
+     */
+    private final int[] location;
+    private final int[] blockOf;
+    private final int[] blockStart, blockEnd;
+    /**
+     * Number of marked states of the block, marked states are at the beginning of the block
+     */
+    private final int[] marked;
+    private int blockCount = 0;
+
+    private final int[] inverseOffsets, inverseSources;
+
+    private final int[] worklist;
+    private final boolean[] inWorklist;
+    private int worklistSize = 0;
+
+    /**
+     * @param transitions Array, where transitions[state * sigmaSize + letter] is the target state. Every cell must be filled.
+     * @param accepting   Array, where accepting[state] denotes whether the state is accepting
+     */
+    public HopcroftMinimizer(int[] transitions, int QSize, int sigmaSize, boolean[] accepting) {
+        this(transitions, QSize, sigmaSize, toLabels(accepting));
+    }
+
+    /**
+     * States with different labels are never equivalent, which is used to minimize automata, where accepting states
+     * carry more information than acceptance.
+     *
+     * @param transitions Array, where transitions[state * sigmaSize + letter] is the target state. Every cell must be filled.
+     * @param labels      Array, where labels[state] is the label of the state. Labels are small non-negative numbers.
+     */
+    public HopcroftMinimizer(int[] transitions, int QSize, int sigmaSize, int[] labels) {
+        this.QSize = QSize;
+        this.sigmaSize = sigmaSize;
+        this.transitions = transitions;
+        this.elements = new int[QSize];
+        this.location = new int[QSize];
+        this.blockOf = new int[QSize];
+        this.blockStart = new int[QSize];
+        this.blockEnd = new int[QSize];
+        this.marked = new int[QSize];
+        this.worklist = new int[QSize];
+        this.inWorklist = new boolean[QSize];
+        this.inverseOffsets = new int[QSize * sigmaSize + 1];
+        this.inverseSources = new int[QSize * sigmaSize];
+
+        initializeInverse();
+        initializePartition(labels);
+        refine();
+    }
+
+    private static int[] toLabels(boolean[] accepting) {
+        int[] labels = new int[accepting.length];
+        for (int state = 0; state < accepting.length; state++) {
+            labels[state] = accepting[state] ? 0 : 1;
+        }
+        return labels;
+    }
+
+    private void initializeInverse() {
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                inverseOffsets[letter * QSize + transitions[state * sigmaSize + letter] + 1]++;
+            }
+        }
+        for (int i = 0; i < QSize * sigmaSize; i++) {
+            inverseOffsets[i + 1] += inverseOffsets[i];
+        }
+        int[] fill = Arrays.copyOf(inverseOffsets, QSize * sigmaSize);
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                inverseSources[fill[letter * QSize + transitions[state * sigmaSize + letter]]++] = state;
+            }
+        }
+    }
+
+    /**
+     * Creates one block for every label and pushes all blocks but the largest one to the worklist
+     */
+    private void initializePartition(int[] labels) {
+        int labelCount = 0;
+        for (int state = 0; state < QSize; state++) {
+            labelCount = Math.max(labelCount, labels[state] + 1);
+        }
+        int[] starts = new int[labelCount + 1];
+        for (int state = 0; state < QSize; state++) {
+            starts[labels[state] + 1]++;
+        }
+        for (int label = 0; label < labelCount; label++) {
+            starts[label + 1] += starts[label];
+        }
+        int[] fill = Arrays.copyOf(starts, labelCount);
+        for (int state = 0; state < QSize; state++) {
+            int position = fill[labels[state]]++;
+            elements[position] = state;
+            location[state] = position;
+        }
+        int largest = -1, largestSize = -1;
+        for (int label = 0; label < labelCount; label++) {
+            int size = starts[label + 1] - starts[label];
+            if (size == 0) continue;
+            int block = addBlock(starts[label], starts[label + 1]);
+            if (size > largestSize) {
+                largest = block;
+                largestSize = size;
+            }
+        }
+        for (int block = 0; block < blockCount; block++) {
+            if (block != largest) pushWorklist(block);
+        }
+    }
+
+    private int addBlock(int start, int end) {
+        int block = blockCount++;
+        blockStart[block] = start;
+        blockEnd[block] = end;
+        for (int i = start; i < end; i++) {
+            blockOf[elements[i]] = block;
+        }
+        return block;
+    }
+
+    private void pushWorklist(int block) {
+        inWorklist[block] = true;
+        worklist[worklistSize++] = block;
+    }
+
+    private void refine() {
+        int[] splitter = new int[QSize];
+        int[] touched = new int[QSize];
+        while (worklistSize > 0) {
+            int block = worklist[--worklistSize];
+            inWorklist[block] = false;
+            //Block can be split while it is used as a splitter, so its states are copied
+            int splitterSize = blockEnd[block] - blockStart[block];
+            System.arraycopy(elements, blockStart[block], splitter, 0, splitterSize);
+
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int touchedCount = 0;
+                for (int i = 0; i < splitterSize; i++) {
+                    int cell = letter * QSize + splitter[i];
+                    for (int j = inverseOffsets[cell]; j < inverseOffsets[cell + 1]; j++) {
+                        int state = inverseSources[j];
+                        int stateBlock = blockOf[state];
+                        if (marked[stateBlock] == 0) touched[touchedCount++] = stateBlock;
+                        mark(state, stateBlock);
+                    }
+                }
+                for (int i = 0; i < touchedCount; i++) {
+                    split(touched[i]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves the state to the marked part of its block
+     */
+    private void mark(int state, int block) {
+        int target = blockStart[block] + marked[block]++;
+        int position = location[state];
+        int other = elements[target];
+        elements[target] = state;
+        location[state] = target;
+        elements[position] = other;
+        location[other] = position;
+    }
+
+    private void split(int block) {
+        int markedCount = marked[block];
+        marked[block] = 0;
+        int start = blockStart[block];
+        int end = blockEnd[block];
+        if (markedCount == end - start) return;
+
+        int newBlock = addBlock(start, start + markedCount);
+        blockStart[block] = start + markedCount;
+        if (inWorklist[block] || markedCount <= end - start - markedCount) {
+            pushWorklist(newBlock);
+        } else {
+            pushWorklist(block);
+        }
+    }
+
+    /**
+     * @return Number of classes of equivalent states
+     */
+    public int getClassCount() {
+        return blockCount;
+    }
+
+    /**
+     * @return Array, where classes[state] is the index of class of the state.
+     * Classes are numbered in order of the first occurrence of their states.
+     */
+    public int[] getClasses() {
+        int[] renaming = new int[blockCount];
+        Arrays.fill(renaming, -1);
+        int[] classes = new int[QSize];
+        int current = 0;
+        for (int state = 0; state < QSize; state++) {
+            int block = blockOf[state];
+            if (renaming[block] == -1) renaming[block] = current++;
+            classes[state] = renaming[block];
+        }
+        return classes;
+    }
+}
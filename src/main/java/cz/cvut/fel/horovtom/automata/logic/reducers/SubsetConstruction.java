@@ -0,0 +1,324 @@
+package cz.cvut.fel.horovtom.automata.logic.reducers;
+
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+
+import java.util.Arrays;
+
+/**
+ * This class determinizes NFA and ENFA automata by subset construction. It is shared by {@link NFAReducer} and {@link ENFAReducer}.
+ * <p>
+ * Subsets are stored as sorted arrays of original states, all concatenated in one pool. They are indexed by an open
+ * addressing hash table, so finding an existing subset takes expected constant time instead of comparing it with every
+ * known subset. New subsets get indices in the order of their discovery and are processed in the same order,
+ * so the worklist is just the index of the next unprocessed subset.
+ * </p>
+ * <p>
+ * State names are not built during the construction, only when {@link #getStateNames(String[], String)} is called.
+ * </p>
+ */
+public final class SubsetConstruction {
+    private final TransitionTable original;
+    private final int QSize;
+    /**
+     * Letters of the original automaton, that are not epsilon, in the original order
+     */
+    private final int[] letters;
+    private final boolean keepEmpty;
+
+    /**
+     * Epsilon closures of original states in compressed sparse row format, or null if there is no epsilon column
+     */
+    private int[] closureOffsets, closureStates;
+
+    /**
+     * Subset i is stored in pool[subsetOffsets[i]] .. pool[subsetOffsets[i + 1] - 1]
+     */
+    private int[] pool = new int[16];
+    private int[] subsetOffsets = new int[17];
+    private int[] subsetHashes = new int[16];
+    private int subsetCount = 0;
+    /**
+     * Open addressing hash table of subset indices, -1 denotes empty slot. Its size is a power of two.
+     */
+    private int[] slots = new int[32];
+
+    /**
+     * Transitions of the result, where transitions[subset * letters.length + letter] is the target subset or -1
+     */
+    private int[] transitions = new int[16];
+    private boolean complete = true;
+
+    /**
+     * Buffer for computing successor subsets
+     */
+    private int[] buffer;
+    /**
+     * stamp[state] == generation, if state is already in the buffer
+     */
+    private final int[] stamp;
+    private int generation = 0;
+
+    /**
+     * @param original      Transitions of the original automaton
+     * @param initialStates Initial states of the original automaton
+     * @param epsilonColumn Index of epsilon letter in the original transitions, or -1 if there is none
+     * @param keepEmpty     If true, empty subset is a state of the result, so that its transitions are complete.
+     *                      If false, transitions to the empty subset are left out.
+     */
+    public SubsetConstruction(TransitionTable original, int[] initialStates, int epsilonColumn, boolean keepEmpty) {
+        this.original = original;
+        this.QSize = original.getQSize();
+        this.keepEmpty = keepEmpty;
+        int sigmaSize = original.getSigmaSize();
+        this.letters = new int[epsilonColumn == -1 ? sigmaSize : sigmaSize - 1];
+        for (int letter = 0, i = 0; letter < sigmaSize; letter++) {
+            if (letter != epsilonColumn) letters[i++] = letter;
+        }
+        this.stamp = new int[QSize];
+        this.buffer = new int[Math.max(16, QSize)];
+        Arrays.fill(slots, -1);
+        if (epsilonColumn != -1) computeClosures(epsilonColumn);
+
+        generation++;
+        int size = 0;
+        for (int state : initialStates) {
+            size = addClosed(state, size);
+        }
+        findOrAdd(size);
+        construct();
+    }
+
+    private void computeClosures(int epsilonColumn) {
+        closureOffsets = new int[QSize + 1];
+        int[] result = new int[Math.max(16, QSize)];
+        int[] stack = new int[QSize];
+        int size = 0;
+        for (int state = 0; state < QSize; state++) {
+            generation++;
+            int top = 0;
+            stamp[state] = generation;
+            stack[top++] = state;
+            while (top > 0) {
+                int current = stack[--top];
+                if (size == result.length) result = Arrays.copyOf(result, result.length * 2);
+                result[size++] = current;
+                int end = original.getEnd(current, epsilonColumn);
+                for (int i = original.getStart(current, epsilonColumn); i < end; i++) {
+                    int target = original.getTargetAt(i);
+                    if (stamp[target] != generation) {
+                        stamp[target] = generation;
+                        stack[top++] = target;
+                    }
+                }
+            }
+            closureOffsets[state + 1] = size;
+        }
+        closureStates = Arrays.copyOf(result, size);
+    }
+
+    /**
+     * Adds the state, closed under epsilon transitions, to the buffer of current generation
+     *
+     * @return New size of the buffer
+     */
+    private int addClosed(int state, int size) {
+        if (closureOffsets == null) {
+            return add(state, size);
+        }
+        for (int i = closureOffsets[state]; i < closureOffsets[state + 1]; i++) {
+            size = add(closureStates[i], size);
+        }
+        return size;
+    }
+
+    private int add(int state, int size) {
+        if (stamp[state] == generation) return size;
+        stamp[state] = generation;
+        if (size == buffer.length) buffer = Arrays.copyOf(buffer, buffer.length * 2);
+        buffer[size++] = state;
+        return size;
+    }
+
+    private void construct() {
+        int letterCount = letters.length;
+        for (int current = 0; current < subsetCount; current++) {
+            ensureTransitionsCapacity((current + 1) * letterCount);
+            for (int l = 0; l < letterCount; l++) {
+                int letter = letters[l];
+                generation++;
+                int size = 0;
+                for (int i = subsetOffsets[current]; i < subsetOffsets[current + 1]; i++) {
+                    int state = pool[i];
+                    int end = original.getEnd(state, letter);
+                    for (int t = original.getStart(state, letter); t < end; t++) {
+                        size = addClosed(original.getTargetAt(t), size);
+                    }
+                }
+                int target;
+                if (size == 0 && !keepEmpty) {
+                    target = -1;
+                    complete = false;
+                } else {
+                    target = findOrAdd(size);
+                }
+                transitions[current * letterCount + l] = target;
+            }
+        }
+    }
+
+    private void ensureTransitionsCapacity(int capacity) {
+        if (capacity > transitions.length) {
+            transitions = Arrays.copyOf(transitions, Math.max(transitions.length * 2, capacity));
+        }
+    }
+
+    /**
+     * Finds the subset stored in the buffer, if it is not known yet, it is added as a new subset.
+     *
+     * @param size Size of the subset in the buffer
+     * @return Index of the subset
+     */
+    private int findOrAdd(int size) {
+        Arrays.sort(buffer, 0, size);
+        int hash = 1;
+        for (int i = 0; i < size; i++) {
+            hash = 31 * hash + buffer[i];
+        }
+        hash ^= hash >>> 16;
+
+        int mask = slots.length - 1;
+        int slot = hash & mask;
+        while (slots[slot] != -1) {
+            int subset = slots[slot];
+            if (subsetHashes[subset] == hash && equalsBuffer(subset, size)) return subset;
+            slot = (slot + 1) & mask;
+        }
+
+        int subset = subsetCount++;
+        if (subset == subsetHashes.length) {
+            subsetHashes = Arrays.copyOf(subsetHashes, subsetHashes.length * 2);
+            subsetOffsets = Arrays.copyOf(subsetOffsets, subsetHashes.length + 1);
+        }
+        int start = subsetOffsets[subset];
+        if (start + size > pool.length) {
+            pool = Arrays.copyOf(pool, Math.max(pool.length * 2, start + size));
+        }
+        System.arraycopy(buffer, 0, pool, start, size);
+        subsetOffsets[subset + 1] = start + size;
+        subsetHashes[subset] = hash;
+        slots[slot] = subset;
+        if (subsetCount * 2 > slots.length) rehash();
+        return subset;
+    }
+
+    private boolean equalsBuffer(int subset, int size) {
+        int start = subsetOffsets[subset];
+        if (subsetOffsets[subset + 1] - start != size) return false;
+        for (int i = 0; i < size; i++) {
+            if (pool[start + i] != buffer[i]) return false;
+        }
+        return true;
+    }
+
+    private void rehash() {
+        slots = new int[slots.length * 2];
+        Arrays.fill(slots, -1);
+        int mask = slots.length - 1;
+        for (int subset = 0; subset < subsetCount; subset++) {
+            int slot = subsetHashes[subset] & mask;
+            while (slots[slot] != -1) {
+                slot = (slot + 1) & mask;
+            }
+            slots[slot] = subset;
+        }
+    }
+
+    /**
+     * @return Number of subsets, which are the states of the result
+     */
+    public int getStateCount() {
+        return subsetCount;
+    }
+
+    /**
+     * @return Index of the initial subset, which is always 0
+     */
+    public int getInitial() {
+        return 0;
+    }
+
+    /**
+     * @return byval copy of the sorted original states contained in the subset
+     */
+    public int[] getSubset(int subset) {
+        return Arrays.copyOfRange(pool, subsetOffsets[subset], subsetOffsets[subset + 1]);
+    }
+
+    /**
+     * @return Sorted indices of subsets, that contain at least one of the accepting states
+     */
+    public int[] getAccepting(int[] acceptingStates) {
+        boolean[] accepting = new boolean[QSize];
+        for (int state : acceptingStates) {
+            accepting[state] = true;
+        }
+        int[] result = new int[subsetCount];
+        int count = 0;
+        for (int subset = 0; subset < subsetCount; subset++) {
+            for (int i = subsetOffsets[subset]; i < subsetOffsets[subset + 1]; i++) {
+                if (accepting[pool[i]]) {
+                    result[count++] = subset;
+                    break;
+                }
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @param originalQ Names of the original states
+     * @param emptyName Name of the empty subset
+     * @return Names of subsets, that consist of names of their states separated by commas
+     */
+    public String[] getStateNames(String[] originalQ, String emptyName) {
+        String[] names = new String[subsetCount];
+        StringBuilder sb = new StringBuilder();
+        for (int subset = 0; subset < subsetCount; subset++) {
+            int start = subsetOffsets[subset], end = subsetOffsets[subset + 1];
+            if (start == end) {
+                names[subset] = emptyName;
+                continue;
+            }
+            sb.setLength(0);
+            for (int i = start; i < end; i++) {
+                if (i != start) sb.append(",");
+                sb.append(originalQ[pool[i]]);
+            }
+            names[subset] = sb.toString();
+        }
+        return names;
+    }
+
+    /**
+     * @return Array, where table[subset * letterCount + letter] is the target subset or -1.
+     * Letters are indexed without the epsilon column.
+     */
+    public int[] getDenseTable() {
+        return Arrays.copyOf(transitions, subsetCount * letters.length);
+    }
+
+    /**
+     * @return Transition table of the result. Letters are indexed without the epsilon column.
+     */
+    public TransitionTable getTable() {
+        if (complete) {
+            return TransitionTable.fromDense(subsetCount, letters.length, getDenseTable());
+        }
+        TransitionTable.Builder builder = new TransitionTable.Builder(subsetCount, letters.length);
+        for (int i = 0; i < subsetCount * letters.length; i++) {
+            if (transitions[i] != -1) builder.add(transitions[i]);
+            builder.nextCell();
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,219 @@
+package cz.cvut.fel.horovtom.automata.logic.reducers;
+
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+
+import java.util.Arrays;
+
+/**
+ * This class removes useless states from an automaton: states, that are not reachable from initial states,
+ * and optionally dead states, from which no accepting state can be reached.
+ * <p>
+ * Searches are iterative and use only primitive arrays, so they work on automata of any shape and size.
+ * Epsilon transitions are treated as any other transitions. Initial states are never removed,
+ * so that the result has at least one state even if it accepts nothing.
+ * </p>
+ */
+public final class Trimmer {
+    /**
+     * mapping[state] is the new index of the original state, or -1 if it was removed
+     */
+    private final int[] mapping;
+    /**
+     * kept[state] is the original index of the new state
+     */
+    private final int[] kept;
+    private final TransitionTable table;
+    private final int[] initial, accepting;
+
+    /**
+     * @param removeDead If true, dead states are removed as well. Transitions of a DFA are no longer complete after that.
+     */
+    public Trimmer(TransitionTable original, int[] initialStates, int[] acceptingStates, boolean removeDead) {
+        int QSize = original.getQSize();
+        boolean[] useful = getReachable(original, initialStates);
+        if (removeDead) {
+            boolean[] coReachable = getCoReachable(original, acceptingStates);
+            boolean[] isInitial = new boolean[QSize];
+            for (int state : initialStates) {
+                isInitial[state] = true;
+            }
+            for (int state = 0; state < QSize; state++) {
+                useful[state] &= coReachable[state] || isInitial[state];
+            }
+        }
+
+        this.mapping = new int[QSize];
+        int count = 0;
+        for (int state = 0; state < QSize; state++) {
+            mapping[state] = useful[state] ? count++ : -1;
+        }
+        this.kept = new int[count];
+        for (int state = 0; state < QSize; state++) {
+            if (mapping[state] != -1) kept[mapping[state]] = state;
+        }
+
+        this.initial = mapStates(initialStates);
+        this.accepting = mapStates(acceptingStates);
+        if (count == QSize) {
+            this.table = original;
+            return;
+        }
+        int sigmaSize = original.getSigmaSize();
+        TransitionTable.Builder builder = new TransitionTable.Builder(count, sigmaSize);
+        for (int state : kept) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int end = original.getEnd(state, letter);
+                for (int i = original.getStart(state, letter); i < end; i++) {
+                    int target = mapping[original.getTargetAt(i)];
+                    if (target != -1) builder.add(target);
+                }
+                builder.nextCell();
+            }
+        }
+        this.table = builder.build();
+    }
+
+    /**
+     * @return Array, where reachable[state] denotes, whether the state can be reached from any of the specified states
+     */
+    public static boolean[] getReachable(TransitionTable table, int[] from) {
+        int QSize = table.getQSize(), sigmaSize = table.getSigmaSize();
+        boolean[] reachable = new boolean[QSize];
+        int[] queue = new int[QSize];
+        int tail = 0;
+        for (int state : from) {
+            if (!reachable[state]) {
+                reachable[state] = true;
+                queue[tail++] = state;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int end = table.getEnd(current, letter);
+                for (int i = table.getStart(current, letter); i < end; i++) {
+                    int target = table.getTargetAt(i);
+                    if (!reachable[target]) {
+                        reachable[target] = true;
+                        queue[tail++] = target;
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * @return Array, where coReachable[state] denotes, whether any of the specified states can be reached from the state
+     */
+    public static boolean[] getCoReachable(TransitionTable table, int[] to) {
+        int QSize = table.getQSize(), sigmaSize = table.getSigmaSize();
+        //Predecessors in compressed sparse row format
+        int[] offsets = new int[QSize + 1];
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int end = table.getEnd(state, letter);
+                for (int i = table.getStart(state, letter); i < end; i++) {
+                    offsets[table.getTargetAt(i) + 1]++;
+                }
+            }
+        }
+        for (int state = 0; state < QSize; state++) {
+            offsets[state + 1] += offsets[state];
+        }
+        int[] predecessors = new int[offsets[QSize]];
+        int[] fill = Arrays.copyOf(offsets, QSize);
+        for (int state = 0; state < QSize; state++) {
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                int end = table.getEnd(state, letter);
+                for (int i = table.getStart(state, letter); i < end; i++) {
+                    predecessors[fill[table.getTargetAt(i)]++] = state;
+                }
+            }
+        }
+
+        boolean[] coReachable = new boolean[QSize];
+        int[] queue = new int[QSize];
+        int tail = 0;
+        for (int state : to) {
+            if (!coReachable[state]) {
+                coReachable[state] = true;
+                queue[tail++] = state;
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int i = offsets[current]; i < offsets[current + 1]; i++) {
+                int predecessor = predecessors[i];
+                if (!coReachable[predecessor]) {
+                    coReachable[predecessor] = true;
+                    queue[tail++] = predecessor;
+                }
+            }
+        }
+        return coReachable;
+    }
+
+    private int[] mapStates(int[] states) {
+        int[] result = new int[states.length];
+        int count = 0;
+        for (int state : states) {
+            if (mapping[state] != -1) result[count++] = mapping[state];
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * @return true if any state was removed
+     */
+    public boolean wasTrimmed() {
+        return kept.length != mapping.length;
+    }
+
+    public int getStateCount() {
+        return kept.length;
+    }
+
+    /**
+     * @return byval copy of array, where mapping[state] is the new index of the original state, or -1 if it was removed
+     */
+    public int[] getStateMapping() {
+        return Arrays.copyOf(mapping, mapping.length);
+    }
+
+    /**
+     * @return byval copy of array, where kept[state] is the original index of the new state
+     */
+    public int[] getKeptStates() {
+        return Arrays.copyOf(kept, kept.length);
+    }
+
+    /**
+     * @return Names of kept states
+     */
+    public String[] getQ(String[] originalQ) {
+        String[] q = new String[kept.length];
+        for (int state = 0; state < kept.length; state++) {
+            q[state] = originalQ[kept[state]];
+        }
+        return q;
+    }
+
+    public TransitionTable getTable() {
+        return table;
+    }
+
+    /**
+     * @return byval copy of the new indices of initial states
+     */
+    public int[] getInitial() {
+        return Arrays.copyOf(initial, initial.length);
+    }
+
+    /**
+     * @return byval copy of the new indices of accepting states, that were kept
+     */
+    public int[] getAccepting() {
+        return Arrays.copyOf(accepting, accepting.length);
+    }
+}
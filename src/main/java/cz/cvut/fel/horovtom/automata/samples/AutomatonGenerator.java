@@ -0,0 +1,229 @@
+package cz.cvut.fel.horovtom.automata.samples;
+
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.ENFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * This class generates automata of arbitrary size for stress tests and benchmarks.
+ * <p>
+ * Random automata are reproducible: generator created with the same seed returns the same automata
+ * for the same sequence of calls. Known worst cases are generated by static methods, since they are not random.
+ * </p>
+ * <p>
+ * States are named by their indices. Letters are named a, b, ..., z for alphabets of at most 26 letters,
+ * otherwise l0, l1, ... Epsilon is always the first letter of ENFA sigma.
+ * </p>
+ */
+public class AutomatonGenerator {
+    private final Random random;
+
+    public AutomatonGenerator(long seed) {
+        this.random = new Random(seed);
+    }
+
+    //region NAMES
+
+    /**
+     * @return Names of states 0 .. QSize - 1
+     */
+    public static String[] getQ(int QSize) {
+        String[] q = new String[QSize];
+        for (int i = 0; i < QSize; i++) {
+            q[i] = String.valueOf(i);
+        }
+        return q;
+    }
+
+    /**
+     * @return Names of letters, a .. z if sigmaSize is at most 26, otherwise l0 .. l(sigmaSize - 1)
+     */
+    public static String[] getSigma(int sigmaSize) {
+        String[] sigma = new String[sigmaSize];
+        for (int i = 0; i < sigmaSize; i++) {
+            sigma[i] = sigmaSize <= 26 ? String.valueOf((char) ('a' + i)) : "l" + i;
+        }
+        return sigma;
+    }
+
+    private static String[] getEpsilonSigma(int sigmaSize) {
+        String[] sigma = new String[sigmaSize + 1];
+        sigma[0] = "ε";
+        System.arraycopy(getSigma(sigmaSize), 0, sigma, 1, sigmaSize);
+        return sigma;
+    }
+
+    //endregion
+
+    //region RANDOM
+
+    /**
+     * @param acceptingDensity Probability of a state being accepting
+     * @return Complete DFA with uniformly random transitions and initial state 0
+     */
+    public DFAAutomaton getRandomDFA(int QSize, int sigmaSize, double acceptingDensity) {
+        int[] table = new int[QSize * sigmaSize];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = random.nextInt(QSize);
+        }
+        return new DFAAutomaton(getQ(QSize), getSigma(sigmaSize), TransitionTable.fromDense(QSize, sigmaSize, table),
+                0, getRandomAccepting(QSize, acceptingDensity));
+    }
+
+    /**
+     * @param density          Expected number of targets of every state and letter
+     * @param acceptingDensity Probability of a state being accepting
+     * @return NFA with uniformly random transitions and initial state 0
+     */
+    public NFAAutomaton getRandomNFA(int QSize, int sigmaSize, double density, double acceptingDensity) {
+        TransitionTable.Builder builder = new TransitionTable.Builder(QSize, sigmaSize);
+        for (int cell = 0; cell < QSize * sigmaSize; cell++) {
+            addRandomTargets(builder, QSize, density);
+            builder.nextCell();
+        }
+        return new NFAAutomaton(getQ(QSize), getSigma(sigmaSize), builder.build(),
+                new int[]{0}, getRandomAccepting(QSize, acceptingDensity));
+    }
+
+    /**
+     * @param density          Expected number of targets of every state and letter
+     * @param epsilonDensity   Expected number of epsilon transitions of every state
+     * @param acceptingDensity Probability of a state being accepting
+     * @return ENFA with uniformly random transitions and initial state 0
+     */
+    public ENFAAutomaton getRandomENFA(int QSize, int sigmaSize, double density, double epsilonDensity, double acceptingDensity) {
+        TransitionTable.Builder builder = new TransitionTable.Builder(QSize, sigmaSize + 1);
+        for (int state = 0; state < QSize; state++) {
+            addRandomTargets(builder, QSize, epsilonDensity);
+            builder.nextCell();
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                addRandomTargets(builder, QSize, density);
+                builder.nextCell();
+            }
+        }
+        return new ENFAAutomaton(getQ(QSize), getEpsilonSigma(sigmaSize), builder.build(),
+                new int[]{0}, getRandomAccepting(QSize, acceptingDensity));
+    }
+
+    /**
+     * Generates ENFA made of chains of states connected by epsilon transitions.
+     * The last state of every chain is accepting with probability 1/2 and has a transition by every letter
+     * to the first state of a random chain, so every letter has to be followed by an epsilon closure of the whole chain.
+     *
+     * @return ENFA with chains * chainLength states and initial state 0
+     */
+    public ENFAAutomaton getEpsilonChains(int chains, int chainLength, int sigmaSize) {
+        int QSize = chains * chainLength;
+        TransitionTable.Builder builder = new TransitionTable.Builder(QSize, sigmaSize + 1);
+        int[] accepting = new int[chains];
+        int acceptingCount = 0;
+        for (int state = 0; state < QSize; state++) {
+            boolean last = state % chainLength == chainLength - 1;
+            if (!last) builder.add(state + 1);
+            builder.nextCell();
+            for (int letter = 0; letter < sigmaSize; letter++) {
+                if (last) builder.add(random.nextInt(chains) * chainLength);
+                builder.nextCell();
+            }
+            if (last && random.nextBoolean()) accepting[acceptingCount++] = state;
+        }
+        return new ENFAAutomaton(getQ(QSize), getEpsilonSigma(sigmaSize), builder.build(),
+                new int[]{0}, Arrays.copyOf(accepting, acceptingCount));
+    }
+
+    /**
+     * @return Random word of letters from sigma
+     */
+    public String[] getRandomWord(String[] sigma, int length) {
+        String[] word = new String[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = sigma[random.nextInt(sigma.length)];
+        }
+        return word;
+    }
+
+    private void addRandomTargets(TransitionTable.Builder builder, int QSize, double density) {
+        int targets = (int) density;
+        if (random.nextDouble() < density - targets) targets++;
+        for (int i = 0; i < targets; i++) {
+            builder.add(random.nextInt(QSize));
+        }
+    }
+
+    private int[] getRandomAccepting(int QSize, double acceptingDensity) {
+        int[] accepting = new int[QSize];
+        int count = 0;
+        for (int state = 0; state < QSize; state++) {
+            if (random.nextDouble() < acceptingDensity) accepting[count++] = state;
+        }
+        return Arrays.copyOf(accepting, count);
+    }
+
+    //endregion
+
+    //region WORST CASES
+
+    /**
+     * Generates NFA over {a, b} accepting words, whose n-th letter from the end is a.
+     * It has n + 1 states, but its reduced DFA has 2^n states.
+     */
+    public static NFAAutomaton getNthFromEnd(int n) {
+        TransitionTable.Builder builder = new TransitionTable.Builder(n + 1, 2);
+        builder.add(0).add(1).nextCell().add(0).nextCell();
+        for (int state = 1; state < n; state++) {
+            builder.add(state + 1).nextCell().add(state + 1).nextCell();
+        }
+        builder.nextCell().nextCell();
+        return new NFAAutomaton(getQ(n + 1), getSigma(2), builder.build(), new int[]{0}, new int[]{n});
+    }
+
+    /**
+     * Generates unary cyclic DFA of 2^k states, whose accepting states are given by de Bruijn word of order k.
+     * It is already reduced, and Hopcroft's algorithm needs &Theta;(n log n) steps on it for any choice of splitters
+     * (Berstel, Carton: On the complexity of Hopcroft's state minimization algorithm).
+     */
+    public static DFAAutomaton getHopcroftWorstCase(int k) {
+        int QSize = 1 << k;
+        int[] table = new int[QSize];
+        for (int state = 0; state < QSize; state++) {
+            table[state] = (state + 1) % QSize;
+        }
+        boolean[] word = getDeBruijnWord(k);
+        int[] accepting = new int[QSize];
+        int count = 0;
+        for (int state = 0; state < QSize; state++) {
+            if (word[state]) accepting[count++] = state;
+        }
+        return new DFAAutomaton(getQ(QSize), getSigma(1), TransitionTable.fromDense(QSize, 1, table),
+                0, Arrays.copyOf(accepting, count));
+    }
+
+    /**
+     * @return Binary de Bruijn word of order k, which contains every binary word of length k exactly once as a cyclic factor
+     */
+    private static boolean[] getDeBruijnWord(int k) {
+        //Greedy prefer-one construction, starting with k zeros
+        int n = 1 << k, mask = n - 1;
+        boolean[] used = new boolean[n];
+        boolean[] word = new boolean[n];
+        int window = 0;
+        used[0] = true;
+        for (int i = k; i < n + k - 1; i++) {
+            int one = ((window << 1) | 1) & mask;
+            if (!used[one]) {
+                window = one;
+                if (i < n) word[i] = true;
+            } else {
+                window = (window << 1) & mask;
+            }
+            used[window] = true;
+        }
+        return word;
+    }
+
+    //endregion
+}
@@ -209,6 +209,7 @@ public class Interpreter {
      * accepts(String[]), accepts(ArrayList), accepts(String)
      * toCSV(String),
      * toTikz(),
+     * toJava(), toJava(String), toJava(String, String)
      * toPNG(String),
      * toTexTable(),
      * toRegex(),
@@ -272,6 +273,20 @@ public class Interpreter {
                 }
 
 
+            case "toJava":
+                if (arguments.length > 2)
+                    throw new SyntaxException("toJava expects at most two arguments: class name and package name.");
+                for (Object arg : arguments) {
+                    if (!(arg instanceof String))
+                        throw new SyntaxException("Invalid type of argument: " + arg.getClass() + ". toJava expects String.");
+                }
+                try {
+                    return a.exportToJava(arguments.length == 2 ? ((String) arguments[1]).trim() : "",
+                            arguments.length >= 1 ? ((String) arguments[0]).trim() : "AutomatonMatcher");
+                } catch (IllegalArgumentException e) {
+                    throw new SyntaxException(e.getMessage());
+                }
+
             case "toPNG":
                 return convertToPng(a, arguments);
 
@@ -205,6 +205,27 @@ public class InterpreterOutputTest {
 
     }
 
+    @Test
+    public void exportJava() {
+        Interpreter interpreter = new Interpreter();
+        try {
+            String res;
+
+            res = interpreter.parseLine("$a = Automaton({{a,b},{>,0,2,1},{1,2,1},{<,2,2,1}})");
+            assertEquals("Automaton definition and assignment should not generate any output!", "", res);
+
+            res = interpreter.parseLine("$a.toJava()");
+            assertTrue("Result should declare default class", res.contains("public final class AutomatonMatcher"));
+
+            res = interpreter.parseLine("$a.toJava(Validator, com.example)");
+            assertTrue("Result should start with package declaration", res.startsWith("package com.example;"));
+            assertTrue("Result should declare the class", res.contains("public final class Validator"));
+        } catch (SyntaxException e) {
+            e.printStackTrace();
+            fail("Failed to run test because of SyntaxException!");
+        }
+    }
+
     @Test
     public void incompleteDefinition() {
         Interpreter interpreter = new Interpreter();
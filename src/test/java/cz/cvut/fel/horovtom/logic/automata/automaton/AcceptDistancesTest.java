@@ -0,0 +1,123 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.AcceptDistances;
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.StreamingMatcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class AcceptDistancesTest {
+
+    /**
+     * Checks distances against lengths of accepted words, which are found by stepping the set of reachable states.
+     * There is a longest accepted word, iff no word with length between |Q| and 2|Q| is accepted.
+     */
+    private static void assertDistances(DFAAutomaton dfa) {
+        AcceptDistances distances = dfa.getAcceptDistances();
+        int QSize = dfa.getQSize();
+        HashMap<Integer, HashMap<Integer, int[]>> transitions = dfa.getTransitions();
+        boolean[] accepting = new boolean[QSize];
+        for (int state : dfa.getAcceptingStates()) {
+            accepting[state] = true;
+        }
+        for (int state = 0; state < QSize; state++) {
+            boolean[] current = new boolean[QSize];
+            current[state] = true;
+            int min = -1, max = -1;
+            for (int length = 0; length < 2 * QSize; length++) {
+                boolean accepted = false;
+                boolean[] next = new boolean[QSize];
+                for (int s = 0; s < QSize; s++) {
+                    if (!current[s]) continue;
+                    accepted |= accepting[s];
+                    for (int[] targets : transitions.get(s).values()) {
+                        for (int target : targets) {
+                            next[target] = true;
+                        }
+                    }
+                }
+                if (accepted) {
+                    if (min == -1) min = length;
+                    max = length >= QSize ? AcceptDistances.UNBOUNDED : length;
+                }
+                current = next;
+            }
+            assertEquals("Minimal distance of state " + state, min, distances.getMinDistance(state));
+            assertEquals("Maximal distance of state " + state, max, distances.getMaxDistance(state));
+            assertEquals("State " + state + " should be dead iff no word is accepted from it", min == -1, distances.isDead(state));
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(120);
+        for (int i = 0; i < 30; i++) {
+            assertDistances(generator.getRandomDFA(2 + i % 8, 2, 0.2));
+            assertDistances(generator.getRandomNFA(2 + i % 6, 2, 0.7, 0.3).getReduced());
+        }
+    }
+
+    @Test
+    public void testFiniteLanguage() {
+        DFAAutomaton dfa = FromRegexConverter.getAutomaton("ab+abc+b").getReduced();
+        AcceptDistances distances = dfa.getAcceptDistances();
+        int initial = dfa.getInitialStates()[0];
+        assertEquals(1, distances.getMinDistance(initial));
+        assertEquals(3, distances.getMaxDistance(initial));
+        assertTrue(distances.canAccept(initial, 2));
+        assertFalse("No word longer than 3 is accepted", distances.canAccept(initial, 4));
+        assertFalse("Empty word is not accepted", distances.canAccept(initial, 0));
+        assertDistances(dfa);
+    }
+
+    @Test
+    public void testEarlyRejection() {
+        AutomatonGenerator generator = new AutomatonGenerator(121);
+        Automaton[] samples = {
+                FromRegexConverter.getAutomaton("ab+abc+b"),
+                FromRegexConverter.getAutomaton("a(ab)*b"),
+                generator.getRandomNFA(6, 2, 0.6, 0.3),
+                generator.getRandomENFA(5, 2, 0.7, 0.3, 0.3)
+        };
+        for (Automaton sample : samples) {
+            DFAAutomaton reduced = sample.getReduced();
+            StreamingMatcher matcher = reduced.getMatcher();
+            for (int i = 0; i < 200; i++) {
+                String[] letters = generator.getRandomWord(reduced.getSigma(), i % 10);
+                String word = String.join("", letters);
+                boolean expected = sample.acceptsWordUnified(letters);
+                assertEquals("Reduced DFA should accept " + word + " iff the simulation does", expected, reduced.acceptsWord(word));
+                assertEquals(expected, reduced.acceptsWord(letters));
+                assertEquals(expected, sample.acceptsWord(sample.getTokenizer().encode(letters)));
+
+                matcher.reset();
+                matcher.setRemainingLength(word.length());
+                matcher.feed(word.toCharArray(), 0, word.length());
+                assertEquals("Matcher with known length should accept " + word + " iff the simulation does",
+                        expected, matcher.isAccepting());
+            }
+        }
+    }
+
+    @Test
+    public void testRemainingLength() {
+        DFAAutomaton dfa = FromRegexConverter.getAutomaton("ab+abc+b").getReduced();
+        StreamingMatcher matcher = dfa.getMatcher();
+        assertTrue("No word of length 4 is accepted", matcher.setRemainingLength(4).isDead());
+        matcher.reset();
+        assertFalse("Reset should forget remaining length", matcher.isDead());
+        matcher.setRemainingLength(3).feed('a');
+        assertFalse(matcher.isDead());
+        matcher.feed('b');
+        assertFalse("abc is accepted", matcher.isDead());
+        matcher.feed('c').feed('a');
+        assertTrue("Feeding more characters than declared should make the matcher dead", matcher.isDead());
+        assertFalse(matcher.isAccepting());
+    }
+}
@@ -0,0 +1,82 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.AlphabetIndex;
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.ENFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class AlphabetIndexTest {
+
+    @Test
+    public void testClasses() {
+        /*
+                 a   b   c   d
+            >0   1   0   1   0
+            <1   1   0   1   1
+         */
+        TransitionTable table = TransitionTable.fromDense(2, 4, new int[]{1, 0, 1, 0, 1, 0, 1, 1});
+        AlphabetIndex index = new AlphabetIndex(new String[]{"a", "b", "c", "d"}, table, false);
+        assertEquals("a and c should be in one class", 3, index.getClassCount());
+        assertEquals(index.getLetterClass(0), index.getLetterClass(2));
+        assertTrue(index.getLetterClass(1) != index.getLetterClass(3));
+        assertEquals(index.getLetterClass(2), index.getCharClass('c'));
+        assertEquals(-1, index.getCharClass('x'));
+        assertEquals(-1, index.getCharClass((char) 0xFFFF));
+        assertEquals(0, index.getRepresentative(index.getLetterClass(2)));
+        assertArrayEquals(new int[]{1, 0, 0, 1, 0, 1}, index.getClassTable(table));
+    }
+
+    @Test
+    public void testLetters() {
+        ENFAAutomaton enfa = AutomatonSamples.ENFASamples.oneLetter();
+        AlphabetIndex index = enfa.getAlphabetIndex();
+        assertEquals("Epsilon should have no class", -1, index.getLetterClass(0));
+        assertEquals("No character should map to epsilon", -1, index.getLetterIndex('ε'));
+        for (int letter = 1; letter < enfa.getSigmaSize(); letter++) {
+            String name = enfa.getSigma()[letter];
+            assertEquals(letter, index.getLetterIndex(name));
+            if (name.length() == 1) assertEquals(letter, index.getLetterIndex(name.charAt(0)));
+        }
+
+        DFAAutomaton multi = AutomatonGenerator.getHopcroftWorstCase(2);
+        multi.renameLetter("a", "letter");
+        assertFalse(multi.getAlphabetIndex().isSingleCharacter());
+        assertEquals(0, multi.getAlphabetIndex().getLetterIndex("letter"));
+        assertEquals(-1, multi.getAlphabetIndex().getLetterIndex('a'));
+    }
+
+    @Test
+    public void testMatching() {
+        AutomatonGenerator generator = new AutomatonGenerator(30);
+        for (int i = 0; i < 30; i++) {
+            DFAAutomaton dfa = generator.getRandomDFA(2 + i, 26, 0.4);
+            for (int j = 0; j < 50; j++) {
+                String[] word = generator.getRandomWord(dfa.getSigma(), j % 12);
+                assertEquals("Matching by classes should agree with matching by letters",
+                        dfa.acceptsWordUnified(word), dfa.acceptsWord(String.join("", word)));
+            }
+        }
+    }
+
+    @Test
+    public void testIntersection() {
+        AutomatonGenerator generator = new AutomatonGenerator(31);
+        for (int i = 0; i < 20; i++) {
+            //Many letters of random NFAs with low density have no transitions, so they share a class
+            Automaton a = generator.getRandomNFA(3 + i % 5, 8, 0.4, 0.5);
+            Automaton b = generator.getRandomDFA(2 + i % 4, 8, 0.5);
+            Automaton intersection = Automaton.getIntersection(a, b);
+            for (int j = 0; j < 50; j++) {
+                String word = String.join("", generator.getRandomWord(a.getSigma(), j % 10));
+                assertEquals("Intersection should accept " + word + " iff both automata do",
+                        a.acceptsWord(word) && b.acceptsWord(word), intersection.acceptsWord(word));
+            }
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.BatchMatcher;
+import cz.cvut.fel.horovtom.automata.logic.WordBatch;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+public class BatchMatcherTest {
+
+    private static ArrayList<String> getWords(AutomatonGenerator generator, Automaton automaton, int count) {
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            words.add(String.join("", generator.getRandomWord(automaton.getSigma(), i % 17)));
+        }
+        return words;
+    }
+
+    private static BitSet getExpected(Automaton automaton, ArrayList<String> words) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < words.size(); i++) {
+            if (automaton.acceptsWord(words.get(i))) expected.set(i);
+        }
+        return expected;
+    }
+
+    @Test
+    public void testList() {
+        AutomatonGenerator generator = new AutomatonGenerator(50);
+        Automaton[] samples = {
+                generator.getRandomDFA(12, 3, 0.4),
+                generator.getRandomNFA(8, 3, 1.2, 0.3),
+        };
+        for (Automaton sample : samples) {
+            for (int count : new int[]{0, 1, 63, 64, 65, 1000, 5003}) {
+                ArrayList<String> words = getWords(generator, sample, count);
+                BitSet expected = getExpected(sample, words);
+                assertEquals("Batch of " + count + " words should agree with single words", expected, sample.acceptsWords(words));
+                assertEquals(expected, sample.getBatchMatcher().accepts(words.stream()));
+            }
+        }
+    }
+
+    @Test
+    public void testExecutor() throws IOException {
+        AutomatonGenerator generator = new AutomatonGenerator(51);
+        Automaton enfa = generator.getRandomENFA(10, 4, 1, 0.3, 0.3);
+        ArrayList<String> words = getWords(generator, enfa, BatchMatcher.BLOCK_SIZE * 2 + 100);
+        //Unknown letters are rejected
+        words.set(5, "?");
+        BitSet expected = getExpected(enfa, words);
+        assertFalse(expected.get(5));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            BatchMatcher matcher = new BatchMatcher(enfa, 3);
+            assertEquals(expected, matcher.accepts(words, executor));
+            assertEquals(expected, matcher.accepts(words.stream(), executor));
+            assertEquals(expected, matcher.accepts(enfa.getTokenizer().encodeAll(words), executor));
+            assertTrue(matcher.accepts(WordBatch.of(), executor).isEmpty());
+
+            File file = File.createTempFile("words", ".txt");
+            file.deleteOnExit();
+            Files.write(file.toPath(), words, StandardCharsets.UTF_8);
+            assertEquals("Lines of the file should be accepted as words", expected, matcher.accepts(file, StandardCharsets.UTF_8, executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testBoundedReading() {
+        AutomatonGenerator generator = new AutomatonGenerator(53);
+        Automaton dfa = generator.getRandomDFA(6, 2, 0.5);
+        int blocks = 12;
+        AtomicInteger read = new AtomicInteger(), started = new AtomicInteger(), maxAhead = new AtomicInteger();
+        Stream<String> words = Stream.generate(() -> "ab").limit((long) blocks * BatchMatcher.BLOCK_SIZE).peek(w -> read.incrementAndGet());
+        //Slow executor with one thread, so that reading is much faster than matching
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            BitSet accepted = new BatchMatcher(dfa, 1).accepts(words, command -> executor.execute(() -> {
+                int ahead = read.get() - started.getAndIncrement() * BatchMatcher.BLOCK_SIZE;
+                maxAhead.accumulateAndGet(ahead, Math::max);
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                command.run();
+            }));
+            assertEquals(dfa.acceptsWord("ab") ? blocks * BatchMatcher.BLOCK_SIZE : 0, accepted.cardinality());
+        } finally {
+            executor.shutdown();
+        }
+        assertTrue("Only a few blocks should be read ahead of matching, but " + maxAhead.get() + " words were",
+                maxAhead.get() <= 4 * BatchMatcher.BLOCK_SIZE);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testParallelism() {
+        new BatchMatcher(new AutomatonGenerator(52).getRandomDFA(2, 2, 0.5), 0);
+    }
+}
@@ -0,0 +1,144 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.ENFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.io.*;
+import java.util.Arrays;
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class BinaryFormatTest {
+
+    private static Automaton roundTrip(Automaton automaton, boolean includeReduced) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        automaton.exportToBinary(out, includeReduced);
+        return Automaton.importFromBinary(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    private static void assertSameAutomaton(Automaton expected, Automaton actual) {
+        assertEquals("Type should be kept", expected.getClass(), actual.getClass());
+        assertArrayEquals("State names should be kept", expected.getQ(), actual.getQ());
+        assertArrayEquals("Letter names should be kept", expected.getSigma(), actual.getSigma());
+        assertSameTransitions(expected, actual);
+        assertEquals("Plain text should be the same", expected.exportToString().getPlainText(), actual.exportToString().getPlainText());
+        assertEquals(expected.getDescription(), actual.getDescription());
+    }
+
+    private static void assertSameTransitions(Automaton expected, Automaton actual) {
+        HashMap<Integer, HashMap<Integer, int[]>> a = expected.getTransitions(), b = actual.getTransitions();
+        for (int state = 0; state < expected.getQSize(); state++) {
+            for (int letter = 0; letter < expected.getSigmaSize(); letter++) {
+                assertArrayEquals("Transitions should be kept", a.get(state).get(letter), b.get(state).get(letter));
+            }
+        }
+    }
+
+    @Test
+    public void testSamples() throws IOException {
+        Automaton[] samples = {
+                AutomatonSamples.DFASamples.lolipop(),
+                AutomatonSamples.DFASamples.startEndSame(),
+                AutomatonSamples.NFASamples.aWa(),
+                AutomatonSamples.NFASamples.regex1(),
+                AutomatonSamples.ENFASamples.oneLetter(),
+                AutomatonSamples.ENFASamples.regex2()
+        };
+        for (Automaton sample : samples) {
+            assertSameAutomaton(sample, roundTrip(sample, false));
+            Automaton withReduced = roundTrip(sample, true);
+            assertSameAutomaton(sample, withReduced);
+            assertSameAutomaton(sample.getReduced(), withReduced.getReduced());
+        }
+    }
+
+    @Test
+    public void testDescription() throws IOException {
+        Automaton automaton = AutomatonSamples.ENFASamples.oneLetter();
+        automaton.setDescription("Description with ε and \"quotes\", commas");
+        assertEquals(automaton.getDescription(), roundTrip(automaton, false).getDescription());
+    }
+
+    @Test
+    public void testPartialDFA() throws IOException {
+        //Reduced ENFA does not contain error state, so its table is not complete
+        DFAAutomaton reduced = AutomatonSamples.ENFASamples.regex2().getReduced();
+        Automaton imported = roundTrip(reduced, false);
+        assertSameAutomaton(reduced, imported);
+        assertEquals(reduced, imported);
+    }
+
+    @Test
+    public void testFile() throws IOException {
+        File file = File.createTempFile("automaton", ".jaut");
+        file.deleteOnExit();
+        NFAAutomaton nfa = AutomatonGenerator.getNthFromEnd(6);
+        nfa.exportToBinary(file, true);
+        Automaton imported = Automaton.importFromBinary(file);
+        assertTrue(imported instanceof NFAAutomaton);
+        assertEquals("Stored reduced DFA should have 2^6 states", 64, imported.getReduced().getQSize());
+        assertTrue(imported.acceptsWord("bbbbabbbbb"));
+        assertFalse(imported.acceptsWord("bbbbbabbbb"));
+    }
+
+    @Test
+    public void testLarge() throws IOException {
+        AutomatonGenerator generator = new AutomatonGenerator(10);
+        ENFAAutomaton enfa = generator.getRandomENFA(100000, 5, 2, 0.1, 0.1);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        enfa.exportToBinary(out, false);
+        //6 cells per state with 2 targets on average, each target takes up to 3 bytes
+        assertTrue("Binary format should take less than 8 bytes per cell", out.size() < 8 * 100000 * 6);
+        Automaton imported = Automaton.importFromBinary(new ByteArrayInputStream(out.toByteArray()));
+        assertArrayEquals(enfa.getQ(), imported.getQ());
+        assertArrayEquals(enfa.getAcceptingStates(), imported.getAcceptingStates());
+        assertSameTransitions(enfa, imported);
+    }
+
+    @Test
+    public void testSequential() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        Automaton first = AutomatonSamples.DFASamples.lolipop();
+        Automaton second = AutomatonSamples.ENFASamples.regex2();
+        first.exportToBinary(out, true);
+        second.exportToBinary(out, false);
+        InputStream in = new BufferedInputStream(new ByteArrayInputStream(out.toByteArray()));
+        assertSameAutomaton(first, Automaton.importFromBinary(in));
+        assertSameAutomaton(second, Automaton.importFromBinary(in));
+        assertEquals("Whole stream should be read", -1, in.read());
+    }
+
+    /**
+     * @return DFA with 2^16 states and 2^16 letters with empty names, its table has 2^32 cells
+     */
+    private static byte[] getOverflowingTable() {
+        byte[] header = {'J', 'A', 'U', 'T', 1, 0, 2, -128, -128, 4, -128, -128, 4};
+        return Arrays.copyOf(header, header.length + 2 * 65536);
+    }
+
+    @Test
+    public void testInvalid() {
+        byte[][] invalid = {
+                {},
+                {'J', 'A', 'U', 'X', 1},
+                {'J', 'A', 'U', 'T', 99},
+                {'J', 'A', 'U', 'T', 1, 0, 0, 1},
+                //NFA with 2 states, second target overflows to negative number
+                {'J', 'A', 'U', 'T', 1, 1, 0, 1, 2, 1, 'a', 1, 'p', 1, 'q', 2, 1, -1, -1, -1, -1, 7, 0, 1, 2, 0},
+                getOverflowingTable()
+        };
+        for (byte[] bytes : invalid) {
+            try {
+                Automaton.importFromBinary(new ByteArrayInputStream(bytes));
+                fail("Invalid input should not be imported");
+            } catch (IOException ignored) {
+            }
+        }
+    }
+}
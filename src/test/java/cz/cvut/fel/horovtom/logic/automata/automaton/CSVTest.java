@@ -51,7 +51,7 @@ public class CSVTest {
                 "    a     b   \n" +
                         "<>A A,B,C     \n" +
                         " >B A     C   \n" +
-                        "  C A     B,A "
+                        "  C A     A,B "
                 , automaton.exportToString().getPlainText());
 
     }
@@ -101,7 +101,7 @@ public class CSVTest {
                 "    ε a     b   \n" +
                         "<>A C A,B,C     \n" +
                         " >B   A     C   \n" +
-                        "  C   A     B,A "
+                        "  C   A     A,B "
                 , automaton.exportToString().getPlainText());
 
     }
@@ -0,0 +1,70 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class DFAEquivalenceTest {
+
+    /**
+     * @return Whether some word of the length is accepted by exactly one of the automata
+     */
+    private static boolean isDistinguishedBy(DFAAutomaton a, DFAAutomaton b, int length) {
+        String[] sigma = a.getSigma();
+        int[] digits = new int[length];
+        String[] word = new String[length];
+        while (true) {
+            for (int i = 0; i < length; i++) {
+                word[i] = sigma[digits[i]];
+            }
+            if (a.acceptsWord(word) != b.acceptsWord(word)) return true;
+            int i = 0;
+            while (i < length && ++digits[i] == sigma.length) {
+                digits[i++] = 0;
+            }
+            if (i == length) return false;
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(140);
+        for (int i = 0; i < 60; i++) {
+            DFAAutomaton a = generator.getRandomDFA(2 + i % 6, 2, 0.4);
+            DFAAutomaton b = i % 3 == 0 ? a.getReduced() : generator.getRandomDFA(2 + i % 4, 2, 0.4);
+            String[] word = a.getDistinguishingWord(b);
+            assertEquals("Equivalence should agree with reduced automata",
+                    a.getReduced().equals(b.getReduced()), word == null);
+            if (word == null) continue;
+            assertTrue("Distinguishing word " + Arrays.toString(word) + " should be accepted by exactly one automaton",
+                    a.acceptsWord(word) != b.acceptsWord(word));
+            for (int length = 0; length < word.length; length++) {
+                assertFalse("Distinguishing word " + Arrays.toString(word) + " should be the shortest one",
+                        isDistinguishedBy(a, b, length));
+            }
+        }
+    }
+
+    @Test
+    public void testEquals() {
+        DFAAutomaton worstCase = AutomatonGenerator.getHopcroftWorstCase(10);
+        DFAAutomaton copy = (DFAAutomaton) worstCase.copy();
+        copy.renameState("0", "initial");
+        assertTrue("Automaton should be equal to its renamed copy", worstCase.equals(copy));
+        assertTrue(worstCase.isEquivalentTo(copy));
+
+        DFAAutomaton shifted = AutomatonGenerator.getHopcroftWorstCase(10);
+        shifted.renameLetter("a", "b");
+        assertFalse("Automata with different alphabets cannot be equal", worstCase.equals(shifted));
+        String[] word = worstCase.getDistinguishingWord(shifted);
+        assertNotNull(word);
+        //Renamed automaton rejects every nonempty word over the original letter, so the shortest accepted word is found
+        assertEquals("Distinguishing word should lead to the first accepting state",
+                Arrays.stream(worstCase.getAcceptingStates()).min().getAsInt(), word.length);
+        assertTrue(worstCase.acceptsWord(word) != shifted.acceptsWord(word));
+    }
+}
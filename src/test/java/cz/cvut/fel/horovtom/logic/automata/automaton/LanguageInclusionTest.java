@@ -0,0 +1,68 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class LanguageInclusionTest {
+
+    private static void assertInclusion(Automaton a, Automaton b) {
+        boolean expected = Automaton.getUnion(a, b).getReduced().equals(b.getReduced());
+        String[] counterexample = a.getInclusionCounterexample(b);
+        assertEquals("Inclusion should agree with reduced automata", expected, counterexample == null);
+        if (counterexample != null) {
+            assertTrue("Counterexample " + Arrays.toString(counterexample) + " should be accepted by the first automaton",
+                    a.acceptsWordUnified(counterexample));
+            assertFalse("Counterexample " + Arrays.toString(counterexample) + " should not be accepted by the second automaton",
+                    b.acceptsWordUnified(counterexample));
+        }
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(130);
+        for (int i = 0; i < 40; i++) {
+            Automaton a = i % 2 == 0 ? generator.getRandomNFA(2 + i % 5, 2, 0.8, 0.4)
+                    : generator.getRandomENFA(2 + i % 5, 2, 0.8, 0.3, 0.4);
+            Automaton b = generator.getRandomNFA(2 + i % 4, 2, 1.2, 0.5);
+            assertInclusion(a, b);
+            assertInclusion(b, a);
+            assertInclusion(a, Automaton.getUnion(a, b));
+            assertEquals("Equivalence should agree with reduced automata",
+                    a.getReduced().equals(b.getReduced()), a.isEquivalentTo(b));
+            assertTrue("Automaton should be equivalent to its reduction", a.isEquivalentTo(a.getReduced()));
+        }
+    }
+
+    @Test
+    public void testRegex() {
+        Automaton ab = FromRegexConverter.getAutomaton("(ab)*");
+        Automaton any = FromRegexConverter.getAutomaton("(a+b)*");
+        assertTrue(ab.isSubsetOf(any));
+        assertFalse(any.isSubsetOf(ab));
+        assertArrayEquals("Shortest counterexample should be found", new String[]{"a"}, any.getInclusionCounterexample(ab));
+        assertTrue(ab.isEquivalentTo(FromRegexConverter.getAutomaton("ε+a(ba)*b")));
+        assertTrue(ab.equals(FromRegexConverter.getAutomaton("ε+a(ba)*b")));
+
+        Automaton onlyA = FromRegexConverter.getAutomaton("a*");
+        assertTrue("Words over smaller alphabet can be included", onlyA.isSubsetOf(any));
+        assertArrayEquals(new String[]{"b"}, any.getDistinguishingWord(onlyA));
+    }
+
+    @Test(timeout = 10000)
+    public void testExponentialDeterminization() {
+        //Reduced DFA of these automata has 2^18 states
+        NFAAutomaton nthFromEnd = AutomatonGenerator.getNthFromEnd(18);
+        Automaton containsA = FromRegexConverter.getAutomaton("(a+b)*a(a+b)*");
+        assertTrue(nthFromEnd.isSubsetOf(containsA));
+        assertFalse(containsA.isSubsetOf(nthFromEnd));
+        assertTrue("Automaton should be equal to its copy", nthFromEnd.equals(nthFromEnd.copy()));
+        assertFalse(nthFromEnd.equals(AutomatonGenerator.getNthFromEnd(17)));
+    }
+}
@@ -0,0 +1,123 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.LazyDFA;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+
+public class LazyDFATest {
+
+    private static String[] getRandomWord(Random r, String[] sigma, int length) {
+        String[] word = new String[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = sigma[r.nextInt(sigma.length)];
+        }
+        return word;
+    }
+
+    private static String getNthFromEnd(int n) {
+        StringBuilder regex = new StringBuilder("(a+b)*a");
+        for (int i = 1; i < n; i++) {
+            regex.append("(a+b)");
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Checks that lazy DFA gives the same results as the simulation
+     */
+    private static void compareWithSimulation(Automaton a, LazyDFA lazy, String[] sigma, int maxLength) {
+        Random r = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String[] word = getRandomWord(r, sigma, r.nextInt(maxLength));
+            assertEquals("Lazy DFA differs from simulation on: " + String.join("", word),
+                    a.acceptsWordUnified(word), lazy.accepts(word));
+        }
+    }
+
+    @Test
+    public void testSamples() throws FileNotFoundException, UnsupportedEncodingException {
+        Automaton a = AutomatonSamples.NFASamples.bAtEnd();
+        compareWithSimulation(a, new LazyDFA(a), new String[]{"a", "b"}, 15);
+        a = AutomatonSamples.ENFASamples.factors_aba();
+        compareWithSimulation(a, new LazyDFA(a), new String[]{"a", "b"}, 15);
+        a = AutomatonSamples.ENFASamples.aa_c_a();
+        compareWithSimulation(a, new LazyDFA(a), new String[]{"a", "b", "c"}, 15);
+        assertFalse("Unknown letter should not be accepted", a.acceptsWordLazy(new String[]{"d"}));
+    }
+
+    @Test
+    public void testFlush() {
+        Automaton a = FromRegexConverter.getAutomaton(getNthFromEnd(4));
+        LazyDFA lazy = new LazyDFA(a, 3);
+        compareWithSimulation(a, lazy, new String[]{"a", "b"}, 40);
+        assertTrue("Cache should have been flushed", lazy.getFlushCount() > 0);
+        assertTrue(lazy.getCachedStateCount() <= 3);
+    }
+
+    @Test
+    public void testThrashing() {
+        Automaton a = FromRegexConverter.getAutomaton(getNthFromEnd(12));
+        LazyDFA lazy = new LazyDFA(a, 4);
+        compareWithSimulation(a, lazy, new String[]{"a", "b"}, 40);
+        assertTrue("Small cache of large automaton should be thrashing", lazy.isThrashing());
+    }
+
+    @Test
+    public void testWithoutReduction() {
+        //Reduced automaton would have 2^70 states, so acceptsWord must not reduce it
+        int n = 70;
+        Automaton a = FromRegexConverter.getAutomaton(getNthFromEnd(n));
+        Random r = new Random(7);
+        for (int i = 0; i < 100; i++) {
+            String[] word = getRandomWord(r, new String[]{"a", "b"}, n + r.nextInt(30));
+            assertEquals(word[word.length - n].equals("a"), a.acceptsWord(word));
+        }
+    }
+
+    @Test
+    public void testConcurrentAccepting() throws InterruptedException {
+        //Words are accepted by the lazy DFA, which is shared by the threads, while it is being determinized
+        Automaton a = AutomatonGenerator.getNthFromEnd(14);
+        Random r = new Random(8);
+        String[][] words = new String[2000][];
+        boolean[] expected = new boolean[words.length];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = getRandomWord(r, new String[]{"a", "b"}, 14 + r.nextInt(200));
+            expected[i] = a.acceptsWordUnified(words[i]);
+        }
+        AtomicInteger wrong = new AtomicInteger(), failed = new AtomicInteger();
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            int offset = t;
+            threads[t] = new Thread(() -> {
+                for (int i = 0; i < words.length; i++) {
+                    int word = (i + offset * 250) % words.length;
+                    try {
+                        if (a.acceptsWord(words[word]) != expected[word]) wrong.incrementAndGet();
+                        if (a.acceptsWord(String.join("", words[word])) != expected[word]) wrong.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        failed.incrementAndGet();
+                    }
+                }
+            });
+        }
+        for (Thread thread : threads) {
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals("No thread should get a wrong answer", 0, wrong.get());
+        assertEquals("No thread should fail", 0, failed.get());
+    }
+}
@@ -0,0 +1,124 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.Lexer;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class LexerTest {
+
+    /**
+     * Keyword if, identifiers of letters i, f, x and separator y
+     */
+    private static Lexer getLexer() {
+        List<Automaton> tokens = Arrays.asList(
+                FromRegexConverter.getAutomaton("if"),
+                FromRegexConverter.getAutomaton("(i+f+x)(i+f+x)*"),
+                FromRegexConverter.getAutomaton("y"));
+        return new Lexer(tokens);
+    }
+
+    @Test
+    public void testScan() {
+        Lexer lexer = getLexer();
+        assertEquals(3, lexer.getTokenCount());
+        ArrayList<String> tokens = new ArrayList<>();
+        String input = "ifxyifyif";
+        int end = lexer.scan(input, (type, start, e) -> tokens.add(type + ":" + input.substring(start, e)));
+        assertEquals(input.length(), end);
+        assertEquals("Keyword should win over identifier of the same length",
+                Arrays.asList("1:ifx", "2:y", "0:if", "2:y", "0:if"), tokens);
+
+        tokens.clear();
+        assertEquals("Scanning should stop at unknown character", 3,
+                lexer.scan("xiyz", (type, start, e) -> tokens.add(type + ":" + start + "-" + e)));
+        assertEquals(Arrays.asList("1:0-2", "2:2-3"), tokens);
+    }
+
+    @Test
+    public void testBacktracking() {
+        //Longest token is abc, so scanner has to return from the position after ab to a
+        Lexer lexer = new Lexer(Arrays.asList(FromRegexConverter.getAutomaton("abc"), FromRegexConverter.getAutomaton("a+b")));
+        ArrayList<String> tokens = new ArrayList<>();
+        assertEquals(5, lexer.scan("abcab", (type, start, end) -> tokens.add(type + ":" + start + "-" + end)));
+        assertEquals(Arrays.asList("0:0-3", "1:3-4", "1:4-5"), tokens);
+    }
+
+    @Test
+    public void testDeadStates() {
+        //Both tokens are over the same alphabet, so the scanner has to stop in the dead state of their product
+        Lexer lexer = new Lexer(Arrays.asList(FromRegexConverter.getAutomaton("a+b"), FromRegexConverter.getAutomaton("ab")));
+        for (int n = 1000; n <= 4000; n *= 2) {
+            char[] chars = new char[n];
+            Arrays.fill(chars, 'a');
+            int[] reads = new int[1];
+            CharSequence input = new CharSequence() {
+                @Override
+                public int length() {
+                    return chars.length;
+                }
+
+                @Override
+                public char charAt(int index) {
+                    reads[0]++;
+                    return chars[index];
+                }
+
+                @Override
+                public CharSequence subSequence(int start, int end) {
+                    return new String(chars, start, end - start);
+                }
+            };
+            int[] count = new int[1];
+            assertEquals(n, lexer.scan(input, (type, start, end) -> count[0]++));
+            assertEquals(n, count[0]);
+            assertTrue("Every character should be read at most twice, but " + reads[0] + " reads were made for " + n,
+                    reads[0] <= 2 * n);
+        }
+    }
+
+    @Test
+    public void testGeneratedSource() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) return;
+        Lexer lexer = getLexer();
+        File directory = Files.createTempDirectory("lexer").toFile();
+        File source = new File(directory, "GeneratedScanner.java");
+        Files.write(source.toPath(), lexer.toJavaSource("", "GeneratedScanner").getBytes(StandardCharsets.UTF_8));
+        assertEquals("Generated source should compile", 0, compiler.run(null, null, null, source.getPath()));
+
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toURI().toURL()})) {
+            Class<?> scanner = loader.loadClass("GeneratedScanner");
+            Class<?> handlerType = loader.loadClass("GeneratedScanner$TokenHandler");
+            ArrayList<String> generated = new ArrayList<>();
+            Object handler = Proxy.newProxyInstance(loader, new Class<?>[]{handlerType}, (proxy, method, args) -> {
+                generated.add(args[0] + ":" + args[1] + "-" + args[2]);
+                return null;
+            });
+            Method scan = scanner.getMethod("scan", CharSequence.class, handlerType);
+            ArrayList<String> expected = new ArrayList<>();
+            for (String input : new String[]{"ifxyifyif", "xiyz", "", "fffiy"}) {
+                generated.clear();
+                expected.clear();
+                int end = lexer.scan(input, (type, start, e) -> expected.add(type + ":" + start + "-" + e));
+                assertEquals(end, scan.invoke(null, input, handler));
+                assertEquals("Generated scanner should report the same tokens", expected, generated);
+            }
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.MappedDFA;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.io.*;
+
+import static org.junit.Assert.*;
+
+public class MappedDFATest {
+
+    private static MappedDFA map(DFAAutomaton dfa) throws IOException {
+        File file = File.createTempFile("automaton", ".jdfa");
+        file.deleteOnExit();
+        MappedDFA.write(dfa, file);
+        return MappedDFA.open(file);
+    }
+
+    private static void assertSameLanguage(Automaton automaton, MappedDFA mapped, AutomatonGenerator generator) {
+        String[] sigma = mapped.getSigma();
+        for (int i = 0; i < 500; i++) {
+            String[] word = generator.getRandomWord(sigma, i % 15);
+            assertEquals("Mapped DFA should agree on " + String.join("", word), automaton.acceptsWord(word), mapped.acceptsWord(word));
+            assertEquals(mapped.acceptsWord(word), mapped.acceptsWord(String.join("", word)));
+        }
+    }
+
+    @Test
+    public void testSamples() throws IOException {
+        AutomatonGenerator generator = new AutomatonGenerator(11);
+        Automaton[] samples = {
+                AutomatonSamples.DFASamples.lolipop(),
+                AutomatonSamples.DFASamples.startEndSame(),
+                AutomatonSamples.NFASamples.aWa(),
+                AutomatonSamples.ENFASamples.regex2()
+        };
+        for (Automaton sample : samples) {
+            DFAAutomaton reduced = sample.getReduced();
+            MappedDFA mapped = map(reduced);
+            assertEquals(reduced.getQSize(), mapped.getQSize());
+            assertArrayEquals(reduced.getSigma(), mapped.getSigma());
+            assertSameLanguage(sample, mapped, generator);
+        }
+    }
+
+    @Test
+    public void testLarge() throws IOException {
+        AutomatonGenerator generator = new AutomatonGenerator(12);
+        DFAAutomaton dfa = generator.getRandomDFA(100000, 30, 0.5);
+        MappedDFA mapped = map(dfa);
+        assertEquals("l29", mapped.getSigma()[29]);
+        for (int i = 0; i < 200; i++) {
+            String[] word = generator.getRandomWord(dfa.getSigma(), 50);
+            assertEquals(dfa.acceptsWordUnified(word), mapped.acceptsWord(word));
+        }
+    }
+
+    @Test
+    public void testInvalid() throws IOException {
+        File file = File.createTempFile("automaton", ".jdfa");
+        file.deleteOnExit();
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write("not an automaton at all".getBytes());
+        }
+        try {
+            MappedDFA.open(file);
+            fail("Invalid file should not be opened");
+        } catch (IOException ignored) {
+        }
+
+        MappedDFA.write(AutomatonSamples.DFASamples.lolipop(), file);
+        try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+            raf.setLength(raf.length() - 4);
+        }
+        try {
+            MappedDFA.open(file);
+            fail("Truncated file should not be opened");
+        } catch (IOException ignored) {
+        }
+    }
+}
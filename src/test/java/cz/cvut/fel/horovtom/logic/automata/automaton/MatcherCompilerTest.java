@@ -0,0 +1,88 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.MatcherCompiler;
+import cz.cvut.fel.horovtom.automata.logic.WordMatcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import javax.tools.ToolProvider;
+import java.util.Collections;
+
+import static org.junit.Assert.*;
+
+public class MatcherCompilerTest {
+
+    private static void assertSameLanguage(Automaton automaton, WordMatcher matcher, AutomatonGenerator generator) {
+        for (int i = 0; i < 200; i++) {
+            String word = String.join("", generator.getRandomWord(automaton.getSigma(), i % 12));
+            assertEquals("Compiled matcher should accept " + word + " iff the automaton does",
+                    automaton.acceptsWord(word), matcher.matches(word));
+        }
+        assertFalse("Unknown letter should be rejected", matcher.matches("?"));
+    }
+
+    @Test
+    public void testCompiled() {
+        boolean compilerAvailable = ToolProvider.getSystemJavaCompiler() != null;
+        AutomatonGenerator generator = new AutomatonGenerator(100);
+        Automaton[] samples = {
+                generator.getRandomDFA(6, 3, 0.3),
+                generator.getRandomNFA(5, 2, 1, 0.3),
+                generator.getRandomENFA(5, 3, 0.8, 0.3, 0.3),
+                AutomatonGenerator.getNthFromEnd(4)
+        };
+        for (Automaton sample : samples) {
+            WordMatcher matcher = MatcherCompiler.compile(sample, Integer.MAX_VALUE);
+            assertEquals(compilerAvailable, MatcherCompiler.isCompiled(matcher));
+            assertSameLanguage(sample, matcher, generator);
+        }
+    }
+
+    @Test
+    public void testFallback() {
+        AutomatonGenerator generator = new AutomatonGenerator(101);
+        Automaton large = AutomatonGenerator.getNthFromEnd(8);
+        WordMatcher matcher = MatcherCompiler.compile(large, 10);
+        assertFalse("Automaton over the limit should not be compiled", MatcherCompiler.isCompiled(matcher));
+        assertSameLanguage(large, matcher, generator);
+
+        DFAAutomaton multiCharacter = AutomatonGenerator.getHopcroftWorstCase(2);
+        multiCharacter.renameLetter("a", "letter");
+        WordMatcher multiMatcher = MatcherCompiler.compile(multiCharacter, Integer.MAX_VALUE);
+        assertFalse(MatcherCompiler.isCompiled(multiMatcher));
+    }
+
+    @Test
+    public void testLarge() {
+        //One method of the generated class with all transitions would be too large for javac
+        AutomatonGenerator generator = new AutomatonGenerator(102);
+        DFAAutomaton large = generator.getRandomDFA(200, 26, 0.3);
+        WordMatcher matcher = MatcherCompiler.compile(large, Integer.MAX_VALUE);
+        assertEquals(ToolProvider.getSystemJavaCompiler() != null, MatcherCompiler.isCompiled(matcher));
+        assertSameLanguage(large, matcher, generator);
+    }
+
+    @Test
+    public void testSelection() {
+        boolean compilerAvailable = ToolProvider.getSystemJavaCompiler() != null;
+        AutomatonGenerator generator = new AutomatonGenerator(103);
+        Automaton random = generator.getRandomDFA(20, 5, 0.3);
+        WordMatcher matcher = MatcherCompiler.compile(random);
+        assertFalse("Table should be used for uniformly random words", MatcherCompiler.isCompiled(matcher));
+        assertSameLanguage(random, matcher, generator);
+
+        Automaton ab = FromRegexConverter.getAutomaton("(ab)*");
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i < 32; i++) {
+            word.append("ab");
+        }
+        WordMatcher predictable = MatcherCompiler.compile(ab, Collections.nCopies(10, word.toString()));
+        assertEquals("Compiled code should be used for predictable words", compilerAvailable, MatcherCompiler.isCompiled(predictable));
+        assertSameLanguage(ab, predictable, generator);
+        assertFalse("Table should be used, if the sample has no letters",
+                MatcherCompiler.isCompiled(MatcherCompiler.compile(ab, Collections.singletonList(""))));
+    }
+}
@@ -0,0 +1,70 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.MultiPatternMatcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class MultiPatternMatcherTest {
+
+    @Test
+    public void testRegexes() {
+        MultiPatternMatcher matcher = new MultiPatternMatcher(Arrays.asList(
+                FromRegexConverter.getAutomaton("a*"),
+                FromRegexConverter.getAutomaton("ab"),
+                FromRegexConverter.getAutomaton("(a+b)*b"),
+                FromRegexConverter.getAutomaton("c")));
+        assertEquals(4, matcher.getPatternCount());
+        assertEquals(BitSet.valueOf(new long[]{0b0001}), matcher.match(""));
+        assertEquals(BitSet.valueOf(new long[]{0b0110}), matcher.match("ab"));
+        assertEquals(BitSet.valueOf(new long[]{0b1000}), matcher.match("c"));
+        assertTrue(matcher.match("ac").isEmpty());
+        assertEquals("No pattern can accept continuation of ca", -1, matcher.getState("ca"));
+        assertEquals(matcher.match("ab"), matcher.match(new String[]{"a", "b"}));
+
+        int state = matcher.getState("aaa");
+        assertArrayEquals(new int[]{0}, matcher.getPatterns(state));
+        DFAAutomaton union = matcher.getAutomaton();
+        assertTrue(union.acceptsWord("aab"));
+        assertFalse(union.acceptsWord("aac"));
+
+        //Patterns over the same alphabet are complete, so their dead states have to be found in the product
+        MultiPatternMatcher sameAlphabet = new MultiPatternMatcher(Arrays.asList(
+                FromRegexConverter.getAutomaton("a+b"),
+                FromRegexConverter.getAutomaton("ab")));
+        assertEquals("No pattern can accept continuation of bb", -1, sameAlphabet.getState("bb"));
+        assertEquals("No pattern can accept continuation of aa", -1, sameAlphabet.getState("aa"));
+        assertEquals(BitSet.valueOf(new long[]{0b10}), sameAlphabet.match("ab"));
+        assertTrue("Pattern ab can still accept continuation of a", sameAlphabet.getState("a") != -1);
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(90);
+        for (int i = 0; i < 10; i++) {
+            ArrayList<Automaton> patterns = new ArrayList<>();
+            for (int p = 0; p < 2 + i; p++) {
+                patterns.add(p % 2 == 0 ? generator.getRandomDFA(2 + p % 4, 3, 0.4) : generator.getRandomNFA(2 + p % 3, 3, 0.6, 0.4));
+            }
+            MultiPatternMatcher matcher = new MultiPatternMatcher(patterns);
+            DFAAutomaton union = matcher.getAutomaton();
+            for (int j = 0; j < 100; j++) {
+                String word = String.join("", generator.getRandomWord(patterns.get(0).getSigma(), j % 8));
+                BitSet expected = new BitSet();
+                for (int p = 0; p < patterns.size(); p++) {
+                    if (patterns.get(p).acceptsWord(word)) expected.set(p);
+                }
+                assertEquals("Patterns accepting " + word, expected, matcher.match(word));
+                assertEquals(!expected.isEmpty(), union.acceptsWord(word));
+            }
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.ParallelMatcher;
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.*;
+
+public class ParallelMatcherTest {
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(70);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            for (int i = 0; i < 10; i++) {
+                //Automata with many accepting states and self loops, so that long words are not always rejected
+                Automaton[] samples = {
+                        generator.getRandomDFA(2 + i, 2, 0.5),
+                        generator.getRandomNFA(2 + i, 2, 1.5, 0.5)
+                };
+                for (Automaton sample : samples) {
+                    ParallelMatcher matcher = sample.getParallelMatcher();
+                    for (int length : new int[]{0, 100, 20000, 100003}) {
+                        String input = String.join("", generator.getRandomWord(sample.getSigma(), length));
+                        boolean expected = sample.acceptsWord(input);
+                        for (int chunks : new int[]{1, 2, 3, 8, 64}) {
+                            assertEquals("Input of length " + length + " split to " + chunks + " chunks",
+                                    expected, matcher.accepts(input, chunks, executor));
+                        }
+                        assertEquals(expected, matcher.accepts(input));
+                    }
+                }
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testLongInput() {
+        //Accepts words with even number of a
+        DFAAutomaton parity = new DFAAutomaton(new String[]{"0", "1"}, new String[]{"a", "b"},
+                TransitionTable.fromDense(2, 2, new int[]{1, 0, 0, 1}), 0, new int[]{0});
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 1 << 20; i++) {
+            sb.append(i % 3 == 0 ? 'a' : 'b');
+        }
+        ParallelMatcher matcher = parity.getParallelMatcher();
+        assertEquals(2, matcher.getQSize());
+        String input = sb.toString();
+        assertEquals(parity.acceptsWord(input), matcher.accepts(input));
+        assertEquals(!parity.acceptsWord(input), matcher.accepts(input + "a"));
+        assertFalse("Unknown letter should reject the input", matcher.accepts(input.substring(0, 1 << 19) + "c" + input));
+    }
+}
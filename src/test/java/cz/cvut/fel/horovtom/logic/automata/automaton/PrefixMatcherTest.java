@@ -0,0 +1,125 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.PrefixMatcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PrefixMatcherTest {
+
+    /**
+     * @return Words, that share prefixes with each other, in random order. Some of them contain unknown letter.
+     */
+    private static ArrayList<String> getWords(AutomatonGenerator generator, String[] sigma, int count) {
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            String word = String.join("", generator.getRandomWord(sigma, i % 9));
+            if (!words.isEmpty() && i % 3 != 0) {
+                String other = words.get(i / 2);
+                word = other.substring(0, Math.min(other.length(), other.length() / 2 + i % 2)) + word;
+            }
+            if (i % 50 == 0) word += "?";
+            words.add(word);
+        }
+        words.add("");
+        words.add("");
+        Collections.shuffle(words, new Random(count));
+        return words;
+    }
+
+    private static void assertSameResults(Automaton automaton, ArrayList<String> words) {
+        BitSet expected = new BitSet();
+        for (int i = 0; i < words.size(); i++) {
+            if (automaton.acceptsWordUnified(splitWord(words.get(i)))) expected.set(i);
+        }
+        PrefixMatcher matcher = automaton.getPrefixMatcher();
+        assertEquals("Prefix matcher should agree with single words", expected, matcher.accepts(words));
+        //Matcher is reusable and sorted input is not sorted again
+        Collections.sort(words);
+        BitSet sortedExpected = new BitSet();
+        for (int i = 0; i < words.size(); i++) {
+            if (automaton.acceptsWordUnified(splitWord(words.get(i)))) sortedExpected.set(i);
+        }
+        assertEquals(sortedExpected, matcher.accepts(words));
+    }
+
+    private static String[] splitWord(String word) {
+        return word.isEmpty() ? new String[0] : word.split("");
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(60);
+        for (int i = 0; i < 10; i++) {
+            Automaton[] samples = {
+                    generator.getRandomDFA(3 + i, 3, 0.4),
+                    generator.getRandomNFA(3 + i, 3, 0.8, 0.3),
+                    generator.getRandomENFA(3 + i, 3, 0.8, 0.3, 0.3)
+            };
+            for (Automaton sample : samples) {
+                String[] sigma = Arrays.stream(sample.getSigma()).filter(l -> !Automaton.isEpsilonName(l)).toArray(String[]::new);
+                ArrayList<String> words = getWords(generator, sigma, 300);
+                assertSameResults(sample, words);
+                //Reduced automaton is used, once it is computed
+                sample.getReduced();
+                assertSameResults(sample, words);
+            }
+        }
+    }
+
+    @Test
+    public void testSamples() {
+        Automaton automaton = AutomatonSamples.NFASamples.aWa();
+        ArrayList<String> words = new ArrayList<>(Arrays.asList("a", "aa", "aba", "ab", "abab", "aaba", "b", "ba", "bab"));
+        BitSet accepted = automaton.getPrefixMatcher().accepts(words);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(words.get(i), automaton.acceptsWord(words.get(i)), accepted.get(i));
+        }
+        assertTrue(automaton.getPrefixMatcher().accepts(new ArrayList<>()).isEmpty());
+    }
+
+    @Test
+    public void testDeadPrefix() {
+        //Reduced DFA is complete, so "b" leads to its dead state, from which no accepting state is reachable
+        DFAAutomaton dfa = FromRegexConverter.getAutomaton("ab").getReduced();
+        NFAAutomaton nfa = new NFAAutomaton(dfa.getQ(), dfa.getSigma(), dfa.getTransitions(),
+                dfa.getInitialStates(), dfa.getAcceptingStates());
+        for (Automaton automaton : new Automaton[]{dfa, nfa}) {
+            char[] chars = new char[10000];
+            Arrays.fill(chars, 'a');
+            chars[0] = 'b';
+            int[] reads = new int[1];
+            CharSequence word = new CharSequence() {
+                @Override
+                public int length() {
+                    return chars.length;
+                }
+
+                @Override
+                public char charAt(int index) {
+                    reads[0]++;
+                    return chars[index];
+                }
+
+                @Override
+                public CharSequence subSequence(int start, int end) {
+                    return new String(chars, start, end - start);
+                }
+            };
+            assertTrue(automaton.getPrefixMatcher().accepts(Collections.singletonList(word)).isEmpty());
+            assertEquals("Word should be rejected after its first letter leads to the dead state", 1, reads[0]);
+        }
+    }
+}
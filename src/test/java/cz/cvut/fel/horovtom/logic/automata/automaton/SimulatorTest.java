@@ -0,0 +1,74 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.io.FileNotFoundException;
+import java.io.UnsupportedEncodingException;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SimulatorTest {
+
+    private static String[] getRandomWord(Random r, String[] sigma, int length) {
+        String[] word = new String[length];
+        for (int i = 0; i < length; i++) {
+            word[i] = sigma[r.nextInt(sigma.length)];
+        }
+        return word;
+    }
+
+    /**
+     * Checks that simulation gives the same results as the reduced automaton
+     */
+    private static void compareWithReduced(Automaton a, String[] sigma) {
+        Random r = new Random(42);
+        for (int i = 0; i < 500; i++) {
+            String[] word = getRandomWord(r, sigma, r.nextInt(15));
+            assertEquals("Simulation differs from reduced automaton on: " + String.join("", word),
+                    a.acceptsWord(word), a.acceptsWordUnified(word));
+        }
+    }
+
+    @Test
+    public void testSamples() throws FileNotFoundException, UnsupportedEncodingException {
+        compareWithReduced(AutomatonSamples.DFASamples.startEndSame(), new String[]{"a", "b"});
+        compareWithReduced(AutomatonSamples.NFASamples.bAtEnd(), new String[]{"a", "b"});
+        compareWithReduced(AutomatonSamples.NFASamples.aWa(), new String[]{"a", "b"});
+        compareWithReduced(AutomatonSamples.ENFASamples.factors_aba(), new String[]{"a", "b"});
+        compareWithReduced(AutomatonSamples.ENFASamples.aa_c_a(), new String[]{"a", "b", "c"});
+        compareWithReduced(FromRegexConverter.getAutomaton("(a+eps)*b(c+ab)*").getENFA(), new String[]{"a", "b", "c"});
+    }
+
+    @Test
+    public void testEpsilonClosureOfEnds() {
+        Automaton a = FromRegexConverter.getAutomaton("a*").getKleene();
+        assertTrue(a.acceptsWordUnified(new String[]{}));
+        assertTrue(a.acceptsWordUnified(new String[]{"a", "a"}));
+        assertFalse(a.acceptsWordUnified(new String[]{"b"}));
+    }
+
+    @Test
+    public void testMoreThan64States() {
+        //a is 70th letter from the end, its reduced automaton would have 2^70 states
+        int n = 70;
+        StringBuilder regex = new StringBuilder("(a+b)*a");
+        for (int i = 1; i < n; i++) {
+            regex.append("(a+b)");
+        }
+        Automaton a = FromRegexConverter.getAutomaton(regex.toString());
+        assertTrue(a.getQSize() > 64);
+
+        Random r = new Random(7);
+        for (int i = 0; i < 200; i++) {
+            String[] word = getRandomWord(r, new String[]{"a", "b"}, n + r.nextInt(30));
+            boolean expected = word[word.length - n].equals("a");
+            assertEquals(expected, a.acceptsWordUnified(word));
+        }
+        assertFalse(a.acceptsWordUnified(getRandomWord(r, new String[]{"a"}, n - 1)));
+        assertFalse("Unknown letter should not be accepted", a.acceptsWordUnified(new String[]{"c"}));
+    }
+}
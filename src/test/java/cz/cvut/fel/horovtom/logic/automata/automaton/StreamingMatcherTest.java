@@ -0,0 +1,127 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.StreamingMatcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+public class StreamingMatcherTest {
+
+    private static void assertChunkedAgrees(Automaton automaton, AutomatonGenerator generator) {
+        StreamingMatcher matcher = automaton.getMatcher();
+        for (int i = 0; i < 300; i++) {
+            String word = String.join("", generator.getRandomWord(automaton.getReduced().getSigma(), i % 25));
+            boolean expected = automaton.acceptsWord(word);
+
+            matcher.reset();
+            int split = word.length() / 3;
+            matcher.feed(word.substring(0, split));
+            matcher.feed(word.toCharArray(), split, word.length() - split);
+            assertEquals("Chunked input should be accepted as whole word " + word, expected, matcher.isAccepting());
+            if (matcher.isDead()) assertFalse(matcher.isAccepting());
+        }
+    }
+
+    @Test
+    public void testSamples() {
+        AutomatonGenerator generator = new AutomatonGenerator(20);
+        Automaton[] samples = {
+                AutomatonSamples.DFASamples.lolipop(),
+                AutomatonSamples.NFASamples.aWa(),
+                AutomatonSamples.NFASamples.regex1(),
+                AutomatonSamples.ENFASamples.oneLetter(),
+                AutomatonSamples.ENFASamples.regex2(),
+                AutomatonGenerator.getNthFromEnd(5)
+        };
+        for (Automaton sample : samples) {
+            assertChunkedAgrees(sample, generator);
+            //Reduced DFA is cached now, so NFA and ENFA are matched by it
+            assertChunkedAgrees(sample, generator);
+        }
+    }
+
+    @Test
+    public void testDead() {
+        Automaton nfa = FromRegexConverter.getAutomaton("ab*c");
+        StreamingMatcher matcher = nfa.getMatcher();
+        assertFalse(matcher.isDead());
+        matcher.feed("abbb");
+        assertFalse(matcher.isDead());
+        assertFalse(matcher.isAccepting());
+        matcher.feed('c');
+        assertTrue(matcher.isAccepting());
+        matcher.feed("c");
+        assertTrue("No continuation of abbbcc can be accepted", matcher.isDead());
+        matcher.feed("anything");
+        assertFalse(matcher.isAccepting());
+
+        matcher.reset();
+        matcher.feed("x");
+        assertTrue("Unknown character should make matcher dead", matcher.isDead());
+
+        DFAAutomaton dfa = nfa.getReduced();
+        matcher = dfa.getMatcher();
+        matcher.feed("ac");
+        assertTrue(matcher.isAccepting());
+        matcher.feed("b");
+        assertTrue("Error state of DFA should be dead", matcher.isDead());
+        matcher.feed(new char[]{'a', 'c'}, 0, 2);
+        assertTrue("Array fed to dead matcher should be ignored", matcher.isDead());
+        assertFalse(matcher.isAccepting());
+
+        matcher.reset();
+        matcher.feed("x");
+        assertTrue("Unknown character should make DFA matcher dead", matcher.isDead());
+        matcher.feed(new char[]{'a'}, 0, 1);
+        assertFalse(matcher.isAccepting());
+    }
+
+    @Test
+    public void testReaders() throws IOException {
+        DFAAutomaton even = FromRegexConverter.getAutomaton("(aa+b)*").getReduced();
+        NFAAutomaton nfa = AutomatonGenerator.getNthFromEnd(10);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 100000; i++) {
+            sb.append(i % 7 == 0 ? 'b' : 'a');
+        }
+        String input = sb.toString();
+
+        StreamingMatcher matcher = nfa.getMatcher();
+        matcher.feed(new StringReader(input));
+        assertEquals(nfa.acceptsWord(input), matcher.isAccepting());
+
+        matcher.reset();
+        matcher.feed(Channels.newChannel(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+        assertEquals(nfa.acceptsWord(input), matcher.isAccepting());
+
+        matcher = even.getMatcher();
+        matcher.feed(new StringReader(input));
+        assertEquals(even.acceptsWord(input), matcher.isAccepting());
+    }
+
+    @Test
+    public void testMultibyte() throws IOException {
+        Automaton nfa = FromRegexConverter.getAutomaton("(č+ř)*ž");
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < 10000; i++) {
+            sb.append(i % 3 == 0 ? 'č' : 'ř');
+        }
+        sb.append('ž');
+        StreamingMatcher matcher = nfa.getMatcher();
+        //Two byte characters are split between reads of the channel
+        matcher.feed(Channels.newChannel(new ByteArrayInputStream(sb.toString().getBytes(StandardCharsets.UTF_8))), StandardCharsets.UTF_8);
+        assertTrue(matcher.isAccepting());
+    }
+}
@@ -0,0 +1,90 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.SubstringSearcher;
+import cz.cvut.fel.horovtom.automata.logic.converters.FromRegexConverter;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class SubstringSearcherTest {
+
+    private static ArrayList<String> collect(SubstringSearcher.Search search) {
+        ArrayList<String> spans = new ArrayList<>();
+        while (search.find()) {
+            spans.add(search.start() + "-" + search.end());
+        }
+        return spans;
+    }
+
+    /**
+     * @return All spans of the text accepted by the automaton, ordered by start and end
+     */
+    private static ArrayList<String> bruteForceOverlapping(Automaton automaton, String text) {
+        ArrayList<String> spans = new ArrayList<>();
+        for (int start = 0; start <= text.length(); start++) {
+            for (int end = start; end <= text.length(); end++) {
+                if (automaton.acceptsWord(text.substring(start, end))) spans.add(start + "-" + end);
+            }
+        }
+        return spans;
+    }
+
+    private static ArrayList<String> bruteForceLongest(Automaton automaton, String text) {
+        ArrayList<String> spans = new ArrayList<>();
+        int start = 0;
+        while (start <= text.length()) {
+            int longest = -1;
+            for (int end = start; end <= text.length(); end++) {
+                if (automaton.acceptsWord(text.substring(start, end))) longest = end;
+            }
+            if (longest == -1) {
+                start++;
+                continue;
+            }
+            spans.add(start + "-" + longest);
+            start = longest > start ? longest : start + 1;
+        }
+        return spans;
+    }
+
+    @Test
+    public void testRegex() {
+        //Language {ab, b}
+        Automaton automaton = FromRegexConverter.getAutomaton("ab+b");
+        SubstringSearcher searcher = automaton.getSearcher();
+        assertEquals(Arrays.asList("1-3", "4-5", "5-6"), collect(searcher.search("aabxbbc")));
+        assertEquals(Arrays.asList("1-3", "2-3", "4-5", "5-6"), collect(searcher.searchOverlapping("aabxbbc")));
+
+        Automaton stars = FromRegexConverter.getAutomaton("a*");
+        //Same matches as java.util.regex.Matcher.find() of a*
+        assertEquals(Arrays.asList("0-0", "1-3", "3-3", "4-4"), collect(stars.getSearcher().search("baab")));
+    }
+
+    @Test
+    public void testRandom() {
+        AutomatonGenerator generator = new AutomatonGenerator(80);
+        for (int i = 0; i < 30; i++) {
+            Automaton automaton = i % 2 == 0 ? generator.getRandomDFA(2 + i % 6, 2, 0.3)
+                    : generator.getRandomNFA(2 + i % 6, 2, 0.7, 0.3);
+            SubstringSearcher searcher = automaton.getSearcher();
+            for (int j = 0; j < 10; j++) {
+                String text = String.join("", generator.getRandomWord(automaton.getSigma(), j * 3));
+                if (j == 9) text = text.substring(0, 10) + "?" + text.substring(10);
+                assertEquals("Overlapping matches in " + text, bruteForceOverlapping(automaton, text), collect(searcher.searchOverlapping(text)));
+                assertEquals("Longest matches in " + text, bruteForceLongest(automaton, text), collect(searcher.search(text)));
+            }
+        }
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testNoMatch() {
+        SubstringSearcher.Search search = FromRegexConverter.getAutomaton("ab").getSearcher().search("ba");
+        assertFalse(search.find());
+        search.start();
+    }
+}
@@ -0,0 +1,68 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import javax.tools.JavaCompiler;
+import javax.tools.ToolProvider;
+import java.io.File;
+import java.lang.reflect.Method;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class ToJavaConverterTest {
+
+    @Test
+    public void testGeneratedSource() throws Exception {
+        JavaCompiler compiler = ToolProvider.getSystemJavaCompiler();
+        if (compiler == null) return;
+        AutomatonGenerator generator = new AutomatonGenerator(110);
+        Automaton[] samples = {
+                generator.getRandomDFA(6, 3, 0.3),
+                generator.getRandomNFA(5, 2, 1, 0.3),
+                generator.getRandomENFA(5, 3, 0.8, 0.3, 0.3),
+                AutomatonGenerator.getNthFromEnd(4)
+        };
+        for (int sample = 0; sample < samples.length; sample++) {
+            Automaton automaton = samples[sample];
+            File directory = Files.createTempDirectory("matcher").toFile();
+            File packageDirectory = new File(directory, "generated");
+            assertTrue(packageDirectory.mkdir());
+            String className = "Matcher" + sample;
+            File source = new File(packageDirectory, className + ".java");
+            Files.write(source.toPath(), automaton.exportToJava("generated", className).getBytes(StandardCharsets.UTF_8));
+            assertEquals("Generated source should compile", 0, compiler.run(null, null, null, source.getPath()));
+
+            try (URLClassLoader loader = new URLClassLoader(new URL[]{directory.toURI().toURL()})) {
+                Class<?> matcher = loader.loadClass("generated." + className);
+                Method matches = matcher.getMethod("matches", CharSequence.class);
+                Method step = matcher.getMethod("step", int.class, char.class);
+                Method isAccepting = matcher.getMethod("isAccepting", int.class);
+                int initial = matcher.getField("INITIAL").getInt(null);
+                for (int i = 0; i < 200; i++) {
+                    String word = String.join("", generator.getRandomWord(automaton.getSigma(), i % 12));
+                    boolean expected = automaton.acceptsWord(word);
+                    assertEquals("Generated matcher should accept " + word + " iff the automaton does",
+                            expected, matches.invoke(null, word));
+                    int state = initial;
+                    for (int c = 0; c < word.length(); c++) {
+                        state = (int) step.invoke(null, state, word.charAt(c));
+                    }
+                    assertEquals("Streaming should give the same result for " + word, expected, isAccepting.invoke(null, state));
+                }
+                assertEquals("Unknown letter should be rejected", false, matches.invoke(null, "?"));
+                assertEquals("Unknown letter should lead to the dead state", -1, step.invoke(null, initial, '?'));
+            }
+        }
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidClassName() {
+        AutomatonGenerator.getNthFromEnd(2).exportToJava("", "1Matcher");
+    }
+}
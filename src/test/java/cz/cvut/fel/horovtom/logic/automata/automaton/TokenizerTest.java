@@ -0,0 +1,91 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.Tokenizer;
+import cz.cvut.fel.horovtom.automata.logic.WordBatch;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonSamples;
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.ArrayList;
+import java.util.BitSet;
+
+import static org.junit.Assert.*;
+
+public class TokenizerTest {
+
+    @Test
+    public void testEncode() {
+        Automaton automaton = AutomatonSamples.DFASamples.lolipop();
+        Tokenizer tokenizer = automaton.getTokenizer();
+        String[] sigma = automaton.getSigma();
+        assertArrayEquals(new int[]{1, 0, 1}, tokenizer.encode(new String[]{sigma[1], sigma[0], sigma[1]}));
+        assertArrayEquals(new int[]{0, Tokenizer.UNKNOWN}, tokenizer.encode(new String[]{sigma[0], "unknown"}));
+        assertFalse("Unknown symbol should not be accepted", automaton.acceptsWord(new int[]{Tokenizer.UNKNOWN}));
+        assertFalse(automaton.acceptsWord(new int[]{sigma.length}));
+    }
+
+    @Test
+    public void testSymbols() {
+        AutomatonGenerator generator = new AutomatonGenerator(40);
+        Automaton[] samples = {
+                AutomatonSamples.DFASamples.startEndSame(),
+                AutomatonSamples.NFASamples.aWa(),
+                AutomatonSamples.ENFASamples.oneLetter(),
+                AutomatonSamples.ENFASamples.regex2(),
+                generator.getRandomENFA(10, 3, 1, 0.3, 0.3)
+        };
+        for (Automaton sample : samples) {
+            Tokenizer tokenizer = sample.getTokenizer();
+            String[] sigma = sample.getReduced().getSigma();
+            //First round is matched by lazy DFA, second one by reduced automaton
+            for (int round = 0; round < 2; round++) {
+                for (int i = 0; i < 200; i++) {
+                    String[] word = generator.getRandomWord(sigma, i % 15);
+                    boolean expected = sample.acceptsWordUnified(word);
+                    int[] symbols = tokenizer.encode(word);
+                    assertEquals("Encoded word should be accepted as the original one", expected, sample.acceptsWord(symbols));
+                    assertArrayEquals(symbols, tokenizer.encode(String.join("", word)));
+
+                    int[] padded = new int[symbols.length + 2];
+                    System.arraycopy(symbols, 0, padded, 1, symbols.length);
+                    padded[0] = padded[padded.length - 1] = Tokenizer.UNKNOWN;
+                    IntBuffer buffer = IntBuffer.wrap(padded, 1, symbols.length);
+                    assertEquals(expected, sample.acceptsWord(buffer));
+                    assertEquals("Position should not change", 1, buffer.position());
+
+                    IntBuffer direct = ByteBuffer.allocateDirect(4 * symbols.length).asIntBuffer();
+                    direct.put(symbols).flip();
+                    assertEquals(expected, sample.acceptsWord(direct));
+                }
+                sample.getReduced();
+            }
+        }
+    }
+
+    @Test
+    public void testBatch() {
+        AutomatonGenerator generator = new AutomatonGenerator(41);
+        Automaton nfa = generator.getRandomNFA(8, 4, 1.3, 0.3);
+        ArrayList<String> words = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            words.add(String.join("", generator.getRandomWord(nfa.getSigma(), i % 20)));
+        }
+        WordBatch batch = nfa.getTokenizer().encodeAll(words);
+        assertEquals(words.size(), batch.size());
+        assertEquals(words.get(17).length(), batch.getLength(17));
+        BitSet accepted = nfa.acceptsWords(batch);
+        for (int i = 0; i < words.size(); i++) {
+            assertEquals(nfa.acceptsWord(words.get(i)), accepted.get(i));
+        }
+
+        WordBatch explicit = WordBatch.of(new int[0], new int[]{0, 1}, new int[]{Tokenizer.UNKNOWN});
+        assertArrayEquals(new int[]{0, 1}, explicit.getWord(1));
+        BitSet explicitAccepted = nfa.acceptsWords(explicit);
+        assertEquals(nfa.acceptsWord(new int[0]), explicitAccepted.get(0));
+        assertEquals(nfa.acceptsWord(new int[]{0, 1}), explicitAccepted.get(1));
+        assertFalse(explicitAccepted.get(2));
+    }
+}
@@ -0,0 +1,83 @@
+package cz.cvut.fel.horovtom.logic.automata.automaton;
+
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+import org.junit.Test;
+
+import java.util.HashMap;
+
+import static org.junit.Assert.*;
+
+public class TransitionTableTest {
+
+    @Test
+    public void testDense() {
+        /*
+                 a   b
+            0    1   0
+            1    1   0
+         */
+        TransitionTable table = TransitionTable.fromDense(2, 2, new int[]{1, 0, 1, 0});
+        assertTrue("Table with one target per cell should be deterministic", table.isDeterministic());
+        assertEquals(1, table.getTarget(0, 0));
+        assertEquals(0, table.getTarget(1, 1));
+        assertArrayEquals(new int[]{1}, table.getTargets(1, 0));
+        assertEquals(1, table.getEnd(0, 1) - table.getStart(0, 1));
+    }
+
+    @Test
+    public void testNondeterministic() {
+        /*
+                 a      b
+            0    0,1    -
+            1    -      1
+         */
+        TransitionTable table = new TransitionTable.Builder(2, 2)
+                .add(0).add(1).nextCell()
+                .nextCell()
+                .nextCell()
+                .add(1).nextCell()
+                .build();
+        assertFalse("Table with empty cells should not be deterministic", table.isDeterministic());
+        assertArrayEquals(new int[]{0, 1}, table.getTargets(0, 0));
+        assertArrayEquals(new int[0], table.getTargets(0, 1));
+        assertEquals(-1, table.getTarget(1, 0));
+        assertEquals(1, table.getTarget(1, 1));
+        assertArrayEquals(new int[]{0, -1, -1, 1}, table.getDenseTable());
+    }
+
+    @Test
+    public void testHashMapRoundTrip() {
+        HashMap<Integer, HashMap<Integer, int[]>> transitions = new HashMap<>();
+        HashMap<Integer, int[]> row = new HashMap<>();
+        row.put(0, new int[]{2});
+        row.put(1, new int[]{0, 1});
+        transitions.put(0, row);
+        row = new HashMap<>();
+        row.put(1, new int[]{2});
+        transitions.put(2, row);
+
+        TransitionTable table = TransitionTable.fromHashMap(3, 2, transitions);
+        HashMap<Integer, HashMap<Integer, int[]>> result = table.toHashMap();
+        assertEquals("Missing rows should be filled", 3, result.size());
+        assertArrayEquals(new int[]{2}, result.get(0).get(0));
+        assertArrayEquals(new int[]{0, 1}, result.get(0).get(1));
+        assertArrayEquals(new int[0], result.get(1).get(0));
+        assertArrayEquals(new int[0], result.get(2).get(0));
+        assertArrayEquals(new int[]{2}, result.get(2).get(1));
+    }
+
+    @Test
+    public void testSortedTargets() {
+        TransitionTable table = new TransitionTable.Builder(3, 1)
+                .add(2).add(0).add(2).add(1).nextCell()
+                .nextCell()
+                .add(1).add(1).nextCell()
+                .build();
+        assertArrayEquals("Targets should be sorted and without duplicates", new int[]{0, 1, 2}, table.getTargets(0, 0));
+        assertArrayEquals(new int[]{1}, table.getTargets(2, 0));
+        assertEquals("Empty cells should not take space", 4, table.getTransitionCount());
+        assertTrue(table.hasTransition(0, 0, 2));
+        assertFalse(table.hasTransition(1, 0, 1));
+        assertFalse(table.hasTransition(2, 0, 0));
+    }
+}
@@ -4,7 +4,9 @@ import cz.cvut.fel.horovtom.automata.logic.reducers.DFAReducer;
 import org.junit.Test;
 
 import java.util.HashMap;
+import java.util.Random;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
@@ -160,6 +162,48 @@ public class DFAReducerTest {
 
     }
 
+    @Test
+    public void testAlgorithmsAgree() {
+        Random r = new Random(3);
+        for (int test = 0; test < 200; test++) {
+            int QSize = 1 + r.nextInt(30);
+            int sigmaSize = 1 + r.nextInt(3);
+            int[] table = new int[QSize * sigmaSize];
+            for (int i = 0; i < table.length; i++) {
+                table[i] = r.nextInt(QSize);
+            }
+            int[] accepting = r.ints(r.nextInt(QSize + 1), 0, QSize).distinct().sorted().toArray();
+            int initial = r.nextInt(QSize);
+
+            DFAReducer tableReducer = new DFAReducer(table, QSize, sigmaSize, initial, accepting, DFAReducer.Algorithm.TABLE);
+            DFAReducer hopcroftReducer = new DFAReducer(table, QSize, sigmaSize, initial, accepting, DFAReducer.Algorithm.HOPCROFT);
+            assertArrayEquals("Hopcroft minimization should produce the same table as reduction table",
+                    tableReducer.getReducedTable(), hopcroftReducer.getReducedTable());
+            assertArrayEquals(tableReducer.getReducedAccepting(), hopcroftReducer.getReducedAccepting());
+            assertArrayEquals(tableReducer.getReducedQ(), hopcroftReducer.getReducedQ());
+            assertEquals(tableReducer.getReducedInitial(), hopcroftReducer.getReducedInitial());
+        }
+    }
+
+    @Test
+    public void testHopcroftLarge() {
+        //Counter modulo n, that only checks the count modulo 3
+        int QSize = 300000;
+        int[] table = new int[QSize * 2];
+        for (int state = 0; state < QSize; state++) {
+            table[state * 2] = (state + 1) % QSize;
+            table[state * 2 + 1] = state;
+        }
+        int[] accepting = new int[QSize / 3];
+        for (int i = 0; i < accepting.length; i++) {
+            accepting[i] = i * 3;
+        }
+        DFAReducer reducer = new DFAReducer(table, QSize, 2, 0, accepting, DFAReducer.Algorithm.HOPCROFT);
+        assertEquals(3, reducer.getReducedQ().length);
+        assertArrayEquals(new int[]{1, 0, 2, 1, 0, 2}, reducer.getReducedTable());
+        assertArrayEquals(new int[]{0}, reducer.getReducedAccepting());
+    }
+
     private boolean checkRowTransitions(HashMap<Integer, Integer> integerIntegerHashMap, int[] expected) {
         for (int i = 0; i < expected.length; i++) {
             if (integerIntegerHashMap.get(i) != expected[i]) return false;
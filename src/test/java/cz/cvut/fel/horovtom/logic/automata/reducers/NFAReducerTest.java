@@ -1,5 +1,6 @@
 package cz.cvut.fel.horovtom.logic.automata.reducers;
 
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
 import cz.cvut.fel.horovtom.automata.logic.reducers.NFAReducer;
 import org.junit.Test;
 
@@ -316,5 +317,23 @@ public class NFAReducerTest {
         assertEquals("Invalid letter name!", "c", reducedSigma[2]);
     }
 
-
+    /**
+     * NFA accepting words, where n-th letter from the end is a, has 2^n states after determinization
+     */
+    @Test
+    public void testExponential() {
+        int n = 14;
+        String[] q = new String[n + 1];
+        TransitionTable.Builder builder = new TransitionTable.Builder(n + 1, 2);
+        for (int state = 0; state <= n; state++) {
+            q[state] = String.valueOf(state);
+            if (state == 0) builder.add(0).add(1).nextCell().add(0).nextCell();
+            else if (state < n) builder.add(state + 1).nextCell().add(state + 1).nextCell();
+            else builder.nextCell().nextCell();
+        }
+        NFAReducer reducer = new NFAReducer(q, new String[]{"a", "b"}, builder.build(), new int[]{0}, new int[]{n});
+        assertEquals("Invalid state count!", 1 << n, reducer.getReducedQ().length);
+        assertEquals("Invalid initial state name!", "0", reducer.getReducedQ()[reducer.getReducedInitial()]);
+        assertEquals("Invalid accepting state count!", 1 << (n - 1), reducer.getReducedAccepting().length);
+    }
 }
@@ -0,0 +1,67 @@
+package cz.cvut.fel.horovtom.logic.automata.reducers;
+
+import cz.cvut.fel.horovtom.automata.logic.TransitionTable;
+import cz.cvut.fel.horovtom.automata.logic.reducers.Trimmer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TrimmerTest {
+
+    @Test
+    public void testUselessStates() {
+        /*
+                 a      b
+            >0   1,3    -
+             1   -      2
+            <2   2      -
+             3   3      -
+             4   2      -
+         */
+        TransitionTable table = new TransitionTable.Builder(5, 2)
+                .add(1).add(3).nextCell().nextCell()
+                .nextCell().add(2).nextCell()
+                .add(2).nextCell().nextCell()
+                .add(3).nextCell().nextCell()
+                .add(2).nextCell().nextCell()
+                .build();
+
+        Trimmer reachableOnly = new Trimmer(table, new int[]{0}, new int[]{2}, false);
+        assertTrue("Unreachable state 4 should be removed", reachableOnly.wasTrimmed());
+        assertArrayEquals(new String[]{"0", "1", "2", "3"}, reachableOnly.getQ(new String[]{"0", "1", "2", "3", "4"}));
+
+        Trimmer trimmer = new Trimmer(table, new int[]{0}, new int[]{2}, true);
+        assertArrayEquals("Unreachable state 4 and dead state 3 should be removed",
+                new int[]{0, 1, 2, -1, -1}, trimmer.getStateMapping());
+        assertArrayEquals(new int[]{0, 1, 2}, trimmer.getKeptStates());
+        assertArrayEquals(new int[]{0}, trimmer.getInitial());
+        assertArrayEquals(new int[]{2}, trimmer.getAccepting());
+        assertArrayEquals("Transitions to dead state should be removed", new int[]{1}, trimmer.getTable().getTargets(0, 0));
+        assertArrayEquals(new int[]{2}, trimmer.getTable().getTargets(2, 0));
+    }
+
+    @Test
+    public void testEmptyLanguage() {
+        TransitionTable table = TransitionTable.fromDense(2, 1, new int[]{1, 1});
+        Trimmer trimmer = new Trimmer(table, new int[]{0}, new int[0], true);
+        assertEquals("Initial state should be kept", 1, trimmer.getStateCount());
+        assertArrayEquals(new int[0], trimmer.getTable().getTargets(0, 0));
+    }
+
+    @Test
+    public void testLongChain() {
+        //Recursive search would overflow the stack on this chain
+        int QSize = 1000000;
+        int[] dense = new int[QSize];
+        for (int state = 0; state < QSize; state++) {
+            dense[state] = Math.min(state + 1, QSize - 1);
+        }
+        TransitionTable table = TransitionTable.fromDense(QSize, 1, dense);
+        Trimmer trimmer = new Trimmer(table, new int[]{0}, new int[]{QSize - 1}, true);
+        assertFalse("Every state of the chain is useful", trimmer.wasTrimmed());
+        assertSame(table, trimmer.getTable());
+
+        trimmer = new Trimmer(table, new int[]{QSize / 2}, new int[]{QSize - 1}, true);
+        assertEquals(QSize - QSize / 2, trimmer.getStateCount());
+    }
+}
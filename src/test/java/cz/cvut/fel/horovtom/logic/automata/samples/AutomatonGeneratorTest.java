@@ -0,0 +1,109 @@
+package cz.cvut.fel.horovtom.logic.automata.samples;
+
+import cz.cvut.fel.horovtom.automata.logic.Automaton;
+import cz.cvut.fel.horovtom.automata.logic.DFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.ENFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.NFAAutomaton;
+import cz.cvut.fel.horovtom.automata.logic.reducers.DFAReducer;
+import cz.cvut.fel.horovtom.automata.samples.AutomatonGenerator;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.*;
+
+public class AutomatonGeneratorTest {
+
+    @Test
+    public void testReproducible() {
+        AutomatonGenerator a = new AutomatonGenerator(7), b = new AutomatonGenerator(7);
+        assertEquals("Same seed should generate same DFA", a.getRandomDFA(20, 3, 0.3), b.getRandomDFA(20, 3, 0.3));
+        assertEquals("Same seed should generate same NFA", a.getRandomNFA(20, 3, 1.5, 0.3), b.getRandomNFA(20, 3, 1.5, 0.3));
+        assertEquals("Same seed should generate same ENFA", a.getRandomENFA(20, 3, 1, 0.5, 0.3), b.getRandomENFA(20, 3, 1, 0.5, 0.3));
+    }
+
+    @Test
+    public void testSizes() {
+        AutomatonGenerator generator = new AutomatonGenerator(1);
+        DFAAutomaton dfa = generator.getRandomDFA(5000, 30, 0.5);
+        assertEquals(5000, dfa.getQSize());
+        assertEquals(30, dfa.getSigmaSize());
+        assertEquals("l29", dfa.getSigma()[29]);
+
+        ENFAAutomaton chains = generator.getEpsilonChains(10, 100, 2);
+        assertEquals(1000, chains.getQSize());
+        assertTrue(chains.hasEpsilonTransitions());
+        assertEquals("Whole chain should be in epsilon closure of its first state", 100, chains.getEpsilonClosure("0").length);
+    }
+
+    @Test
+    public void testNthFromEnd() {
+        for (int n = 1; n <= 8; n++) {
+            NFAAutomaton nfa = AutomatonGenerator.getNthFromEnd(n);
+            assertEquals(n + 1, nfa.getQSize());
+            assertEquals("Reduced DFA should have 2^n states", 1 << n, nfa.getReduced().getQSize());
+        }
+        NFAAutomaton nfa = AutomatonGenerator.getNthFromEnd(3);
+        assertTrue(nfa.acceptsWord("babb"));
+        assertTrue(nfa.acceptsWord("abb"));
+        assertFalse(nfa.acceptsWord("abba"));
+        assertFalse(nfa.acceptsWord("aa"));
+    }
+
+    @Test
+    public void testHopcroftWorstCase() {
+        for (int k = 1; k <= 8; k++) {
+            DFAAutomaton dfa = AutomatonGenerator.getHopcroftWorstCase(k);
+            assertEquals(1 << k, dfa.getQSize());
+            assertEquals("Half of the states of de Bruijn cycle should be accepting", 1 << (k - 1), dfa.getAcceptingStates().length);
+            assertEquals("De Bruijn cycle should be already reduced", 1 << k, dfa.reduce().getQSize());
+        }
+    }
+
+    @Test
+    public void testDFAReducersAgree() {
+        AutomatonGenerator generator = new AutomatonGenerator(42);
+        for (int i = 0; i < 50; i++) {
+            DFAAutomaton dfa = generator.getRandomDFA(2 + i, 1 + i % 4, 0.3);
+            DFAAutomaton table = dfa.reduce(DFAReducer.Algorithm.TABLE);
+            DFAAutomaton hopcroft = dfa.reduce(DFAReducer.Algorithm.HOPCROFT);
+            assertEquals("Both algorithms should produce the same number of states", table.getQSize(), hopcroft.getQSize());
+            assertMatchingAgrees(generator, dfa, hopcroft);
+        }
+    }
+
+    @Test
+    public void testNFAMatching() {
+        AutomatonGenerator generator = new AutomatonGenerator(43);
+        for (int i = 0; i < 50; i++) {
+            NFAAutomaton nfa = generator.getRandomNFA(2 + i % 12, 1 + i % 3, 1.2, 0.3);
+            assertMatchingAgrees(generator, nfa, nfa.getReduced());
+        }
+    }
+
+    @Test
+    public void testENFAMatching() {
+        AutomatonGenerator generator = new AutomatonGenerator(44);
+        for (int i = 0; i < 50; i++) {
+            ENFAAutomaton enfa = generator.getRandomENFA(2 + i % 12, 1 + i % 3, 0.8, 0.4, 0.3);
+            assertMatchingAgrees(generator, enfa, enfa.getReduced());
+        }
+        ENFAAutomaton chains = generator.getEpsilonChains(5, 20, 2);
+        assertMatchingAgrees(generator, chains, chains.getReduced());
+    }
+
+    /**
+     * Compares simulation, lazy determinization and reduced DFA on random words
+     */
+    private static void assertMatchingAgrees(AutomatonGenerator generator, Automaton automaton, DFAAutomaton reduced) {
+        String[] sigma = Arrays.stream(automaton.getSigma()).filter(l -> !Automaton.isEpsilonName(l)).toArray(String[]::new);
+        for (int j = 0; j < 100; j++) {
+            String[] word = generator.getRandomWord(sigma, j % 20);
+            boolean expected = automaton.acceptsWordUnified(word);
+            assertEquals("Lazy DFA should agree with simulation on " + String.join("", word) + " in:\n" + automaton,
+                    expected, automaton.acceptsWordLazy(word));
+            assertEquals("Reduced DFA should agree with simulation on " + String.join("", word) + " in:\n" + automaton,
+                    expected, reduced.acceptsWordUnified(word));
+        }
+    }
+}